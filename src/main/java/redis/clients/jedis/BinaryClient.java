@@ -13,6 +13,7 @@ import static redis.clients.jedis.Protocol.Keyword.RESET;
 import static redis.clients.jedis.Protocol.Keyword.STORE;
 import static redis.clients.jedis.Protocol.Keyword.WITHSCORES;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -86,6 +87,10 @@ public class BinaryClient extends Connection {
 	sendCommand(Command.SET, key, value);
     }
 
+    public void set(final byte[] key, final ByteBuffer value) {
+	sendCommand(Command.SET, new byte[][] { key }, value);
+    }
+
     public void get(final byte[] key) {
 	sendCommand(Command.GET, key);
     }
@@ -115,6 +120,13 @@ public class BinaryClient extends Connection {
 	sendCommand(KEYS, pattern);
     }
 
+    public void scan(final byte[] cursor, final ScanParams params) {
+	final List<byte[]> args = new ArrayList<byte[]>();
+	args.add(cursor);
+	args.addAll(params.getParams());
+	sendCommand(SCAN, args.toArray(new byte[args.size()][]));
+    }
+
     public void randomKey() {
 	sendCommand(RANDOMKEY);
     }
@@ -172,6 +184,11 @@ public class BinaryClient extends Connection {
 	sendCommand(SETEX, key, toByteArray(seconds), value);
     }
 
+    public void setex(final byte[] key, final int seconds,
+	    final ByteBuffer value) {
+	sendCommand(SETEX, new byte[][] { key, toByteArray(seconds) }, value);
+    }
+
     public void mset(final byte[]... keysvalues) {
 	sendCommand(MSET, keysvalues);
     }
@@ -208,6 +225,11 @@ public class BinaryClient extends Connection {
 	sendCommand(HSET, key, field, value);
     }
 
+    public void hset(final byte[] key, final byte[] field,
+	    final ByteBuffer value) {
+	sendCommand(HSET, new byte[][] { key, field }, value);
+    }
+
     public void hget(final byte[] key, final byte[] field) {
 	sendCommand(HGET, key, field);
     }
@@ -662,11 +684,11 @@ public class BinaryClient extends Connection {
     }
 
     public void configGet(final byte[] pattern) {
-	sendCommand(CONFIG, Keyword.GET.raw, pattern);
+	sendCommand(CONFIG, Keyword.GET, pattern);
     }
 
     public void configSet(final byte[] parameter, final byte[] value) {
-	sendCommand(CONFIG, Keyword.SET.raw, parameter, value);
+	sendCommand(CONFIG, Keyword.SET, parameter, value);
     }
 
     public void strlen(final byte[] key) {
@@ -760,7 +782,7 @@ public class BinaryClient extends Connection {
     }
 
     public void scriptFlush() {
-	sendCommand(SCRIPT, Keyword.FLUSH.raw);
+	sendCommand(SCRIPT, Keyword.FLUSH);
     }
 
     public void scriptExists(byte[]... sha1) {
@@ -773,38 +795,38 @@ public class BinaryClient extends Connection {
     }
 
     public void scriptLoad(byte[] script) {
-	sendCommand(SCRIPT, Keyword.LOAD.raw, script);
+	sendCommand(SCRIPT, Keyword.LOAD, script);
     }
 
     public void scriptKill() {
-	sendCommand(SCRIPT, Keyword.KILL.raw);
+	sendCommand(SCRIPT, Keyword.KILL);
     }
 
     public void slowlogGet() {
-	sendCommand(SLOWLOG, Keyword.GET.raw);
+	sendCommand(SLOWLOG, Keyword.GET);
     }
 
     public void slowlogGet(long entries) {
-	sendCommand(SLOWLOG, Keyword.GET.raw, toByteArray(entries));
+	sendCommand(SLOWLOG, Keyword.GET, toByteArray(entries));
     }
 
     public void slowlogReset() {
-	sendCommand(SLOWLOG, RESET.raw);
+	sendCommand(SLOWLOG, RESET);
     }
 
     public void slowlogLen() {
-	sendCommand(SLOWLOG, LEN.raw);
+	sendCommand(SLOWLOG, LEN);
     }
 
     public void objectRefcount(byte[] key) {
-	sendCommand(OBJECT, REFCOUNT.raw, key);
+	sendCommand(OBJECT, REFCOUNT, key);
     }
 
     public void objectIdletime(byte[] key) {
-	sendCommand(OBJECT, IDLETIME.raw, key);
+	sendCommand(OBJECT, IDLETIME, key);
     }
 
     public void objectEncoding(byte[] key) {
-	sendCommand(OBJECT, ENCODING.raw, key);
+	sendCommand(OBJECT, ENCODING, key);
     }
 }
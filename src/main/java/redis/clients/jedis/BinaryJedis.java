@@ -2,6 +2,8 @@ package redis.clients.jedis;
 
 import static redis.clients.jedis.Protocol.toByteArray;
 
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -33,9 +35,7 @@ public class BinaryJedis implements BinaryJedisCommands {
     }
 
     public BinaryJedis(final JedisShardInfo shardInfo) {
-	client = new Client(shardInfo.getHost(), shardInfo.getPort());
-	client.setTimeout(shardInfo.getTimeout());
-	client.setPassword(shardInfo.getPassword());
+	client = new Client(shardInfo);
     }
 
     public String ping() {
@@ -60,6 +60,21 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getStatusCodeReply();
     }
 
+    /**
+     * Same as {@link #set(byte[], byte[])}, but the value is the remaining
+     * bytes of a ByteBuffer. Direct buffers are copied straight into the
+     * connection's output buffer. The buffer's position is not changed.
+     * 
+     * @param key
+     * @param value
+     * @return Status code reply
+     */
+    public String set(final byte[] key, final ByteBuffer value) {
+	checkIsInMulti();
+	client.set(key, value);
+	return client.getStatusCodeReply();
+    }
+
     /**
      * Get the value of the specified key. If the key does not exist the special
      * value 'nil' is returned. If the value stored at key is not a string an
@@ -76,6 +91,43 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getBinaryBulkReply();
     }
 
+    /**
+     * Get the value of the specified key, writing it to out as it comes off
+     * the socket. Unlike {@link #get(byte[])} the value is never held in
+     * memory as a whole, which makes this the way to read large values.
+     * <p>
+     * Time complexity: O(1)
+     * 
+     * @param key
+     * @param out
+     *            where the value is written to. It is neither flushed nor
+     *            closed.
+     * @return the length of the value, or -1 if the key does not exist
+     */
+    public int get(final byte[] key, final OutputStream out) {
+	checkIsInMulti();
+	client.get(key);
+	return client.getBinaryBulkReply(out);
+    }
+
+    /**
+     * Get the value of the specified key into the remaining space of dst,
+     * which can be a direct buffer. The value is copied once, from the
+     * connection's read buffer into dst, and dst's position is advanced by
+     * its length.
+     * 
+     * @param key
+     * @param dst
+     * @return the length of the value, or -1 if the key does not exist
+     * @throws java.nio.BufferOverflowException
+     *             if the value does not fit in dst, which is then left as is
+     */
+    public int get(final byte[] key, final ByteBuffer dst) {
+	checkIsInMulti();
+	client.get(key);
+	return client.getBinaryBulkReply(dst);
+    }
+
     /**
      * Ask the server to silently close the connection.
      */
@@ -101,6 +153,16 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getIntegerReply() == 1;
     }
 
+    /**
+     * Same as {@link #exists(byte[])}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public boolean existsAsBoolean(final byte[] key) {
+	checkIsInMulti();
+	client.exists(key);
+	return client.getIntegerReplyAsLong() == 1;
+    }
+
     /**
      * Remove the specified keys. If a given key does not exist no operation is
      * performed for this key. The command returns the number of keys removed.
@@ -188,6 +250,46 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return keySet;
     }
 
+    /**
+     * Same as {@link #keys(byte[])}, but each matching key is handed to the
+     * visitor as it is read rather than collected in a Set.
+     * 
+     * @param pattern
+     * @param visitor
+     * @return the number of keys visited
+     */
+    public int keys(final byte[] pattern, final ReplyVisitor<byte[]> visitor) {
+	checkIsInMulti();
+	client.keys(pattern);
+	return client.getBinaryMultiBulkReply(visitor);
+    }
+
+    public ScanResult<byte[]> scan(final byte[] cursor) {
+	return scan(cursor, new ScanParams());
+    }
+
+    /**
+     * Iterates the keys a page at a time, starting from the cursor
+     * {@link ScanParams#SCAN_POINTER_START} and passing on the cursor of each
+     * page, unlike {@link #keys(byte[])} which blocks the server while it
+     * lists them all. A key may be returned more than once, and keys added or
+     * removed meanwhile may be missed.
+     * <p>
+     * Time complexity: O(1) for every call, O(N) for a complete iteration
+     * 
+     * @param cursor
+     * @param params
+     * @return the keys of this page and the cursor of the next one
+     */
+    @SuppressWarnings("unchecked")
+    public ScanResult<byte[]> scan(final byte[] cursor, final ScanParams params) {
+	checkIsInMulti();
+	client.scan(cursor, params);
+	final List<Object> reply = client.getObjectMultiBulkReply();
+	return new ScanResult<byte[]>((byte[]) reply.get(0),
+		(List<byte[]>) reply.get(1));
+    }
+
     /**
      * Return a randomly selected key from the currently selected DB.
      * <p>
@@ -447,6 +549,22 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getStatusCodeReply();
     }
 
+    /**
+     * Same as {@link #setex(byte[], int, byte[])}, but the value is the
+     * remaining bytes of a ByteBuffer.
+     * 
+     * @param key
+     * @param seconds
+     * @param value
+     * @return Status code reply
+     */
+    public String setex(final byte[] key, final int seconds,
+	    final ByteBuffer value) {
+	checkIsInMulti();
+	client.setex(key, seconds, value);
+	return client.getStatusCodeReply();
+    }
+
     /**
      * Set the the respective keys to the respective values. MSET will replace
      * old values with new values, while {@link #msetnx(String...) MSETNX} will
@@ -528,6 +646,16 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #decrBy(byte[], long)}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long decrByAsLong(final byte[] key, final long integer) {
+	checkIsInMulti();
+	client.decrBy(key, integer);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * Decrement the number stored at key by one. If the key does not exist or
      * contains a value of a wrong type, set the key to the value of "0" before
@@ -556,6 +684,16 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #decr(byte[])}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long decrAsLong(final byte[] key) {
+	checkIsInMulti();
+	client.decr(key);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * INCRBY work just like {@link #incr(byte[]) INCR} but instead to increment
      * by 1 the increment is integer.
@@ -584,6 +722,16 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #incrBy(byte[], long)}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long incrByAsLong(final byte[] key, final long integer) {
+	checkIsInMulti();
+	client.incrBy(key, integer);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * Increment the number stored at key by one. If the key does not exist or
      * contains a value of a wrong type, set the key to the value of "0" before
@@ -612,6 +760,16 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #incr(byte[])}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long incrAsLong(final byte[] key) {
+	checkIsInMulti();
+	client.incr(key);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * If the key already exists and is a string, this command appends the
      * provided value at the end of the string. If the key does not exist it is
@@ -679,6 +837,24 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #hset(byte[], byte[], byte[])}, but the value is the
+     * remaining bytes of a ByteBuffer.
+     * 
+     * @param key
+     * @param field
+     * @param value
+     * @return If the field already exists, and the HSET just produced an
+     *         update of the value, 0 is returned, otherwise if a new field is
+     *         created 1 is returned.
+     */
+    public Long hset(final byte[] key, final byte[] field,
+	    final ByteBuffer value) {
+	checkIsInMulti();
+	client.hset(key, field, value);
+	return client.getIntegerReply();
+    }
+
     /**
      * If key holds a hash, retrieve the value associated to the specified
      * field.
@@ -698,6 +874,38 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getBinaryBulkReply();
     }
 
+    /**
+     * Same as {@link #hget(byte[], byte[])}, but the value is written to out
+     * as it is read instead of being returned as a byte[].
+     * 
+     * @param key
+     * @param field
+     * @param out
+     * @return the length of the value, or -1 if the field does not exist
+     */
+    public int hget(final byte[] key, final byte[] field, final OutputStream out) {
+	checkIsInMulti();
+	client.hget(key, field);
+	return client.getBinaryBulkReply(out);
+    }
+
+    /**
+     * Same as {@link #hget(byte[], byte[])}, but the value is copied into the
+     * remaining space of dst.
+     * 
+     * @param key
+     * @param field
+     * @param dst
+     * @return the length of the value, or -1 if the field does not exist
+     * @throws java.nio.BufferOverflowException
+     *             if the value does not fit in dst, which is then left as is
+     */
+    public int hget(final byte[] key, final byte[] field, final ByteBuffer dst) {
+	checkIsInMulti();
+	client.hget(key, field);
+	return client.getBinaryBulkReply(dst);
+    }
+
     /**
      * 
      * Set the specified hash field to the specified value if the field not
@@ -776,6 +984,16 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #hincrBy(byte[], byte[], long)}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long hincrByAsLong(final byte[] key, final byte[] field, final long value) {
+	checkIsInMulti();
+	client.hincrBy(key, field, value);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * Test for existence of a specified field in a hash.
      * 
@@ -875,6 +1093,20 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return hash;
     }
 
+    /**
+     * Same as {@link #hgetAll(byte[])}, but each field and value is handed to
+     * the visitor as it is read rather than collected in a Map.
+     * 
+     * @param key
+     * @param visitor
+     * @return the number of fields visited
+     */
+    public int hgetAll(final byte[] key, final HashReplyVisitor<byte[]> visitor) {
+	checkIsInMulti();
+	client.hgetAll(key);
+	return client.getBinaryHashMultiBulkReply(visitor);
+    }
+
     /**
      * Add the string value to the head (LPUSH) or tail (RPUSH) of the list
      * stored at key. If the key does not exist an empty list is created just
@@ -933,6 +1165,16 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #llen(byte[])}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long llenAsLong(final byte[] key) {
+	checkIsInMulti();
+	client.llen(key);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * Return the specified elements of the list stored at the specified key.
      * Start and end are zero-based indexes. 0 is the first element of the list
@@ -977,6 +1219,24 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getBinaryMultiBulkReply();
     }
 
+    /**
+     * Same as {@link #lrange(byte[], int, int)}, but the elements are handed
+     * to the visitor one at a time as they are read, so ranges of any size
+     * can be walked in bounded memory.
+     * 
+     * @param key
+     * @param start
+     * @param end
+     * @param visitor
+     * @return the number of elements visited
+     */
+    public int lrange(final byte[] key, final long start, final long end,
+	    final ReplyVisitor<byte[]> visitor) {
+	checkIsInMulti();
+	client.lrange(key, start, end);
+	return client.getBinaryMultiBulkReply(visitor);
+    }
+
     /**
      * Trim an existing list so that it will contain only the specified range of
      * elements specified. Start and end are zero-based indexes. 0 is the first
@@ -1190,6 +1450,20 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return new HashSet<byte[]>(members);
     }
 
+    /**
+     * Same as {@link #smembers(byte[])}, but each member is handed to the
+     * visitor as it is read rather than collected in a Set.
+     * 
+     * @param key
+     * @param visitor
+     * @return the number of members visited
+     */
+    public int smembers(final byte[] key, final ReplyVisitor<byte[]> visitor) {
+	checkIsInMulti();
+	client.smembers(key);
+	return client.getBinaryMultiBulkReply(visitor);
+    }
+
     /**
      * Remove the specified member from the set value stored at key. If member
      * was not a member of the set no operation is performed. If key does not
@@ -1270,6 +1544,16 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #scard(byte[])}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long scardAsLong(final byte[] key) {
+	checkIsInMulti();
+	client.scard(key);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * Return 1 if member is a member of the set stored at key, otherwise 0 is
      * returned.
@@ -1618,6 +1902,16 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #zcard(byte[])}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long zcardAsLong(final byte[] key) {
+	checkIsInMulti();
+	client.zcard(key);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * Return the score of the specified element of the sorted set at key. If
      * the specified element does not exist in the sorted set, or the key does
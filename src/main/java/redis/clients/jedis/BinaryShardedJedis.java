@@ -1,18 +1,28 @@
 package redis.clients.jedis;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
 import redis.clients.jedis.BinaryClient.LIST_POSITION;
+import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.util.Hashing;
+import redis.clients.util.SafeEncoder;
 import redis.clients.util.Sharded;
+import redis.clients.util.ShardingStrategy;
 
 public class BinaryShardedJedis extends Sharded<Jedis, JedisShardInfo>
 	implements BinaryJedisCommands {
+    /** Set once the migration of this instance is over, if shared */
+    private AtomicBoolean migrated;
+
     public BinaryShardedJedis(List<JedisShardInfo> shards) {
 	super(shards);
     }
@@ -30,430 +40,495 @@ public class BinaryShardedJedis extends Sharded<Jedis, JedisShardInfo>
 	super(shards, algo, keyTagPattern);
     }
 
+    public BinaryShardedJedis(List<JedisShardInfo> shards, Hashing algo,
+	    Pattern keyTagPattern, ShardingStrategy strategy) {
+	super(shards, algo, keyTagPattern, strategy);
+    }
+
+    /**
+     * Builds a BinaryShardedJedis migrating from previousShards to shards.
+     * Before its first command on a key that changed owner, it moves the key
+     * from its previous owner if it is still there, so every command sees
+     * the whole value. Pipelines do the same.
+     * 
+     * @see Sharded#Sharded(List, List, Hashing, Pattern, ShardingStrategy)
+     */
+    public BinaryShardedJedis(List<JedisShardInfo> shards,
+	    List<JedisShardInfo> previousShards, Hashing algo,
+	    Pattern keyTagPattern, ShardingStrategy strategy) {
+	super(shards, previousShards, algo, keyTagPattern, strategy);
+    }
+
     public void disconnect() throws IOException {
 	for (Jedis jedis : getAllShards()) {
 	    jedis.disconnect();
 	}
     }
 
+    /**
+     * Ends the migration of this instance before its next command once
+     * migrated is set, by whoever moved the keys left, however long it is
+     * kept around.
+     */
+    void finishMigrationWhen(AtomicBoolean migrated) {
+	this.migrated = migrated;
+    }
+
+    void checkMigration() {
+	if (migrated != null && migrated.get()) {
+	    migrated = null;
+	    finishMigration();
+	}
+    }
+
+    @Override
+    public boolean isMigrating() {
+	checkMigration();
+	return super.isMigrating();
+    }
+
+    /**
+     * @return the shard of key, to which it is first moved from its previous
+     *         owner while migrating
+     */
+    protected Jedis getOwner(byte[] key) {
+	checkMigration();
+	Jedis j = getShard(key);
+	Jedis previous = getPreviousShard(key);
+	if (previous != null) {
+	    ShardMover.move(key, previous, j);
+	}
+	return j;
+    }
+
+    protected Jedis getOwner(String key) {
+	checkMigration();
+	Jedis j = getShard(key);
+	Jedis previous = getPreviousShard(key);
+	if (previous != null) {
+	    ShardMover.move(SafeEncoder.encode(key), previous, j);
+	}
+	return j;
+    }
+
     protected Jedis create(JedisShardInfo shard) {
 	return new Jedis(shard);
     }
 
     public String set(byte[] key, byte[] value) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.set(key, value);
     }
 
     public byte[] get(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.get(key);
     }
 
     public Boolean exists(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.exists(key);
     }
 
     public String type(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.type(key);
     }
 
     public Long expire(byte[] key, int seconds) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.expire(key, seconds);
     }
 
     public Long expireAt(byte[] key, long unixTime) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.expireAt(key, unixTime);
     }
 
     public Long ttl(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.ttl(key);
     }
 
     public byte[] getSet(byte[] key, byte[] value) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.getSet(key, value);
     }
 
     public Long setnx(byte[] key, byte[] value) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.setnx(key, value);
     }
 
     public String setex(byte[] key, int seconds, byte[] value) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.setex(key, seconds, value);
     }
 
     public Long decrBy(byte[] key, long integer) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.decrBy(key, integer);
     }
 
     public Long decr(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.decr(key);
     }
 
     public Long incrBy(byte[] key, long integer) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.incrBy(key, integer);
     }
 
     public Long incr(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.incr(key);
     }
 
     public Long append(byte[] key, byte[] value) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.append(key, value);
     }
 
     public byte[] substr(byte[] key, int start, int end) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.substr(key, start, end);
     }
 
     public Long hset(byte[] key, byte[] field, byte[] value) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.hset(key, field, value);
     }
 
     public byte[] hget(byte[] key, byte[] field) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.hget(key, field);
     }
 
     public Long hsetnx(byte[] key, byte[] field, byte[] value) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.hsetnx(key, field, value);
     }
 
     public String hmset(byte[] key, Map<byte[], byte[]> hash) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.hmset(key, hash);
     }
 
     public List<byte[]> hmget(byte[] key, byte[]... fields) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.hmget(key, fields);
     }
 
     public Long hincrBy(byte[] key, byte[] field, long value) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.hincrBy(key, field, value);
     }
 
     public Boolean hexists(byte[] key, byte[] field) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.hexists(key, field);
     }
 
     public Long hdel(byte[] key, byte[]... fields) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.hdel(key, fields);
     }
 
     public Long hlen(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.hlen(key);
     }
 
     public Set<byte[]> hkeys(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.hkeys(key);
     }
 
     public Collection<byte[]> hvals(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.hvals(key);
     }
 
     public Map<byte[], byte[]> hgetAll(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.hgetAll(key);
     }
 
     public Long rpush(byte[] key, byte[]... strings) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.rpush(key, strings);
     }
 
     public Long lpush(byte[] key, byte[]... strings) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.lpush(key, strings);
     }
 
     public Long lpushx(byte[] key, byte[] string) {
-        Jedis j = getShard(key);
+        Jedis j = getOwner(key);
         return j.lpushx(key, string);
     }
     
 
     public Long rpushx(byte[] key, byte[] string) {
-        Jedis j = getShard(key);
+        Jedis j = getOwner(key);
         return j.rpushx(key, string);
     }
 
     public Long llen(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.llen(key);
     }
 
     public List<byte[]> lrange(byte[] key, int start, int end) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.lrange(key, start, end);
     }
 
     public String ltrim(byte[] key, int start, int end) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.ltrim(key, start, end);
     }
 
     public byte[] lindex(byte[] key, int index) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.lindex(key, index);
     }
 
     public String lset(byte[] key, int index, byte[] value) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.lset(key, index, value);
     }
 
     public Long lrem(byte[] key, int count, byte[] value) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.lrem(key, count, value);
     }
 
     public byte[] lpop(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.lpop(key);
     }
 
     public byte[] rpop(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.rpop(key);
     }
 
     public Long sadd(byte[] key, byte[]... members) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.sadd(key, members);
     }
 
     public Set<byte[]> smembers(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.smembers(key);
     }
 
     public Long srem(byte[] key, byte[]... members) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.srem(key, members);
     }
 
     public byte[] spop(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.spop(key);
     }
 
     public Long scard(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.scard(key);
     }
 
     public Boolean sismember(byte[] key, byte[] member) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.sismember(key, member);
     }
 
     public byte[] srandmember(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.srandmember(key);
     }
 
     public Long zadd(byte[] key, double score, byte[] member) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zadd(key, score, member);
     }
 
     public Long zadd(byte[] key, Map<Double, byte[]> scoreMembers) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zadd(key, scoreMembers);
     }
 
     public Set<byte[]> zrange(byte[] key, int start, int end) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrange(key, start, end);
     }
 
     public Long zrem(byte[] key, byte[]... members) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrem(key, members);
     }
 
     public Double zincrby(byte[] key, double score, byte[] member) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zincrby(key, score, member);
     }
 
     public Long zrank(byte[] key, byte[] member) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrank(key, member);
     }
 
     public Long zrevrank(byte[] key, byte[] member) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrevrank(key, member);
     }
 
     public Set<byte[]> zrevrange(byte[] key, int start, int end) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrevrange(key, start, end);
     }
 
     public Set<Tuple> zrangeWithScores(byte[] key, int start, int end) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrangeWithScores(key, start, end);
     }
 
     public Set<Tuple> zrevrangeWithScores(byte[] key, int start, int end) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrevrangeWithScores(key, start, end);
     }
 
     public Long zcard(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zcard(key);
     }
 
     public Double zscore(byte[] key, byte[] member) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zscore(key, member);
     }
 
     public List<byte[]> sort(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.sort(key);
     }
 
     public List<byte[]> sort(byte[] key, SortingParams sortingParameters) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.sort(key, sortingParameters);
     }
 
     public Long zcount(byte[] key, double min, double max) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zcount(key, min, max);
     }
     
     public Long zcount(byte[] key, byte[] min, byte[] max) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zcount(key, min, max);
     }
 
     public Set<byte[]> zrangeByScore(byte[] key, double min, double max) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrangeByScore(key, min, max);
     }
 
     public Set<byte[]> zrangeByScore(byte[] key, double min, double max,
 	    int offset, int count) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrangeByScore(key, min, max, offset, count);
     }
 
     public Set<Tuple> zrangeByScoreWithScores(byte[] key, double min, double max) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrangeByScoreWithScores(key, min, max);
     }
 
     public Set<Tuple> zrangeByScoreWithScores(byte[] key, double min,
 	    double max, int offset, int count) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrangeByScoreWithScores(key, min, max, offset, count);
     }
     
 
     public Set<Tuple> zrangeByScoreWithScores(byte[] key, byte[] min, byte[] max) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrangeByScoreWithScores(key, min, max);
     }
 
     public Set<Tuple> zrangeByScoreWithScores(byte[] key, byte[] min,
     		byte[] max, int offset, int count) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrangeByScoreWithScores(key, min, max, offset, count);
     }
 
     public Set<byte[]> zrevrangeByScore(byte[] key, double max, double min) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrevrangeByScore(key, max, min);
     }
 
     public Set<byte[]> zrevrangeByScore(byte[] key, double max, double min,
 	    int offset, int count) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrevrangeByScore(key, max, min, offset, count);
     }
 
     public Set<Tuple> zrevrangeByScoreWithScores(byte[] key, double max,
 	    double min) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrevrangeByScoreWithScores(key, max, min);
     }
 
     public Set<Tuple> zrevrangeByScoreWithScores(byte[] key, double max,
 	    double min, int offset, int count) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrevrangeByScoreWithScores(key, max, min, offset, count);
     }
     
     public Set<byte[]> zrevrangeByScore(byte[] key, byte[] max, byte[] min) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrevrangeByScore(key, max, min);
     }
 
     public Set<byte[]> zrevrangeByScore(byte[] key, byte[] max, byte[] min,
 	    int offset, int count) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrevrangeByScore(key, max, min, offset, count);
     }
 
     public Set<Tuple> zrevrangeByScoreWithScores(byte[] key, byte[] max,
     		byte[] min) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrevrangeByScoreWithScores(key, max, min);
     }
 
     public Set<Tuple> zrevrangeByScoreWithScores(byte[] key, byte[] max,
     		byte[] min, int offset, int count) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zrevrangeByScoreWithScores(key, max, min, offset, count);
     }
 
     public Long zremrangeByRank(byte[] key, int start, int end) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zremrangeByRank(key, start, end);
     }
 
     public Long zremrangeByScore(byte[] key, double start, double end) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zremrangeByScore(key, start, end);
     }
 
     public Long zremrangeByScore(byte[] key, byte[] start, byte[] end) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.zremrangeByScore(key, start, end);
     }
 
     public Long linsert(byte[] key, LIST_POSITION where, byte[] pivot,
 	    byte[] value) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.linsert(key, where, pivot, value);
     }
 
@@ -471,17 +546,219 @@ public class BinaryShardedJedis extends Sharded<Jedis, JedisShardInfo>
     }
 
     public Long objectRefcount(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.objectRefcount(key);
     }
 
     public byte[] objectEncoding(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.objectEncoding(key);
     }
 
     public Long objectIdletime(byte[] key) {
-	Jedis j = getShard(key);
+	Jedis j = getOwner(key);
 	return j.objectIdletime(key);
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the values of keys spread over any number of shards: one MGET is
+     * sent to each shard holding some of the keys, all of them before any
+     * reply is read, so this costs about one round trip to the slowest
+     * shard. The values come back in the order of the keys.
+     */
+    public List<byte[]> mget(byte[]... keys) {
+	Collection<ShardBatch> batches = batchByShard(keys, 1);
+	try {
+	    for (ShardBatch batch : batches) {
+		batch.jedis.getClient().mget(batch.binaryArgs());
+	    }
+	    flush(batches);
+	} catch (RuntimeException e) {
+	    throw abort(batches, e);
+	}
+	byte[][] values = new byte[keys.length][];
+	RuntimeException error = null;
+	for (ShardBatch batch : batches) {
+	    try {
+		List<byte[]> replies = batch.jedis.getClient()
+			.getBinaryMultiBulkReply();
+		for (int i = 0; i < batch.keys; i++) {
+		    values[batch.positions[i]] = replies.get(i);
+		}
+	    } catch (JedisDataException e) {
+		error = e;
+	    } catch (RuntimeException e) {
+		error = e;
+		disconnect(batch);
+	    }
+	}
+	if (error != null) {
+	    throw error;
+	}
+	return Arrays.asList(values);
+    }
+
+    /**
+     * Sets keys spread over any number of shards with one MSET per shard,
+     * sent to all of them before any reply is read. The keys are set
+     * atomically on each shard, but not across shards.
+     */
+    public String mset(byte[]... keysvalues) {
+	Collection<ShardBatch> batches = batchByShard(keysvalues, 2);
+	try {
+	    for (ShardBatch batch : batches) {
+		batch.jedis.getClient().mset(batch.binaryArgs());
+	    }
+	    flush(batches);
+	} catch (RuntimeException e) {
+	    throw abort(batches, e);
+	}
+	String status = null;
+	RuntimeException error = null;
+	for (ShardBatch batch : batches) {
+	    try {
+		status = batch.jedis.getClient().getStatusCodeReply();
+	    } catch (JedisDataException e) {
+		error = e;
+	    } catch (RuntimeException e) {
+		error = e;
+		disconnect(batch);
+	    }
+	}
+	if (error != null) {
+	    throw error;
+	}
+	return status;
+    }
+
+    /**
+     * Deletes keys spread over any number of shards with one DEL per shard,
+     * sent to all of them before any reply is read.
+     * 
+     * @return the number of keys removed
+     */
+    public Long del(byte[]... keys) {
+	Collection<ShardBatch> batches = batchByShard(keys, 1);
+	try {
+	    for (ShardBatch batch : batches) {
+		batch.jedis.getClient().del(batch.binaryArgs());
+	    }
+	    flush(batches);
+	} catch (RuntimeException e) {
+	    throw abort(batches, e);
+	}
+	return sumIntegerReplies(batches);
+    }
+
+    /**
+     * Groups the arguments of a multi-key command by the shard of their
+     * key. With a stride of 2 each key is followed by its value. While
+     * migrating, the keys are moved to their owner first.
+     */
+    protected Collection<ShardBatch> batchByShard(Object[] args, int stride) {
+	if (args.length % stride != 0) {
+	    throw new JedisDataException(
+		    "Wrong number of arguments, keys and values don't match");
+	}
+	Map<Jedis, ShardBatch> batches = new LinkedHashMap<Jedis, ShardBatch>();
+	for (int i = 0; i < args.length; i += stride) {
+	    Jedis j = args[i] instanceof String ? getOwner((String) args[i])
+		    : getOwner((byte[]) args[i]);
+	    ShardBatch batch = batches.get(j);
+	    if (batch == null) {
+		batch = new ShardBatch(j);
+		batches.put(j, batch);
+	    }
+	    batch.add(i / stride, args, i, stride);
+	}
+	return batches.values();
+    }
+
+    protected void flush(Collection<ShardBatch> batches) {
+	for (ShardBatch batch : batches) {
+	    batch.jedis.getClient().flush();
+	}
+    }
+
+    /**
+     * Disconnects the shards of a multi-key command that failed before its
+     * replies were read, since some of them may have been sent part of it.
+     * 
+     * @return e, to be thrown
+     */
+    protected RuntimeException abort(Collection<ShardBatch> batches,
+	    RuntimeException e) {
+	for (ShardBatch batch : batches) {
+	    disconnect(batch);
+	}
+	return e;
+    }
+
+    /**
+     * Disconnects a shard left out of sync by a failed read, so that its
+     * next command reconnects instead of reading a stale reply.
+     */
+    protected void disconnect(ShardBatch batch) {
+	try {
+	    batch.jedis.disconnect();
+	} catch (RuntimeException e) {
+	}
+    }
+
+    /**
+     * Reads the integer reply of every shard, even when one of them fails,
+     * so that no connection is left with a pending reply. A shard whose
+     * connection failed is disconnected.
+     */
+    protected Long sumIntegerReplies(Collection<ShardBatch> batches) {
+	long sum = 0;
+	RuntimeException error = null;
+	for (ShardBatch batch : batches) {
+	    try {
+		sum += batch.jedis.getClient().getIntegerReply();
+	    } catch (JedisDataException e) {
+		error = e;
+	    } catch (RuntimeException e) {
+		error = e;
+		disconnect(batch);
+	    }
+	}
+	if (error != null) {
+	    throw error;
+	}
+	return sum;
+    }
+
+    /**
+     * The part of a multi-key command going to one shard: its arguments,
+     * and where each of its keys is in the caller's order.
+     */
+    protected static class ShardBatch {
+	protected final Jedis jedis;
+	protected final List<Object> args = new ArrayList<Object>();
+	protected int[] positions = new int[8];
+	protected int keys;
+
+	ShardBatch(Jedis jedis) {
+	    this.jedis = jedis;
+	}
+
+	void add(int position, Object[] src, int offset, int stride) {
+	    if (keys == positions.length) {
+		positions = Arrays.copyOf(positions, keys << 1);
+	    }
+	    positions[keys++] = position;
+	    for (int i = offset; i < offset + stride; i++) {
+		args.add(src[i]);
+	    }
+	}
+
+	protected byte[][] binaryArgs() {
+	    return args.toArray(new byte[args.size()][]);
+	}
+
+	protected String[] stringArgs() {
+	    return args.toArray(new String[args.size()]);
+	}
+    }
+}
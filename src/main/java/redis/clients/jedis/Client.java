@@ -1,11 +1,13 @@
 package redis.clients.jedis;
 
 import static redis.clients.jedis.Protocol.toByteArray;
+import static redis.clients.jedis.Protocol.Command.*;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import redis.clients.jedis.Protocol.Command;
 import redis.clients.util.SafeEncoder;
 
 public class Client extends BinaryClient implements Commands {
@@ -17,130 +19,136 @@ public class Client extends BinaryClient implements Commands {
 	super(host, port);
     }
 
+    public Client(final JedisShardInfo shardInfo) {
+	super(shardInfo.getHost(), shardInfo.getPort());
+	setTimeout(shardInfo.getTimeout());
+	setPassword(shardInfo.getPassword());
+	setInputBufferSize(shardInfo.getInputBufferSize());
+	setOutputBufferSize(shardInfo.getOutputBufferSize());
+	setMaxBufferSize(shardInfo.getMaxBufferSize());
+	setSendBufferSize(shardInfo.getSendBufferSize());
+	setReceiveBufferSize(shardInfo.getReceiveBufferSize());
+	setTransport(shardInfo.getTransport());
+	setCommandStats(shardInfo.getCommandStats());
+    }
+
+    private String[] joinParameters(String first, String[] rest) {
+	String[] result = new String[rest.length + 1];
+	result[0] = first;
+	System.arraycopy(rest, 0, result, 1, rest.length);
+	return result;
+    }
+
     public void set(final String key, final String value) {
-	set(SafeEncoder.encode(key), SafeEncoder.encode(value));
+	sendCommand(Command.SET, key, value);
     }
 
     public void get(final String key) {
-	get(SafeEncoder.encode(key));
+	sendCommand(Command.GET, key);
     }
 
     public void exists(final String key) {
-	exists(SafeEncoder.encode(key));
+	sendCommand(EXISTS, key);
     }
 
     public void del(final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < keys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	del(bkeys);
+	sendCommand(DEL, keys);
     }
 
     public void type(final String key) {
-	type(SafeEncoder.encode(key));
+	sendCommand(TYPE, key);
     }
 
     public void keys(final String pattern) {
-	keys(SafeEncoder.encode(pattern));
+	sendCommand(KEYS, pattern);
+    }
+
+    public void scan(final String cursor, final ScanParams params) {
+	scan(SafeEncoder.encode(cursor), params);
     }
 
     public void rename(final String oldkey, final String newkey) {
-	rename(SafeEncoder.encode(oldkey), SafeEncoder.encode(newkey));
+	sendCommand(RENAME, oldkey, newkey);
     }
 
     public void renamenx(final String oldkey, final String newkey) {
-	renamenx(SafeEncoder.encode(oldkey), SafeEncoder.encode(newkey));
+	sendCommand(RENAMENX, oldkey, newkey);
     }
 
     public void expire(final String key, final int seconds) {
-	expire(SafeEncoder.encode(key), seconds);
+	sendCommand(EXPIRE, key, String.valueOf(seconds));
     }
 
     public void expireAt(final String key, final long unixTime) {
-	expireAt(SafeEncoder.encode(key), unixTime);
+	sendCommand(EXPIREAT, key, String.valueOf(unixTime));
     }
 
     public void ttl(final String key) {
-	ttl(SafeEncoder.encode(key));
+	sendCommand(TTL, key);
     }
 
     public void move(final String key, final int dbIndex) {
-	move(SafeEncoder.encode(key), dbIndex);
+	sendCommand(MOVE, key, String.valueOf(dbIndex));
     }
 
     public void getSet(final String key, final String value) {
-	getSet(SafeEncoder.encode(key), SafeEncoder.encode(value));
+	sendCommand(GETSET, key, value);
     }
 
     public void mget(final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < bkeys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	mget(bkeys);
+	sendCommand(MGET, keys);
     }
 
     public void setnx(final String key, final String value) {
-	setnx(SafeEncoder.encode(key), SafeEncoder.encode(value));
+	sendCommand(SETNX, key, value);
     }
 
     public void setex(final String key, final int seconds, final String value) {
-	setex(SafeEncoder.encode(key), seconds, SafeEncoder.encode(value));
+	sendCommand(SETEX, key, String.valueOf(seconds), value);
     }
 
     public void mset(final String... keysvalues) {
-	final byte[][] bkeysvalues = new byte[keysvalues.length][];
-	for (int i = 0; i < keysvalues.length; i++) {
-	    bkeysvalues[i] = SafeEncoder.encode(keysvalues[i]);
-	}
-	mset(bkeysvalues);
+	sendCommand(MSET, keysvalues);
     }
 
     public void msetnx(final String... keysvalues) {
-	final byte[][] bkeysvalues = new byte[keysvalues.length][];
-	for (int i = 0; i < keysvalues.length; i++) {
-	    bkeysvalues[i] = SafeEncoder.encode(keysvalues[i]);
-	}
-	msetnx(bkeysvalues);
+	sendCommand(MSETNX, keysvalues);
     }
 
     public void decrBy(final String key, final long integer) {
-	decrBy(SafeEncoder.encode(key), integer);
+	sendCommand(DECRBY, key, String.valueOf(integer));
     }
 
     public void decr(final String key) {
-	decr(SafeEncoder.encode(key));
+	sendCommand(DECR, key);
     }
 
     public void incrBy(final String key, final long integer) {
-	incrBy(SafeEncoder.encode(key), integer);
+	sendCommand(INCRBY, key, String.valueOf(integer));
     }
 
     public void incr(final String key) {
-	incr(SafeEncoder.encode(key));
+	sendCommand(INCR, key);
     }
 
     public void append(final String key, final String value) {
-	append(SafeEncoder.encode(key), SafeEncoder.encode(value));
+	sendCommand(APPEND, key, value);
     }
 
     public void substr(final String key, final int start, final int end) {
-	substr(SafeEncoder.encode(key), start, end);
+	sendCommand(SUBSTR, key, String.valueOf(start), String.valueOf(end));
     }
 
     public void hset(final String key, final String field, final String value) {
-	hset(SafeEncoder.encode(key), SafeEncoder.encode(field),
-		SafeEncoder.encode(value));
+	sendCommand(HSET, key, field, value);
     }
 
     public void hget(final String key, final String field) {
-	hget(SafeEncoder.encode(key), SafeEncoder.encode(field));
+	sendCommand(HGET, key, field);
     }
 
     public void hsetnx(final String key, final String field, final String value) {
-	hsetnx(SafeEncoder.encode(key), SafeEncoder.encode(field),
-		SafeEncoder.encode(value));
+	sendCommand(HSETNX, key, field, value);
     }
 
     public void hmset(final String key, final Map<String, String> hash) {
@@ -154,99 +162,95 @@ public class Client extends BinaryClient implements Commands {
     }
 
     public void hmget(final String key, final String... fields) {
-	final byte[][] bfields = new byte[fields.length][];
-	for (int i = 0; i < bfields.length; i++) {
-	    bfields[i] = SafeEncoder.encode(fields[i]);
-	}
-	hmget(SafeEncoder.encode(key), bfields);
+	sendCommand(HMGET, joinParameters(key, fields));
     }
 
     public void hincrBy(final String key, final String field, final long value) {
-	hincrBy(SafeEncoder.encode(key), SafeEncoder.encode(field), value);
+	sendCommand(HINCRBY, key, field, String.valueOf(value));
     }
 
     public void hexists(final String key, final String field) {
-	hexists(SafeEncoder.encode(key), SafeEncoder.encode(field));
+	sendCommand(HEXISTS, key, field);
     }
 
     public void hdel(final String key, final String... fields) {
-	hdel(SafeEncoder.encode(key), SafeEncoder.encodeMany(fields));
+	sendCommand(HDEL, joinParameters(key, fields));
     }
 
     public void hlen(final String key) {
-	hlen(SafeEncoder.encode(key));
+	sendCommand(HLEN, key);
     }
 
     public void hkeys(final String key) {
-	hkeys(SafeEncoder.encode(key));
+	sendCommand(HKEYS, key);
     }
 
     public void hvals(final String key) {
-	hvals(SafeEncoder.encode(key));
+	sendCommand(HVALS, key);
     }
 
     public void hgetAll(final String key) {
-	hgetAll(SafeEncoder.encode(key));
+	sendCommand(HGETALL, key);
     }
 
     public void rpush(final String key, final String... string) {
-	rpush(SafeEncoder.encode(key), SafeEncoder.encodeMany(string));
+	sendCommand(RPUSH, joinParameters(key, string));
     }
 
     public void lpush(final String key, final String... string) {
-	lpush(SafeEncoder.encode(key), SafeEncoder.encodeMany(string));
+	sendCommand(LPUSH, joinParameters(key, string));
     }
 
     public void llen(final String key) {
-	llen(SafeEncoder.encode(key));
+	sendCommand(LLEN, key);
     }
 
     public void lrange(final String key, final long start, final long end) {
-	lrange(SafeEncoder.encode(key), start, end);
+	sendCommand(LRANGE, key, String.valueOf(start), String.valueOf(end));
     }
 
     public void ltrim(final String key, final long start, final long end) {
-	ltrim(SafeEncoder.encode(key), start, end);
+	sendCommand(LTRIM, key, String.valueOf(start), String.valueOf(end));
     }
 
     public void lindex(final String key, final long index) {
-	lindex(SafeEncoder.encode(key), index);
+	sendCommand(LINDEX, key, String.valueOf(index));
     }
 
     public void lset(final String key, final long index, final String value) {
-	lset(SafeEncoder.encode(key), index, SafeEncoder.encode(value));
+	sendCommand(LSET, key, String.valueOf(index), value);
     }
 
     public void lrem(final String key, long count, final String value) {
-	lrem(SafeEncoder.encode(key), count, SafeEncoder.encode(value));
+	sendCommand(LREM, key, String.valueOf(count), value);
     }
 
     public void lpop(final String key) {
-	lpop(SafeEncoder.encode(key));
+	sendCommand(LPOP, key);
     }
 
     public void rpop(final String key) {
-	rpop(SafeEncoder.encode(key));
+	sendCommand(RPOP, key);
     }
 
     public void rpoplpush(final String srckey, final String dstkey) {
-	rpoplpush(SafeEncoder.encode(srckey), SafeEncoder.encode(dstkey));
+	sendCommand(RPOPLPUSH, srckey, dstkey);
     }
 
     public void sadd(final String key, final String... members) {
-	sadd(SafeEncoder.encode(key), SafeEncoder.encodeMany(members));
+	sendCommand(SADD, joinParameters(key, members));
     }
 
     public void smembers(final String key) {
-	smembers(SafeEncoder.encode(key));
+	sendCommand(SMEMBERS, key);
     }
 
     public void srem(final String key, final String... members) {
-	srem(SafeEncoder.encode(key), SafeEncoder.encodeMany(members));
+	sendCommand(SREM, joinParameters(key, members));
     }
 
     public void spop(final String key) {
-	spop(SafeEncoder.encode(key));
+	sendCommand(SPOP, key);
     }
 
     public void smove(final String srckey, final String dstkey,
@@ -256,75 +260,51 @@ public class Client extends BinaryClient implements Commands {
     }
 
     public void scard(final String key) {
-	scard(SafeEncoder.encode(key));
+	sendCommand(SCARD, key);
     }
 
     public void sismember(final String key, final String member) {
-	sismember(SafeEncoder.encode(key), SafeEncoder.encode(member));
+	sendCommand(SISMEMBER, key, member);
     }
 
     public void sinter(final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < bkeys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	sinter(bkeys);
+	sendCommand(SINTER, keys);
     }
 
     public void sinterstore(final String dstkey, final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < bkeys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	sinterstore(SafeEncoder.encode(dstkey), bkeys);
+	sendCommand(SINTERSTORE, joinParameters(dstkey, keys));
     }
 
     public void sunion(final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < bkeys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	sunion(bkeys);
+	sendCommand(SUNION, keys);
     }
 
     public void sunionstore(final String dstkey, final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < bkeys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	sunionstore(SafeEncoder.encode(dstkey), bkeys);
+	sendCommand(SUNIONSTORE, joinParameters(dstkey, keys));
     }
 
     public void sdiff(final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < bkeys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	sdiff(bkeys);
+	sendCommand(SDIFF, keys);
     }
 
     public void sdiffstore(final String dstkey, final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < bkeys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	sdiffstore(SafeEncoder.encode(dstkey), bkeys);
+	sendCommand(SDIFFSTORE, joinParameters(dstkey, keys));
     }
 
     public void srandmember(final String key) {
-	srandmember(SafeEncoder.encode(key));
+	sendCommand(SRANDMEMBER, key);
     }
 
     public void zadd(final String key, final double score, final String member) {
-	zadd(SafeEncoder.encode(key), score, SafeEncoder.encode(member));
+	sendCommand(ZADD, key, String.valueOf(score), member);
     }
 
     public void zrange(final String key, final long start, final long end) {
-	zrange(SafeEncoder.encode(key), start, end);
+	sendCommand(ZRANGE, key, String.valueOf(start), String.valueOf(end));
     }
 
     public void zrem(final String key, final String... members) {
-	zrem(SafeEncoder.encode(key), SafeEncoder.encodeMany(members));
+	sendCommand(ZREM, joinParameters(key, members));
     }
 
     public void zincrby(final String key, final double score,
@@ -333,15 +313,15 @@ public class Client extends BinaryClient implements Commands {
     }
 
     public void zrank(final String key, final String member) {
-	zrank(SafeEncoder.encode(key), SafeEncoder.encode(member));
+	sendCommand(ZRANK, key, member);
     }
 
     public void zrevrank(final String key, final String member) {
-	zrevrank(SafeEncoder.encode(key), SafeEncoder.encode(member));
+	sendCommand(ZREVRANK, key, member);
     }
 
     public void zrevrange(final String key, final long start, final long end) {
-	zrevrange(SafeEncoder.encode(key), start, end);
+	sendCommand(ZREVRANGE, key, String.valueOf(start), String.valueOf(end));
     }
 
     public void zrangeWithScores(final String key, final long start,
@@ -355,19 +335,15 @@ public class Client extends BinaryClient implements Commands {
     }
 
     public void zcard(final String key) {
-	zcard(SafeEncoder.encode(key));
+	sendCommand(ZCARD, key);
     }
 
     public void zscore(final String key, final String member) {
-	zscore(SafeEncoder.encode(key), SafeEncoder.encode(member));
+	sendCommand(ZSCORE, key, member);
     }
 
     public void watch(final String... keys) {
-	final byte[][] bargs = new byte[keys.length][];
-	for (int i = 0; i < bargs.length; i++) {
-	    bargs[i] = SafeEncoder.encode(keys[i]);
-	}
-	watch(bargs);
+	sendCommand(WATCH, keys);
     }
 
     public void sort(final String key) {
@@ -379,11 +355,7 @@ public class Client extends BinaryClient implements Commands {
     }
 
     public void blpop(final String[] args) {
-	final byte[][] bargs = new byte[args.length][];
-	for (int i = 0; i < bargs.length; i++) {
-	    bargs[i] = SafeEncoder.encode(args[i]);
-	}
-	blpop(bargs);
+	sendCommand(BLPOP, args);
     }
 
     public void sort(final String key, final SortingParams sortingParameters,
@@ -397,11 +369,7 @@ public class Client extends BinaryClient implements Commands {
     }
 
     public void brpop(final String[] args) {
-	final byte[][] bargs = new byte[args.length][];
-	for (int i = 0; i < bargs.length; i++) {
-	    bargs[i] = SafeEncoder.encode(args[i]);
-	}
-	brpop(bargs);
+	sendCommand(BRPOP, args);
     }
 
     public void zcount(final String key, final double min, final double max) {
@@ -561,23 +529,23 @@ public class Client extends BinaryClient implements Commands {
     }
 
     public void strlen(final String key) {
-	strlen(SafeEncoder.encode(key));
+	sendCommand(STRLEN, key);
     }
 
     public void lpushx(final String key, final String string) {
-	lpushx(SafeEncoder.encode(key), SafeEncoder.encode(string));
+	sendCommand(LPUSHX, key, string);
     }
 
     public void persist(final String key) {
-	persist(SafeEncoder.encode(key));
+	sendCommand(PERSIST, key);
     }
 
     public void rpushx(final String key, final String string) {
-	rpushx(SafeEncoder.encode(key), SafeEncoder.encode(string));
+	sendCommand(RPUSHX, key, string);
     }
 
     public void echo(final String string) {
-	echo(SafeEncoder.encode(string));
+	sendCommand(ECHO, string);
     }
 
     public void linsert(final String key, final LIST_POSITION where,
@@ -596,19 +564,20 @@ public class Client extends BinaryClient implements Commands {
     }
 
     public void getbit(String key, long offset) {
-	getbit(SafeEncoder.encode(key), offset);
+	sendCommand(GETBIT, key, String.valueOf(offset));
     }
 
     public void setrange(String key, long offset, String value) {
-	setrange(SafeEncoder.encode(key), offset, SafeEncoder.encode(value));
+	sendCommand(SETRANGE, key, String.valueOf(offset), value);
     }
 
     public void getrange(String key, long startOffset, long endOffset) {
-	getrange(SafeEncoder.encode(key), startOffset, endOffset);
+	sendCommand(GETRANGE, key, String.valueOf(startOffset),
+		String.valueOf(endOffset));
     }
 
     public void publish(final String channel, final String message) {
-	publish(SafeEncoder.encode(channel), SafeEncoder.encode(message));
+	sendCommand(PUBLISH, channel, message);
     }
 
     public void unsubscribe(final String... channels) {
@@ -0,0 +1,132 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.util.LatencyHistogram;
+
+/**
+ * Per command call and error counts, bytes written and read, and reply
+ * latencies, collected by the connections it is set on with
+ * {@link Connection#setCommandStats(CommandStats)}. One instance is meant to
+ * be shared by many connections, for instance all the ones of a pool through
+ * {@link JedisShardInfo#setCommandStats(CommandStats)}.
+ * <p>
+ * The latency of a command runs from when it is written to the connection
+ * until its reply has been read, so a pipelined command includes the time
+ * spent behind the ones sent before it.
+ */
+public class CommandStats {
+    private static final Command[] COMMANDS = Command.values();
+
+    private final Counters[] counters = new Counters[COMMANDS.length];
+    private volatile long since = System.currentTimeMillis();
+
+    public CommandStats() {
+        for (int i = 0; i < COMMANDS.length; i++) {
+            counters[i] = new Counters(COMMANDS[i]);
+        }
+    }
+
+    public Counters get(final Command command) {
+        return counters[command.ordinal()];
+    }
+
+    /**
+     * @return the counters of the commands that were sent at least once
+     */
+    public List<Counters> getSent() {
+        final List<Counters> sent = new ArrayList<Counters>();
+        for (final Counters c : counters) {
+            if (c.getSentCount() > 0) {
+                sent.add(c);
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * @return when the counters started, or were last reset
+     */
+    public long getSince() {
+        return since;
+    }
+
+    public void reset() {
+        for (final Counters c : counters) {
+            c.reset();
+        }
+        since = System.currentTimeMillis();
+    }
+
+    public static class Counters {
+        private final Command command;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong bytesWritten = new AtomicLong();
+        private final AtomicLong bytesRead = new AtomicLong();
+
+        Counters(final Command command) {
+            this.command = command;
+        }
+
+        void sent(final long bytes) {
+            sent.incrementAndGet();
+            bytesWritten.addAndGet(bytes);
+        }
+
+        void replied(final long nanos, final long bytes, final boolean error) {
+            latency.record(nanos);
+            bytesRead.addAndGet(bytes);
+            if (error) {
+                errors.incrementAndGet();
+            }
+        }
+
+        public Command getCommand() {
+            return command;
+        }
+
+        public long getSentCount() {
+            return sent.get();
+        }
+
+        /**
+         * @return how many replies were read, which is also the count of
+         *         the latency histogram
+         */
+        public long getReplyCount() {
+            return latency.getCount();
+        }
+
+        /**
+         * @return how many replies were errors
+         */
+        public long getErrorCount() {
+            return errors.get();
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten.get();
+        }
+
+        public long getBytesRead() {
+            return bytesRead.get();
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        void reset() {
+            latency.reset();
+            sent.set(0);
+            errors.set(0);
+            bytesWritten.set(0);
+            bytesRead.set(0);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package redis.clients.jedis;
+
+import redis.clients.jedis.Protocol.Command;
+
+/**
+ * Remembers, for one connection, the commands whose replies have not been
+ * read yet and when they were sent, so replies can be matched to them in
+ * order. Not thread safe, like the connection itself.
+ */
+class CommandTracker {
+    private final CommandStats stats;
+    private Command[] commands = new Command[16];
+    private long[] started = new long[16];
+    private int head;
+    private int size;
+
+    CommandTracker(final CommandStats stats) {
+        this.stats = stats;
+    }
+
+    CommandStats getStats() {
+        return stats;
+    }
+
+    void sent(final Command command, final long bytes) {
+        stats.get(command).sent(bytes);
+        if (size == commands.length) {
+            grow();
+        }
+        final int tail = (head + size) & (commands.length - 1);
+        commands[tail] = command;
+        started[tail] = System.nanoTime();
+        size++;
+    }
+
+    /**
+     * Accounts a reply to the oldest command still waiting for one. Replies
+     * nothing was sent for, like published messages, are ignored.
+     */
+    void replied(final long bytes, final boolean error) {
+        if (size == 0) {
+            return;
+        }
+        final Command command = commands[head];
+        final long nanos = System.nanoTime() - started[head];
+        commands[head] = null;
+        head = (head + 1) & (commands.length - 1);
+        size--;
+        stats.get(command).replied(nanos, bytes, error);
+    }
+
+    /**
+     * Forgets the commands in flight, whose replies are lost with the
+     * connection.
+     */
+    void clear() {
+        while (size > 0) {
+            commands[head] = null;
+            head = (head + 1) & (commands.length - 1);
+            size--;
+        }
+        head = 0;
+    }
+
+    private void grow() {
+        final Command[] c = new Command[commands.length << 1];
+        final long[] s = new long[c.length];
+        for (int i = 0; i < size; i++) {
+            final int j = (head + i) & (commands.length - 1);
+            c[i] = commands[j];
+            s[i] = started[j];
+        }
+        commands = c;
+        started = s;
+        head = 0;
+    }
+}
@@ -18,6 +18,8 @@ public interface Commands {
 
     public void keys(final String pattern);
 
+    public void scan(final String cursor, final ScanParams params);
+
     public void rename(final String oldkey, final String newkey);
 
     public void renamenx(final String oldkey, final String newkey);
@@ -1,19 +1,25 @@
 package redis.clients.jedis;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.List;
 
 import redis.clients.jedis.Protocol.Command;
+import redis.clients.jedis.Protocol.Keyword;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.exceptions.JedisException;
 import redis.clients.util.RedisInputStream;
 import redis.clients.util.RedisOutputStream;
 import redis.clients.util.SafeEncoder;
+import redis.clients.util.SocketChannelStreams;
 
 public class Connection {
     private String host;
@@ -23,6 +29,13 @@ public class Connection {
     private RedisInputStream inputStream;
     private int pipelinedCommands = 0;
     private int timeout = Protocol.DEFAULT_TIMEOUT;
+    private int inputBufferSize = Protocol.DEFAULT_BUFFER_SIZE;
+    private int outputBufferSize = Protocol.DEFAULT_BUFFER_SIZE;
+    private int maxBufferSize = 0;
+    private int sendBufferSize = 0;
+    private int receiveBufferSize = 0;
+    private Transport transport = Transport.SOCKET;
+    private CommandTracker tracker;
 
     public Socket getSocket() {
         return socket;
@@ -36,6 +49,98 @@ public class Connection {
         this.timeout = timeout;
     }
 
+    public int getInputBufferSize() {
+        return inputBufferSize;
+    }
+
+    /**
+     * Size of the buffer replies are read into. Takes effect on the next
+     * connect.
+     */
+    public void setInputBufferSize(final int inputBufferSize) {
+        this.inputBufferSize = inputBufferSize;
+    }
+
+    public int getOutputBufferSize() {
+        return outputBufferSize;
+    }
+
+    /**
+     * Size of the buffer commands are written into before being flushed to
+     * the socket. Takes effect on the next connect.
+     */
+    public void setOutputBufferSize(final int outputBufferSize) {
+        this.outputBufferSize = outputBufferSize;
+    }
+
+    public int getMaxBufferSize() {
+        return maxBufferSize;
+    }
+
+    /**
+     * Enables adaptive buffers: the input and output buffers grow, up to
+     * this size, when the connection keeps seeing payloads or pipelines that
+     * don't fit in them. 0, the default, keeps them at their initial size.
+     */
+    public void setMaxBufferSize(final int maxBufferSize) {
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    /**
+     * SO_SNDBUF for the socket, 0 leaves the system default.
+     */
+    public void setSendBufferSize(final int sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    /**
+     * SO_RCVBUF for the socket, 0 leaves the system default.
+     */
+    public void setReceiveBufferSize(final int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Selects the socket implementation used by the next connect.
+     */
+    public void setTransport(final Transport transport) {
+        this.transport = transport;
+    }
+
+    public CommandStats getCommandStats() {
+        return tracker == null ? null : tracker.getStats();
+    }
+
+    /**
+     * Starts collecting per command counts, bytes and latencies into the
+     * given stats, which can be shared with other connections. null, the
+     * default, turns the instrumentation off.
+     */
+    public void setCommandStats(final CommandStats commandStats) {
+        tracker = commandStats == null ? null : new CommandTracker(
+                commandStats);
+    }
+
+    /**
+     * @return how many bytes of commands were written on the current
+     *         connection, buffered ones included
+     */
+    public long getBytesWritten() {
+        return outputStream == null ? 0 : outputStream.getBytesWritten();
+    }
+
     public void setTimeoutInfinite() {
         try {
             socket.setKeepAlive(true);
@@ -68,27 +173,81 @@ public class Connection {
     }
 
     protected Connection sendCommand(final Command cmd, final String... args) {
-        final byte[][] bargs = new byte[args.length][];
-        for (int i = 0; i < args.length; i++) {
-            bargs[i] = SafeEncoder.encode(args[i]);
-        }
-        return sendCommand(cmd, bargs);
+        connect();
+        final long mark = writeMark();
+        Protocol.sendCommand(outputStream, cmd, args);
+        sent(cmd, mark);
+        return this;
     }
 
     protected Connection sendCommand(final Command cmd, final byte[]... args) {
         connect();
+        final long mark = writeMark();
         Protocol.sendCommand(outputStream, cmd, args);
-        pipelinedCommands++;
+        sent(cmd, mark);
         return this;
     }
     
+    protected Connection sendCommand(final Command cmd, final byte[][] args,
+            final ByteBuffer value) {
+        connect();
+        final long mark = writeMark();
+        Protocol.sendCommand(outputStream, cmd, args, value);
+        sent(cmd, mark);
+        return this;
+    }
+
+    protected Connection sendCommand(final Command cmd, final Keyword keyword,
+            final byte[]... args) {
+        connect();
+        final long mark = writeMark();
+        Protocol.sendCommand(outputStream, cmd, keyword, args);
+        sent(cmd, mark);
+        return this;
+    }
+
     protected Connection sendCommand(final Command cmd) {
         connect();
+        final long mark = writeMark();
         Protocol.sendCommand(outputStream, cmd, new byte[0][]);
-        pipelinedCommands++;
+        sent(cmd, mark);
         return this;
     }
 
+    private long writeMark() {
+        return tracker == null ? 0 : outputStream.getBytesWritten();
+    }
+
+    private void sent(final Command cmd, final long mark) {
+        pipelinedCommands++;
+        if (tracker != null) {
+            tracker.sent(cmd, outputStream.getBytesWritten() - mark);
+        }
+    }
+
+    private long readMark() {
+        return tracker == null ? 0 : inputStream.getBytesRead();
+    }
+
+    private void replied(final long mark, final boolean error) {
+        if (tracker != null) {
+            tracker.replied(inputStream.getBytesRead() - mark, error);
+        }
+    }
+
+    private Object readReply() {
+        final long mark = readMark();
+        try {
+            final Object reply = Protocol.read(inputStream);
+            replied(mark, false);
+            return reply;
+        } catch (RuntimeException e) {
+            // an error reply, a broken connection or a failing visitor
+            replied(mark, true);
+            throw e;
+        }
+    }
+
     public Connection(final String host, final int port) {
         super();
         this.host = host;
@@ -117,26 +276,64 @@ public class Connection {
 
     public void connect() {
         if (!isConnected()) {
+            SocketChannelStreams streams = null;
             try {
-                socket = new Socket();
+                if (transport == Transport.SOCKET) {
+                    socket = new Socket();
+                } else {
+                    socket = SocketChannel.open().socket();
+                }
                 //->@wjw_add
                 socket.setReuseAddress(true);
                 socket.setKeepAlive(true);  //Will monitor the TCP connection is valid
                 socket.setTcpNoDelay(true);  //Socket buffer Whetherclosed, to ensure timely delivery of data
                 socket.setSoLinger(true,0);  //Control calls close () method, the underlying socket is closed immediately
                 //<-@wjw_add
+                if (sendBufferSize > 0) {
+                    socket.setSendBufferSize(sendBufferSize);
+                }
+                if (receiveBufferSize > 0) {
+                    // set before connecting so the TCP window can scale
+                    socket.setReceiveBufferSize(receiveBufferSize);
+                }
 
                 socket.connect(new InetSocketAddress(host, port), timeout);
                 socket.setSoTimeout(timeout);
-                outputStream = new RedisOutputStream(socket.getOutputStream());
-                inputStream = new RedisInputStream(socket.getInputStream());
+                final InputStream in;
+                final OutputStream out;
+                if (transport == Transport.SOCKET) {
+                    in = socket.getInputStream();
+                    out = socket.getOutputStream();
+                } else {
+                    streams = new SocketChannelStreams(
+                            socket.getChannel(),
+                            transport == Transport.NIO_DIRECT,
+                            inputBufferSize, outputBufferSize);
+                    in = streams.getInputStream();
+                    out = streams.getOutputStream();
+                }
+                outputStream = new RedisOutputStream(out, outputBufferSize);
+                outputStream.setMaxBufferSize(maxBufferSize);
+                inputStream = new RedisInputStream(in, inputBufferSize);
+                inputStream.setMaxBufferSize(maxBufferSize);
             } catch (IOException ex) {
+                // don't leak the socket, nor the channel and its selector
+                try {
+                    if (streams != null) {
+                        streams.close();
+                    }
+                    socket.close();
+                } catch (IOException e) {
+                }
                 throw new JedisConnectionException(ex);
             }
         }
     }
 
     public void disconnect() {
+        if (tracker != null) {
+            tracker.clear();
+        }
         if (isConnected()) {
             try {
                 inputStream.close();
@@ -159,7 +356,7 @@ public class Connection {
     protected String getStatusCodeReply() {
         flush();
         pipelinedCommands--;
-        final byte[] resp = (byte[]) Protocol.read(inputStream);
+        final byte[] resp = (byte[]) readReply();
         if (null == resp) {
             return null;
         } else {
@@ -179,13 +376,55 @@ public class Connection {
     public byte[] getBinaryBulkReply() {
         flush();
         pipelinedCommands--;
-        return (byte[]) Protocol.read(inputStream);
+        return (byte[]) readReply();
+    }
+
+    public int getBinaryBulkReply(final OutputStream sink) {
+        flush();
+        pipelinedCommands--;
+        final long mark = readMark();
+        try {
+            final int length = Protocol.readBulkReply(inputStream, sink);
+            replied(mark, false);
+            return length;
+        } catch (RuntimeException e) {
+            replied(mark, true);
+            throw e;
+        }
+    }
+
+    public int getBinaryBulkReply(final ByteBuffer dst) {
+        flush();
+        pipelinedCommands--;
+        final long mark = readMark();
+        try {
+            final int length = Protocol.readBulkReply(inputStream, dst);
+            replied(mark, false);
+            return length;
+        } catch (RuntimeException e) {
+            replied(mark, true);
+            throw e;
+        }
     }
 
     public Long getIntegerReply() {
         flush();
         pipelinedCommands--;
-        return (Long) Protocol.read(inputStream);
+        return (Long) readReply();
+    }
+
+    public long getIntegerReplyAsLong() {
+        flush();
+        pipelinedCommands--;
+        final long mark = readMark();
+        try {
+            final long reply = Protocol.readLong(inputStream);
+            replied(mark, false);
+            return reply;
+        } catch (RuntimeException e) {
+            replied(mark, true);
+            throw e;
+        }
     }
 
     public List<String> getMultiBulkReply() {
@@ -196,21 +435,70 @@ public class Connection {
     public List<byte[]> getBinaryMultiBulkReply() {
         flush();
         pipelinedCommands--;
-        return (List<byte[]>) Protocol.read(inputStream);
+        return (List<byte[]>) readReply();
+    }
+
+    public int getBinaryMultiBulkReply(final ReplyVisitor<byte[]> visitor) {
+        flush();
+        pipelinedCommands--;
+        final long mark = readMark();
+        try {
+            final int length = Protocol.readMultiBulkReply(inputStream,
+                    visitor);
+            replied(mark, false);
+            return length;
+        } catch (RuntimeException e) {
+            replied(mark, true);
+            throw e;
+        }
+    }
+
+    public int getMultiBulkReply(final ReplyVisitor<String> visitor) {
+        return getBinaryMultiBulkReply(new ReplyVisitor<byte[]>() {
+            public void visit(byte[] element) {
+                visitor.visit(element == null ? null : SafeEncoder
+                        .encode(element));
+            }
+        });
+    }
+
+    public int getBinaryHashMultiBulkReply(
+            final HashReplyVisitor<byte[]> visitor) {
+        return getBinaryMultiBulkReply(new ReplyVisitor<byte[]>() {
+            private byte[] field;
+
+            public void visit(byte[] element) {
+                if (field == null) {
+                    field = element;
+                } else {
+                    visitor.visit(field, element);
+                    field = null;
+                }
+            }
+        }) / 2;
+    }
+
+    public int getHashMultiBulkReply(final HashReplyVisitor<String> visitor) {
+        return getBinaryHashMultiBulkReply(new HashReplyVisitor<byte[]>() {
+            public void visit(byte[] field, byte[] value) {
+                visitor.visit(SafeEncoder.encode(field),
+                        SafeEncoder.encode(value));
+            }
+        });
     }
 
     @SuppressWarnings("unchecked")
     public List<Object> getObjectMultiBulkReply() {
         flush();
         pipelinedCommands--;
-        return (List<Object>) Protocol.read(inputStream);
+        return (List<Object>) readReply();
     }
     
     @SuppressWarnings("unchecked")
     public List<Long> getIntegerMultiBulkReply() {
         flush();
         pipelinedCommands--;
-        return (List<Long>) Protocol.read(inputStream);
+        return (List<Long>) readReply();
     }
 
     public List<Object> getAll() {
@@ -222,7 +510,7 @@ public class Connection {
         flush();
         while (pipelinedCommands > except) {
         	try{
-                all.add(Protocol.read(inputStream));
+                all.add(readReply());
         	}catch(JedisDataException e){
         		all.add(e);
         	}
@@ -234,6 +522,6 @@ public class Connection {
     public Object getOne() {
         flush();
         pipelinedCommands--;
-        return Protocol.read(inputStream);
+        return readReply();
     }
 }
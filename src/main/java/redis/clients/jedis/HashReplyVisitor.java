@@ -0,0 +1,9 @@
+package redis.clients.jedis;
+
+/**
+ * Receives the field/value pairs of a hash reply, like the one of HGETALL,
+ * one pair at a time as they are read from the connection.
+ */
+public interface HashReplyVisitor<T> {
+    void visit(T field, T value);
+}
@@ -93,6 +93,16 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return client.getIntegerReply() == 1;
     }
 
+    /**
+     * Same as {@link #exists(String)}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public boolean existsAsBoolean(final String key) {
+	checkIsInMulti();
+	client.exists(key);
+	return client.getIntegerReplyAsLong() == 1;
+    }
+
     /**
      * Remove the specified keys. If a given key does not exist no operation is
      * performed for this key. The command returns the number of keys removed.
@@ -180,6 +190,35 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 		.build(client.getBinaryMultiBulkReply());
     }
 
+    /**
+     * Same as {@link #keys(String)}, but each matching key is handed to the
+     * visitor as it is read rather than collected in a Set.
+     * 
+     * @param pattern
+     * @param visitor
+     * @return the number of keys visited
+     */
+    public int keys(final String pattern, final ReplyVisitor<String> visitor) {
+	checkIsInMulti();
+	client.keys(pattern);
+	return client.getMultiBulkReply(visitor);
+    }
+
+    public ScanResult<String> scan(final String cursor) {
+	return scan(cursor, new ScanParams());
+    }
+
+    /**
+     * @see BinaryJedis#scan(byte[], ScanParams)
+     */
+    public ScanResult<String> scan(final String cursor, final ScanParams params) {
+	checkIsInMulti();
+	client.scan(cursor, params);
+	final List<Object> reply = client.getObjectMultiBulkReply();
+	return new ScanResult<String>((byte[]) reply.get(0),
+		BuilderFactory.STRING_LIST.build(reply.get(1)));
+    }
+
     /**
      * Return a randomly selected key from the currently selected DB.
      * <p>
@@ -511,6 +550,16 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #decrBy(String, long)}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long decrByAsLong(final String key, final long integer) {
+	checkIsInMulti();
+	client.decrBy(key, integer);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * Decrement the number stored at key by one. If the key does not exist or
      * contains a value of a wrong type, set the key to the value of "0" before
@@ -539,6 +588,16 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #decr(String)}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long decrAsLong(final String key) {
+	checkIsInMulti();
+	client.decr(key);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * INCRBY work just like {@link #incr(String) INCR} but instead to increment
      * by 1 the increment is integer.
@@ -567,6 +626,16 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #incrBy(String, long)}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long incrByAsLong(final String key, final long integer) {
+	checkIsInMulti();
+	client.incrBy(key, integer);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * Increment the number stored at key by one. If the key does not exist or
      * contains a value of a wrong type, set the key to the value of "0" before
@@ -595,6 +664,16 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #incr(String)}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long incrAsLong(final String key) {
+	checkIsInMulti();
+	client.incr(key);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * If the key already exists and is a string, this command appends the
      * provided value at the end of the string. If the key does not exist it is
@@ -759,6 +838,16 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #hincrBy(String, String, long)}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long hincrByAsLong(final String key, final String field, final long value) {
+	checkIsInMulti();
+	client.hincrBy(key, field, value);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * Test for existence of a specified field in a hash.
      * 
@@ -852,6 +941,20 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 		.build(client.getBinaryMultiBulkReply());
     }
 
+    /**
+     * Same as {@link #hgetAll(String)}, but each field and value is handed to
+     * the visitor as it is read rather than collected in a Map.
+     * 
+     * @param key
+     * @param visitor
+     * @return the number of fields visited
+     */
+    public int hgetAll(final String key, final HashReplyVisitor<String> visitor) {
+	checkIsInMulti();
+	client.hgetAll(key);
+	return client.getHashMultiBulkReply(visitor);
+    }
+
     /**
      * Add the string value to the head (LPUSH) or tail (RPUSH) of the list
      * stored at key. If the key does not exist an empty list is created just
@@ -910,6 +1013,16 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #llen(String)}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long llenAsLong(final String key) {
+	checkIsInMulti();
+	client.llen(key);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * Return the specified elements of the list stored at the specified key.
      * Start and end are zero-based indexes. 0 is the first element of the list
@@ -955,6 +1068,24 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return client.getMultiBulkReply();
     }
 
+    /**
+     * Same as {@link #lrange(String, long, long)}, but the elements are handed
+     * to the visitor one at a time as they are read, so ranges of any size
+     * can be walked in bounded memory.
+     * 
+     * @param key
+     * @param start
+     * @param end
+     * @param visitor
+     * @return the number of elements visited
+     */
+    public int lrange(final String key, final long start, final long end,
+	    final ReplyVisitor<String> visitor) {
+	checkIsInMulti();
+	client.lrange(key, start, end);
+	return client.getMultiBulkReply(visitor);
+    }
+
     /**
      * Trim an existing list so that it will contain only the specified range of
      * elements specified. Start and end are zero-based indexes. 0 is the first
@@ -1168,6 +1299,20 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return new HashSet<String>(members);
     }
 
+    /**
+     * Same as {@link #smembers(String)}, but each member is handed to the
+     * visitor as it is read rather than collected in a Set.
+     * 
+     * @param key
+     * @param visitor
+     * @return the number of members visited
+     */
+    public int smembers(final String key, final ReplyVisitor<String> visitor) {
+	checkIsInMulti();
+	client.smembers(key);
+	return client.getMultiBulkReply(visitor);
+    }
+
     /**
      * Remove the specified member from the set value stored at key. If member
      * was not a member of the set no operation is performed. If key does not
@@ -1248,6 +1393,16 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #scard(String)}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long scardAsLong(final String key) {
+	checkIsInMulti();
+	client.scard(key);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * Return 1 if member is a member of the set stored at key, otherwise 0 is
      * returned.
@@ -1596,6 +1751,16 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Same as {@link #zcard(String)}, except that the
+     * reply is read as a primitive and never boxed.
+     */
+    public long zcardAsLong(final String key) {
+	checkIsInMulti();
+	client.zcard(key);
+	return client.getIntegerReplyAsLong();
+    }
+
     /**
      * Return the score of the specified element of the sorted set at key. If
      * the specified element does not exist in the sorted set, or the key does
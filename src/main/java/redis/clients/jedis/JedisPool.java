@@ -1,11 +1,18 @@
 package redis.clients.jedis;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.ObjectName;
+
 import org.apache.commons.pool.BasePoolableObjectFactory;
 import org.apache.commons.pool.impl.GenericObjectPool.Config;
 
+import redis.clients.jedis.netty.jmx.PoolMonitor;
 import redis.clients.util.Pool;
 
 public class JedisPool extends Pool<Jedis> {
+    private static final AtomicInteger serial = new AtomicInteger();
+    private final String monitorName;
 
     public JedisPool(final Config poolConfig, final String host) {
         this(poolConfig, host, Protocol.DEFAULT_PORT, Protocol.DEFAULT_TIMEOUT, null, Protocol.DEFAULT_DATABASE);
@@ -34,7 +41,37 @@ public class JedisPool extends Pool<Jedis> {
 
     public JedisPool(final Config poolConfig, final String host, int port, int timeout, final String password,
                      final int database) {
-        super(poolConfig, new JedisFactory(host, port, timeout, password, database));
+        this(poolConfig, shardInfo(host, port, timeout, password), database);
+    }
+
+    /**
+     * Builds the pool's connections from a JedisShardInfo, which also carries
+     * the buffer settings of each connection.
+     */
+    public JedisPool(final Config poolConfig, final JedisShardInfo shardInfo) {
+        this(poolConfig, shardInfo, Protocol.DEFAULT_DATABASE);
+    }
+
+    public JedisPool(final Config poolConfig, final JedisShardInfo shardInfo,
+                     final int database) {
+        super(poolConfig, new JedisFactory(shardInfo, database));
+        if (poolConfig instanceof JedisPoolConfig
+                && ((JedisPoolConfig) poolConfig).isJmxEnabled()) {
+            monitorName = "redis.clients.jedis:service=JedisPool,name="
+                    + ObjectName.quote(shardInfo.getHost() + ":"
+                            + shardInfo.getPort() + "/" + database)
+                    + ",instance=" + serial.incrementAndGet();
+            PoolMonitor.registerMonitor(this, monitorName);
+        } else {
+            monitorName = null;
+        }
+    }
+
+    private static JedisShardInfo shardInfo(final String host, final int port,
+            final int timeout, final String password) {
+        final JedisShardInfo shardInfo = new JedisShardInfo(host, port, timeout);
+        shardInfo.setPassword(password);
+        return shardInfo;
     }
 
 
@@ -45,34 +82,34 @@ public class JedisPool extends Pool<Jedis> {
     public void returnResource(final BinaryJedis resource) {
     	returnResourceObject(resource);
     }
+
+    @Override
+    public void destroy() {
+        if (monitorName != null) {
+            PoolMonitor.unregisterMonitor(monitorName);
+        }
+        super.destroy();
+    }
     
     /**
      * PoolableObjectFactory custom impl.
      */
     private static class JedisFactory extends BasePoolableObjectFactory {
-        private final String host;
-        private final int port;
-        private final int timeout;
-        private final String password;
+        private final JedisShardInfo shardInfo;
         private final int database;
 
-        public JedisFactory(final String host, final int port,
-                final int timeout, final String password, final int database) {
+        public JedisFactory(final JedisShardInfo shardInfo, final int database) {
             super();
-            this.host = host;
-            this.port = port;
-            this.timeout = timeout;
-            this.password = password;
+            this.shardInfo = shardInfo;
             this.database = database;
         }
 
         public Object makeObject() throws Exception {
-            final Jedis jedis = new Jedis(this.host, this.port, this.timeout);
+            // the client authenticates itself on connect when the shard info
+            // has a password
+            final Jedis jedis = new Jedis(this.shardInfo);
 
             jedis.connect();
-            if (null != this.password) {
-                jedis.auth(this.password);
-            }
             if( database != 0 ) {
                 jedis.select(database);
             }
@@ -1,6 +1,6 @@
 package redis.clients.jedis;
 
-import org.apache.commons.pool.impl.GenericObjectPool.Config;
+import redis.clients.util.PoolConfig;
 
 /**
  * Subclass of org.apache.commons.pool.impl.GenericObjectPool.Config that
@@ -22,7 +22,9 @@ import org.apache.commons.pool.impl.GenericObjectPool.Config;
  * http://commons.apache.org/pool/apidocs/org/apache/commons/pool/impl/
  * GenericObjectPool.html
  */
-public class JedisPoolConfig extends Config {
+public class JedisPoolConfig extends PoolConfig {
+    private boolean jmxEnabled = false;
+
     public JedisPoolConfig() {
         // defaults to make your life with connection pool easier :)
         setTestWhileIdle(true);
@@ -129,4 +131,15 @@ public class JedisPoolConfig extends Config {
         this.softMinEvictableIdleTimeMillis = softMinEvictableIdleTimeMillis;
     }
 
+    public boolean isJmxEnabled() {
+        return jmxEnabled;
+    }
+
+    /**
+     * Registers a {@link redis.clients.jedis.netty.jmx.PoolMonitor} MXBean
+     * for pools built with this config, until they are destroyed.
+     */
+    public void setJmxEnabled(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
 }
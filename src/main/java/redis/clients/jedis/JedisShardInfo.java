@@ -13,6 +13,13 @@ public class JedisShardInfo extends ShardInfo<Jedis> {
     private int port;
     private String password = null;
     private String name = null;
+    private int inputBufferSize = Protocol.DEFAULT_BUFFER_SIZE;
+    private int outputBufferSize = Protocol.DEFAULT_BUFFER_SIZE;
+    private int maxBufferSize = 0;
+    private int sendBufferSize = 0;
+    private int receiveBufferSize = 0;
+    private Transport transport = Transport.SOCKET;
+    private CommandStats commandStats;
 
     public String getHost() {
         return host;
@@ -74,6 +81,79 @@ public class JedisShardInfo extends ShardInfo<Jedis> {
         return name;
     }
 
+    /**
+     * @return host:port
+     */
+    @Override
+    public String getIdentity() {
+        return host + ":" + port;
+    }
+
+    public int getInputBufferSize() {
+        return inputBufferSize;
+    }
+
+    public void setInputBufferSize(int inputBufferSize) {
+        this.inputBufferSize = inputBufferSize;
+    }
+
+    public int getOutputBufferSize() {
+        return outputBufferSize;
+    }
+
+    public void setOutputBufferSize(int outputBufferSize) {
+        this.outputBufferSize = outputBufferSize;
+    }
+
+    public int getMaxBufferSize() {
+        return maxBufferSize;
+    }
+
+    /**
+     * @see Connection#setMaxBufferSize(int)
+     */
+    public void setMaxBufferSize(int maxBufferSize) {
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public void setSendBufferSize(int sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public void setReceiveBufferSize(int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    /**
+     * @see Connection#setTransport(Transport)
+     */
+    public void setTransport(Transport transport) {
+        this.transport = transport;
+    }
+
+    public CommandStats getCommandStats() {
+        return commandStats;
+    }
+
+    /**
+     * @see Connection#setCommandStats(CommandStats)
+     */
+    public void setCommandStats(CommandStats commandStats) {
+        this.commandStats = commandStats;
+    }
+
     @Override
     public Jedis createResource() {
         return new Jedis(this);
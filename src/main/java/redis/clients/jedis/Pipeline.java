@@ -43,19 +43,25 @@ public class Pipeline extends Queable {
 
     @Override
     protected <T> Response<T> getResponse(Builder<T> builder) {
+    	Response<T> lr;
     	if(currentMulti != null){
     		super.getResponse(BuilderFactory.STRING); //Expected QUEUED
     		
-    		Response<T> lr = new Response<T>(builder);
+    		lr = new Response<T>(builder);
     		currentMulti.addResponse(lr);
-    		return lr;
     	}
     	else{
-    		return super.getResponse(builder);
+    		lr = super.getResponse(builder);
     	}
+    	slideWindow();
+    	return lr;
     }
 	
     private Client client;
+    private int windowCommands;
+    private long windowBytes;
+    private ReplyVisitor<Object> windowVisitor;
+    private long windowMark;
     
     public void setClient(Client client) {
         this.client = client;
@@ -84,16 +90,98 @@ public class Pipeline extends Queable {
      */
     public List<Object> syncAndReturnAll() {
         List<Object> unformatted = client.getAll();
-        List<Object> formatted = new ArrayList<Object>();
+        List<Object> formatted = new ArrayList<Object>(unformatted.size());
         
         for (Object o : unformatted) {
+            formatted.add(build(o));
+        }
+        return formatted;
+    }
+
+    /**
+     * Syncronize pipeline by reading all responses and handing them, built,
+     * to the visitor in the order the commands were executed. Error replies
+     * are handed as their JedisDataException. Replies are read and passed on
+     * one at a time, so together with {@link #setCompact(boolean)} nothing
+     * is kept per command.
+     * 
+     * @return the number of replies visited
+     */
+    public int sync(ReplyVisitor<Object> visitor) {
+        return drain(0, visitor);
+    }
+
+    /**
+     * Bounds the pipeline, for bulk loads too big to keep every reply until
+     * sync(). Once maxCommands commands are waiting for their replies, or
+     * maxBytes have been written since the window last moved, the pipeline
+     * is flushed and the older half of the replies is read, leaving the
+     * server busy with the other half while more commands are written.
+     * Drained replies are set on their Response, and handed to the visitor
+     * when there is one, which in {@link #setCompact(boolean) compact mode}
+     * is the only way to get them. 0 disables a limit.
+     */
+    public void setWindow(int maxCommands, long maxBytes,
+            ReplyVisitor<Object> visitor) {
+        this.windowCommands = maxCommands;
+        this.windowBytes = maxBytes;
+        this.windowVisitor = visitor;
+        this.windowMark = client.getBytesWritten();
+    }
+
+    public void setWindow(int maxCommands, long maxBytes) {
+        setWindow(maxCommands, maxBytes, null);
+    }
+
+    private void slideWindow() {
+        if (windowCommands <= 0 && windowBytes <= 0) {
+            return;
+        }
+        final int queued = getQueuedCount();
+        final long written = client.getBytesWritten();
+        if (written < windowMark) {
+            // reconnected, the count started over
+            windowMark = 0;
+        }
+        if ((windowCommands > 0 && queued >= windowCommands)
+                || (windowBytes > 0 && written - windowMark >= windowBytes)) {
+            drain(queued / 2, windowVisitor);
+            windowMark = written;
+        }
+    }
+
+    /**
+     * Reads replies until only the given number of commands wait for theirs.
+     */
+    private int drain(int keep, ReplyVisitor<Object> visitor) {
+        int n = 0;
+        while (getQueuedCount() > keep) {
+            Object reply;
             try {
-            	formatted.add(generateResponse(o).get());
+                reply = client.getOne();
             } catch (JedisDataException e) {
-                formatted.add(e);
+                reply = e;
             }
+            reply = build(reply);
+            if (visitor != null) {
+                visitor.visit(reply);
+            }
+            n++;
         }
-        return formatted;
+        return n;
+    }
+
+    /**
+     * Switches the compact mode on or off. In compact mode pipelined commands
+     * return null instead of a Response, and only their builder is queued
+     * until the reply is read, which saves an allocation or two per command
+     * on large pipelines. Replies are then consumed with
+     * {@link #sync(ReplyVisitor)} or {@link #syncAndReturnAll()}. Can't be
+     * changed while commands are waiting for their replies.
+     */
+    @Override
+    public void setCompact(boolean compact) {
+        super.setCompact(compact);
     }
 
     public Response<Long> append(String key, String value) {
@@ -1,11 +1,14 @@
 package redis.clients.jedis;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
 import redis.clients.util.RedisInputStream;
 import redis.clients.util.RedisOutputStream;
 import redis.clients.util.SafeEncoder;
@@ -15,6 +18,7 @@ public final class Protocol {
     public static final int DEFAULT_PORT = 6379;
     public static final int DEFAULT_TIMEOUT = 2000;
     public static final int DEFAULT_DATABASE = 0;
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
 
     public static final String CHARSET = "UTF-8";
 
@@ -24,28 +28,54 @@ public final class Protocol {
     public static final byte MINUS_BYTE = '-';
     public static final byte COLON_BYTE = ':';
 
+    /**
+     * Multi bulk and bulk length prefixes below this size are encoded once and
+     * then just copied on every command.
+     */
+    private static final int HEADER_CACHE_SIZE = 256;
+    private static final byte[][] MULTI_BULK_HEADERS = new byte[HEADER_CACHE_SIZE][];
+    private static final byte[][] BULK_HEADERS = new byte[HEADER_CACHE_SIZE][];
+
+    static {
+	for (int i = 0; i < HEADER_CACHE_SIZE; i++) {
+	    MULTI_BULK_HEADERS[i] = SafeEncoder.encode("*" + i + "\r\n");
+	    BULK_HEADERS[i] = SafeEncoder.encode("$" + i + "\r\n");
+	}
+    }
+
     private Protocol() {
 	// this prevent the class from instantiation
     }
 
     public static void sendCommand(final RedisOutputStream os,
 	    final Command command, final byte[]... args) {
-	sendCommand(os, command.raw, args);
+	try {
+	    writeMultiBulkHeader(os, args.length + 1);
+	    os.write(command.framed);
+
+	    for (final byte[] arg : args) {
+		writeBulkHeader(os, arg.length);
+		os.write(arg);
+		os.writeCrLf();
+	    }
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
     }
 
-    private static void sendCommand(final RedisOutputStream os,
-	    final byte[] command, final byte[]... args) {
+    /**
+     * Writes a command followed by a sub command keyword, like CONFIG GET or
+     * SCRIPT LOAD, using the pre-framed bytes of both.
+     */
+    public static void sendCommand(final RedisOutputStream os,
+	    final Command command, final Keyword keyword, final byte[]... args) {
 	try {
-	    os.write(ASTERISK_BYTE);
-	    os.writeIntCrLf(args.length + 1);
-	    os.write(DOLLAR_BYTE);
-	    os.writeIntCrLf(command.length);
-	    os.write(command);
-	    os.writeCrLf();
+	    writeMultiBulkHeader(os, args.length + 2);
+	    os.write(command.framed);
+	    os.write(keyword.framed);
 
 	    for (final byte[] arg : args) {
-		os.write(DOLLAR_BYTE);
-		os.writeIntCrLf(arg.length);
+		writeBulkHeader(os, arg.length);
 		os.write(arg);
 		os.writeCrLf();
 	    }
@@ -54,6 +84,91 @@ public final class Protocol {
 	}
     }
 
+    /**
+     * Writes a command whose last argument is taken from the remaining bytes
+     * of a ByteBuffer, which can be a direct one. The buffer's position is
+     * not changed.
+     */
+    public static void sendCommand(final RedisOutputStream os,
+	    final Command command, final byte[][] args, final ByteBuffer value) {
+	try {
+	    writeMultiBulkHeader(os, args.length + 2);
+	    os.write(command.framed);
+
+	    for (final byte[] arg : args) {
+		writeBulkHeader(os, arg.length);
+		os.write(arg);
+		os.writeCrLf();
+	    }
+
+	    writeBulkHeader(os, value.remaining());
+	    os.write(value);
+	    os.writeCrLf();
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+    }
+
+    /**
+     * Writes a command whose arguments are Strings. Each argument is UTF-8
+     * encoded straight into the output buffer instead of going through an
+     * intermediate byte[] per argument.
+     */
+    public static void sendCommand(final RedisOutputStream os,
+	    final Command command, final String... args) {
+	for (final String arg : args) {
+	    if (arg == null) {
+		throw new JedisDataException(
+			"value sent to redis cannot be null");
+	    }
+	}
+	try {
+	    writeMultiBulkHeader(os, args.length + 1);
+	    os.write(command.framed);
+
+	    for (final String arg : args) {
+		writeBulkHeader(os, RedisOutputStream.utf8Length(arg));
+		os.writeUtf8CrLf(arg);
+	    }
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+    }
+
+    private static void writeMultiBulkHeader(final RedisOutputStream os,
+	    final int count) throws IOException {
+	if (count < HEADER_CACHE_SIZE) {
+	    os.write(MULTI_BULK_HEADERS[count]);
+	} else {
+	    os.write(ASTERISK_BYTE);
+	    os.writeIntCrLf(count);
+	}
+    }
+
+    private static void writeBulkHeader(final RedisOutputStream os,
+	    final int length) throws IOException {
+	if (length < HEADER_CACHE_SIZE) {
+	    os.write(BULK_HEADERS[length]);
+	} else {
+	    os.write(DOLLAR_BYTE);
+	    os.writeIntCrLf(length);
+	}
+    }
+
+    /**
+     * Frames a command or keyword name as a complete bulk argument, that is
+     * $len\r\nNAME\r\n, so it can be written with a single copy.
+     */
+    private static byte[] frame(final byte[] raw) {
+	final byte[] header = SafeEncoder.encode("$" + raw.length + "\r\n");
+	final byte[] framed = new byte[header.length + raw.length + 2];
+	System.arraycopy(header, 0, framed, 0, header.length);
+	System.arraycopy(raw, 0, framed, header.length, raw.length);
+	framed[framed.length - 2] = '\r';
+	framed[framed.length - 1] = '\n';
+	return framed;
+    }
+
     private static void processError(final RedisInputStream is) {
 	String message = is.readLine();
 	throw new JedisDataException(message);
@@ -82,14 +197,15 @@ public final class Protocol {
     }
 
     private static byte[] processStatusCodeReply(final RedisInputStream is) {
-	return SafeEncoder.encode(is.readLine());
+	return is.readLineBytes();
     }
 
     private static byte[] processBulkReply(final RedisInputStream is) {
-	int len = Integer.parseInt(is.readLine());
+	int len = is.readIntCrLf();
 	if (len == -1) {
 	    return null;
 	}
+	is.expectPayload(len);
 	byte[] read = new byte[len];
 	int offset = 0;
 	try {
@@ -106,13 +222,115 @@ public final class Protocol {
 	return read;
     }
 
+    /**
+     * Reads a bulk reply into a sink instead of a byte[] of the reply's size.
+     * 
+     * @return the number of bytes written to the sink, or -1 for a nil reply
+     */
+    public static int readBulkReply(final RedisInputStream is,
+	    final OutputStream sink) {
+	try {
+	    byte b = is.readByte();
+	    if (b == MINUS_BYTE) {
+		processError(is);
+	    } else if (b != DOLLAR_BYTE) {
+		throw new JedisConnectionException(
+			"Expected a bulk reply but got: " + (char) b);
+	    }
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+
+	final int len = is.readIntCrLf();
+	if (len == -1) {
+	    return -1;
+	}
+	is.expectPayload(len);
+	try {
+	    is.readBulkTo(sink, len);
+	} catch (IOException e) {
+	    throw new JedisException("Could not write the bulk reply", e);
+	}
+	return len;
+    }
+
+    /**
+     * Reads a bulk reply into the remaining space of dst, advancing its
+     * position by the length of the value.
+     * 
+     * @return the length of the value, or -1 for a nil reply
+     * @throws java.nio.BufferOverflowException
+     *             if the value does not fit in dst
+     */
+    public static int readBulkReply(final RedisInputStream is,
+	    final ByteBuffer dst) {
+	try {
+	    byte b = is.readByte();
+	    if (b == MINUS_BYTE) {
+		processError(is);
+	    } else if (b != DOLLAR_BYTE) {
+		throw new JedisConnectionException(
+			"Expected a bulk reply but got: " + (char) b);
+	    }
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+
+	final int len = is.readIntCrLf();
+	if (len == -1) {
+	    return -1;
+	}
+	is.expectPayload(len);
+	is.readBulkTo(dst, len);
+	return len;
+    }
+
+    /**
+     * Reads a multi bulk reply of bulk elements, handing each element to the
+     * visitor as soon as it is decoded instead of collecting them in a list.
+     * If the visitor throws, the remaining elements are still read so the
+     * connection stays usable, and the exception is rethrown afterwards.
+     * 
+     * @return the number of elements, or -1 for a nil reply
+     */
+    public static int readMultiBulkReply(final RedisInputStream is,
+	    final ReplyVisitor<byte[]> visitor) {
+	try {
+	    byte b = is.readByte();
+	    if (b == MINUS_BYTE) {
+		processError(is);
+	    } else if (b != ASTERISK_BYTE) {
+		throw new JedisConnectionException(
+			"Expected a multi bulk reply but got: " + (char) b);
+	    }
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+
+	final int num = is.readIntCrLf();
+	RuntimeException failure = null;
+	for (int i = 0; i < num; i++) {
+	    final byte[] element = (byte[]) process(is);
+	    if (failure == null) {
+		try {
+		    visitor.visit(element);
+		} catch (RuntimeException e) {
+		    failure = e;
+		}
+	    }
+	}
+	if (failure != null) {
+	    throw failure;
+	}
+	return num;
+    }
+
     private static Long processInteger(final RedisInputStream is) {
-	String num = is.readLine();
-	return Long.valueOf(num);
+	return is.readLongCrLf();
     }
 
     private static List<Object> processMultiBulkReply(final RedisInputStream is) {
-	int num = Integer.parseInt(is.readLine());
+	int num = is.readIntCrLf();
 	if (num == -1) {
 	    return null;
 	}
@@ -131,6 +349,27 @@ public final class Protocol {
 	return process(is);
     }
 
+    /**
+     * Reads an integer reply as a primitive, skipping the Long boxing done by
+     * {@link #read(RedisInputStream)}.
+     */
+    public static long readLong(final RedisInputStream is) {
+	try {
+	    byte b = is.readByte();
+	    if (b == COLON_BYTE) {
+		return is.readLongCrLf();
+	    } else if (b == MINUS_BYTE) {
+		processError(is);
+	    } else {
+		throw new JedisConnectionException(
+			"Expected an integer reply but got: " + (char) b);
+	    }
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+	return 0;
+    }
+
     public static final byte[] toByteArray(final int value) {
 	return SafeEncoder.encode(String.valueOf(value));
     }
@@ -144,21 +383,25 @@ public final class Protocol {
     }
 
     public static enum Command {
-	PING, SET, GET, QUIT, EXISTS, DEL, TYPE, FLUSHDB, KEYS, RANDOMKEY, RENAME, RENAMENX, RENAMEX, DBSIZE, EXPIRE, EXPIREAT, TTL, SELECT, MOVE, FLUSHALL, GETSET, MGET, SETNX, SETEX, MSET, MSETNX, DECRBY, DECR, INCRBY, INCR, APPEND, SUBSTR, HSET, HGET, HSETNX, HMSET, HMGET, HINCRBY, HEXISTS, HDEL, HLEN, HKEYS, HVALS, HGETALL, RPUSH, LPUSH, LLEN, LRANGE, LTRIM, LINDEX, LSET, LREM, LPOP, RPOP, RPOPLPUSH, SADD, SMEMBERS, SREM, SPOP, SMOVE, SCARD, SISMEMBER, SINTER, SINTERSTORE, SUNION, SUNIONSTORE, SDIFF, SDIFFSTORE, SRANDMEMBER, ZADD, ZRANGE, ZREM, ZINCRBY, ZRANK, ZREVRANK, ZREVRANGE, ZCARD, ZSCORE, MULTI, DISCARD, EXEC, WATCH, UNWATCH, SORT, BLPOP, BRPOP, AUTH, SUBSCRIBE, PUBLISH, UNSUBSCRIBE, PSUBSCRIBE, PUNSUBSCRIBE, ZCOUNT, ZRANGEBYSCORE, ZREVRANGEBYSCORE, ZREMRANGEBYRANK, ZREMRANGEBYSCORE, ZUNIONSTORE, ZINTERSTORE, SAVE, BGSAVE, BGREWRITEAOF, LASTSAVE, SHUTDOWN, INFO, MONITOR, SLAVEOF, CONFIG, STRLEN, SYNC, LPUSHX, PERSIST, RPUSHX, ECHO, LINSERT, DEBUG, BRPOPLPUSH, SETBIT, GETBIT, SETRANGE, GETRANGE, EVAL, EVALSHA, SCRIPT, SLOWLOG, OBJECT;
+	PING, SET, GET, QUIT, EXISTS, DEL, TYPE, FLUSHDB, KEYS, RANDOMKEY, RENAME, RENAMENX, RENAMEX, DBSIZE, EXPIRE, EXPIREAT, TTL, SELECT, MOVE, FLUSHALL, GETSET, MGET, SETNX, SETEX, MSET, MSETNX, DECRBY, DECR, INCRBY, INCR, APPEND, SUBSTR, HSET, HGET, HSETNX, HMSET, HMGET, HINCRBY, HEXISTS, HDEL, HLEN, HKEYS, HVALS, HGETALL, RPUSH, LPUSH, LLEN, LRANGE, LTRIM, LINDEX, LSET, LREM, LPOP, RPOP, RPOPLPUSH, SADD, SMEMBERS, SREM, SPOP, SMOVE, SCARD, SISMEMBER, SINTER, SINTERSTORE, SUNION, SUNIONSTORE, SDIFF, SDIFFSTORE, SRANDMEMBER, ZADD, ZRANGE, ZREM, ZINCRBY, ZRANK, ZREVRANK, ZREVRANGE, ZCARD, ZSCORE, MULTI, DISCARD, EXEC, WATCH, UNWATCH, SORT, BLPOP, BRPOP, AUTH, SUBSCRIBE, PUBLISH, UNSUBSCRIBE, PSUBSCRIBE, PUNSUBSCRIBE, ZCOUNT, ZRANGEBYSCORE, ZREVRANGEBYSCORE, ZREMRANGEBYRANK, ZREMRANGEBYSCORE, ZUNIONSTORE, ZINTERSTORE, SAVE, BGSAVE, BGREWRITEAOF, LASTSAVE, SHUTDOWN, INFO, MONITOR, SLAVEOF, CONFIG, STRLEN, SYNC, LPUSHX, PERSIST, RPUSHX, ECHO, LINSERT, DEBUG, BRPOPLPUSH, SETBIT, GETBIT, SETRANGE, GETRANGE, EVAL, EVALSHA, SCRIPT, SLOWLOG, OBJECT, SCAN;
 
 	public final byte[] raw;
+	final byte[] framed;
 
 	Command() {
 	    raw = SafeEncoder.encode(this.name());
+	    framed = frame(raw);
 	}
     }
 
     public static enum Keyword {
-	AGGREGATE, ALPHA, ASC, BY, DESC, GET, LIMIT, MESSAGE, NO, NOSORT, PMESSAGE, PSUBSCRIBE, PUNSUBSCRIBE, OK, ONE, QUEUED, SET, STORE, SUBSCRIBE, UNSUBSCRIBE, WEIGHTS, WITHSCORES, RESETSTAT, RESET, FLUSH, EXISTS, LOAD, KILL, LEN, REFCOUNT, ENCODING, IDLETIME;
+	AGGREGATE, ALPHA, ASC, BY, DESC, GET, LIMIT, MESSAGE, NO, NOSORT, PMESSAGE, PSUBSCRIBE, PUNSUBSCRIBE, OK, ONE, QUEUED, SET, STORE, SUBSCRIBE, UNSUBSCRIBE, WEIGHTS, WITHSCORES, RESETSTAT, RESET, FLUSH, EXISTS, LOAD, KILL, LEN, REFCOUNT, ENCODING, IDLETIME, MATCH, COUNT;
 	public final byte[] raw;
+	final byte[] framed;
 
 	Keyword() {
 	    raw = SafeEncoder.encode(this.name().toLowerCase());
+	    framed = frame(raw);
 	}
     }
 }
@@ -1,27 +1,112 @@
 package redis.clients.jedis;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import redis.clients.jedis.exceptions.JedisDataException;
 
 public class Queable {
-    private Queue<Response<?>> pipelinedResponses = new LinkedList<Response<?>>();
+    /**
+     * Responses, or builders in compact mode, of the commands waiting for a
+     * reply, in a ring that grows by doubling and is reused across syncs.
+     */
+    private Object[] queued = new Object[16];
+    private int head;
+    private int size;
+    private boolean compact;
 
     protected void clean() {
-        pipelinedResponses.clear();
+        while (size > 0) {
+            poll();
+        }
+        head = 0;
+    }
+
+    protected boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * In compact mode commands get no Response: only their builder is
+     * queued, and replies have to be consumed with {@link #build(Object)}.
+     */
+    protected void setCompact(final boolean compact) {
+        if (size > 0) {
+            throw new JedisDataException(
+                    "Please sync the queued commands before changing mode.");
+        }
+        this.compact = compact;
+    }
+
+    protected int getQueuedCount() {
+        return size;
     }
 
     protected Response<?> generateResponse(Object data) {
-        Response<?> response = pipelinedResponses.poll();
-        if (response != null) {
+        final Object entry = poll();
+        if (entry instanceof Response<?>) {
+            final Response<?> response = (Response<?>) entry;
+            response.set(data);
+            return response;
+        }
+        return null;
+    }
+
+    /**
+     * Matches a reply with the oldest queued command and builds it, without
+     * going through a Response.
+     *
+     * @return the built reply, the JedisDataException for error replies, or
+     *         null when nothing was queued
+     */
+    protected Object build(final Object data) {
+        final Object entry = poll();
+        if (entry == null) {
+            return null;
+        }
+        if (entry instanceof Response<?>) {
+            final Response<?> response = (Response<?>) entry;
             response.set(data);
+            try {
+                return response.get();
+            } catch (JedisDataException e) {
+                return e;
+            }
         }
-        return response;
+        if (data == null || data instanceof JedisDataException) {
+            return data;
+        }
+        return ((Builder<?>) entry).build(data);
     }
 
     protected <T> Response<T> getResponse(Builder<T> builder) {
+        if (compact) {
+            queue(builder);
+            return null;
+        }
         Response<T> lr = new Response<T>(builder);
-        pipelinedResponses.add(lr);
+        queue(lr);
         return lr;
     }
 
+    private void queue(final Object entry) {
+        if (size == queued.length) {
+            final Object[] grown = new Object[queued.length << 1];
+            for (int i = 0; i < size; i++) {
+                grown[i] = queued[(head + i) & (queued.length - 1)];
+            }
+            queued = grown;
+            head = 0;
+        }
+        queued[(head + size) & (queued.length - 1)] = entry;
+        size++;
+    }
+
+    private Object poll() {
+        if (size == 0) {
+            return null;
+        }
+        final Object entry = queued[head];
+        queued[head] = null;
+        head = (head + 1) & (queued.length - 1);
+        size--;
+        return entry;
+    }
 }
@@ -0,0 +1,10 @@
+package redis.clients.jedis;
+
+/**
+ * Receives the elements of a multi bulk reply one at a time, as they are
+ * read from the connection, so that huge replies never have to be held in
+ * memory as a whole.
+ */
+public interface ReplyVisitor<T> {
+    void visit(T element);
+}
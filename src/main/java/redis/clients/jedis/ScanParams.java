@@ -0,0 +1,41 @@
+package redis.clients.jedis;
+
+import static redis.clients.jedis.Protocol.Keyword.COUNT;
+import static redis.clients.jedis.Protocol.Keyword.MATCH;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import redis.clients.util.SafeEncoder;
+
+public class ScanParams {
+    /** The cursor a SCAN starts from, and which it returns once it is done */
+    public static final String SCAN_POINTER_START = "0";
+
+    private List<byte[]> params = new ArrayList<byte[]>();
+
+    public ScanParams match(final byte[] pattern) {
+        params.add(MATCH.raw);
+        params.add(pattern);
+        return this;
+    }
+
+    public ScanParams match(final String pattern) {
+        return match(SafeEncoder.encode(pattern));
+    }
+
+    /**
+     * Hints at how many keys each call should look at, 10 by default.
+     */
+    public ScanParams count(final int count) {
+        params.add(COUNT.raw);
+        params.add(Protocol.toByteArray(count));
+        return this;
+    }
+
+    public Collection<byte[]> getParams() {
+        return Collections.unmodifiableCollection(params);
+    }
+}
@@ -0,0 +1,36 @@
+package redis.clients.jedis;
+
+import java.util.List;
+
+import redis.clients.util.SafeEncoder;
+
+/**
+ * One page of keys returned by SCAN, with the cursor to pass to the next
+ * call. The iteration is over once the cursor is back to
+ * {@link ScanParams#SCAN_POINTER_START}.
+ */
+public class ScanResult<T> {
+    private final byte[] cursor;
+    private final List<T> result;
+
+    public ScanResult(final byte[] cursor, final List<T> result) {
+        this.cursor = cursor;
+        this.result = result;
+    }
+
+    public String getCursor() {
+        return SafeEncoder.encode(cursor);
+    }
+
+    public byte[] getCursorAsBytes() {
+        return cursor;
+    }
+
+    public boolean isCompleteIteration() {
+        return ScanParams.SCAN_POINTER_START.equals(getCursor());
+    }
+
+    public List<T> getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,194 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import redis.clients.util.SafeEncoder;
+
+/**
+ * Moves the keys of a migrating BinaryShardedJedis from their previous owner
+ * to their new one, then ends the migration. It is meant to run in the
+ * background while clients keep using other instances migrating the same
+ * way, which move a key themselves before their first command on it.
+ * 
+ * The keys of each previous shard are listed a page at a time with SCAN,
+ * keeping only those that change owner. Each one is copied with its TTL in a
+ * MULTI on its new owner, then deleted from its previous owner in a MULTI,
+ * both under a WATCH of the key on both shards. A key already found on its
+ * new owner was moved there by a client, which deletes it from its previous
+ * owner itself. Strings, lists, sets, sorted sets and hashes are moved; keys
+ * of other types are left where they are.
+ * 
+ * The BinaryShardedJedis must not be used by anything else meanwhile.
+ */
+public class ShardMover implements Runnable {
+    /** How many keys each SCAN of a previous shard looks at */
+    private static final int PAGE_SIZE = 100;
+
+    /** What became of a key given to move() */
+    enum Outcome {
+	/** copied to its new owner and deleted from its previous one */
+	MOVED,
+	/** not on its previous owner, or moved by another client */
+	GONE,
+	/** left on its previous owner because of its type */
+	SKIPPED
+    }
+
+    private final BinaryShardedJedis sharded;
+    private long moved;
+    private long skipped;
+
+    public ShardMover(BinaryShardedJedis sharded) {
+	this.sharded = sharded;
+    }
+
+    public void run() {
+	ScanParams params = new ScanParams().count(PAGE_SIZE);
+	for (Jedis from : sharded.getPreviousShards()) {
+	    byte[] cursor = SafeEncoder.encode(ScanParams.SCAN_POINTER_START);
+	    ScanResult<byte[]> page;
+	    do {
+		page = from.scan(cursor, params);
+		for (byte[] key : page.getResult()) {
+		    if (sharded.getPreviousShard(key) == from) {
+			count(move(key, from, sharded.getShard(key)));
+		    }
+		}
+		cursor = page.getCursorAsBytes();
+	    } while (!page.isCompleteIteration());
+	}
+	sharded.finishMigration();
+    }
+
+    private void count(Outcome outcome) {
+	if (outcome == Outcome.MOVED) {
+	    moved++;
+	} else if (outcome == Outcome.SKIPPED) {
+	    skipped++;
+	}
+    }
+
+    /**
+     * Moves key from its previous owner to its new one, unless it is not on
+     * the previous one anymore. Nothing but moves writes to the previous
+     * owner of a key while migrating, so a key found on its new owner was
+     * copied there by another client, which is deleting it from the previous
+     * one.
+     */
+    static Outcome move(byte[] key, Jedis from, Jedis to) {
+	if (!from.exists(key)) {
+	    return Outcome.GONE;
+	}
+	from.watch(key);
+	to.watch(key);
+	if (to.exists(key)) {
+	    to.unwatch();
+	    from.unwatch();
+	    return Outcome.GONE;
+	}
+	String type = from.type(key);
+	Long ttl = from.ttl(key);
+	Transaction t = to.multi();
+	if (!copy(key, type, from, t)) {
+	    t.discard();
+	    from.unwatch();
+	    return "none".equals(type) ? Outcome.GONE : Outcome.SKIPPED;
+	}
+	if (ttl != null && ttl > 0) {
+	    t.expire(key, ttl.intValue());
+	}
+	if (!from.exists(key)) {
+	    // moved by another client since it was read, and maybe deleted or
+	    // written over on its new owner after that
+	    t.discard();
+	    from.unwatch();
+	    return Outcome.GONE;
+	}
+	if (t.exec() == null) {
+	    // another client copied it first
+	    from.unwatch();
+	    return Outcome.GONE;
+	}
+	to.watch(key);
+	Transaction d = from.multi();
+	d.del(key);
+	if (d.exec() != null) {
+	    to.unwatch();
+	    return Outcome.MOVED;
+	}
+	// it left its previous owner between the check above and the copy, so
+	// the copy brought back a value another client moved and then deleted;
+	// it is dropped unless written to since
+	Transaction undo = to.multi();
+	undo.del(key);
+	undo.exec();
+	return Outcome.GONE;
+    }
+
+    /**
+     * Queues the commands rebuilding key in t.
+     * 
+     * @return false if the key is gone or has a type that is not moved
+     */
+    private static boolean copy(byte[] key, String type, Jedis from, Transaction t) {
+	if ("string".equals(type)) {
+	    byte[] value = from.get(key);
+	    if (value == null) {
+		return false;
+	    }
+	    t.set(key, value);
+	} else if ("list".equals(type)) {
+	    List<byte[]> values = from.lrange(key, 0, -1);
+	    if (values.isEmpty()) {
+		return false;
+	    }
+	    for (byte[] value : values) {
+		t.rpush(key, value);
+	    }
+	} else if ("set".equals(type)) {
+	    List<byte[]> members = new ArrayList<byte[]>(from.smembers(key));
+	    if (members.isEmpty()) {
+		return false;
+	    }
+	    for (byte[] member : members) {
+		t.sadd(key, member);
+	    }
+	} else if ("zset".equals(type)) {
+	    List<Tuple> members = new ArrayList<Tuple>(from.zrangeWithScores(
+		    key, 0, -1));
+	    if (members.isEmpty()) {
+		return false;
+	    }
+	    for (Tuple member : members) {
+		t.zadd(key, member.getScore(), member.getBinaryElement());
+	    }
+	} else if ("hash".equals(type)) {
+	    Map<byte[], byte[]> hash = from.hgetAll(key);
+	    if (hash.isEmpty()) {
+		return false;
+	    }
+	    t.hmset(key, hash);
+	} else {
+	    return false;
+	}
+	return true;
+    }
+
+    /**
+     * @return the number of keys copied to their new owner by this mover,
+     *         not counting those moved by clients
+     */
+    public long getMoved() {
+	return moved;
+    }
+
+    /**
+     * @return the number of keys left on their previous owner because of
+     *         their type
+     */
+    public long getSkipped() {
+	return skipped;
+    }
+}
@@ -1,13 +1,26 @@
 package redis.clients.jedis;
 
 import redis.clients.jedis.BinaryClient.LIST_POSITION;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.SafeEncoder;
 
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 public class ShardedJedisPipeline extends Queable {
     private BinaryShardedJedis jedis;
     private List<FutureResult> results = new ArrayList<FutureResult>();
-    private Queue<Client> clients = new LinkedList<Client>();
+    /** The shard of each pipelined command, in submission order */
+    private List<Client> clients = new ArrayList<Client>();
+    private Executor executor;
+    /**
+     * While migrating, connections keys are moved on before they are
+     * pipelined, apart from the pipelined ones which may have replies
+     * pending. Opened on demand and closed when the replies are read.
+     */
+    private Map<JedisShardInfo, Jedis> movers;
 
     private static class FutureResult {
         private Client client;
@@ -21,10 +34,61 @@ public class ShardedJedisPipeline extends Queable {
         }
     }
 
+    /**
+     * The replies of one shard, read in the order its commands were sent.
+     */
+    private static class ShardReplies implements Runnable {
+        private final Client client;
+        private int count;
+        private Object[] replies;
+        private int next;
+        private RuntimeException failure;
+        private CountDownLatch done;
+
+        ShardReplies(Client client) {
+            this.client = client;
+        }
+
+        public void run() {
+            try {
+                replies = new Object[count];
+                for (int i = 0; i < count; i++) {
+                    try {
+                        replies[i] = client.getOne();
+                    } catch (JedisDataException e) {
+                        replies[i] = e;
+                    }
+                }
+            } catch (RuntimeException e) {
+                failure = e;
+            } finally {
+                if (done != null) {
+                    done.countDown();
+                }
+            }
+        }
+
+        Object next() {
+            return replies[next++];
+        }
+    }
+
     public void setShardedJedis(BinaryShardedJedis jedis) {
         this.jedis = jedis;
     }
 
+    /**
+     * Reads the replies of the shards concurrently on the given executor,
+     * one task per shard, instead of one shard after the other on the
+     * calling thread. Either way every shard is flushed before any reply is
+     * read, so all of them work on their commands at the same time; the
+     * executor also overlaps reading and parsing the replies, which pays off
+     * when they are large.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
     public Response<String> set(String key, String value) {
         Client c = getClient(key);
         c.set(key, value);
@@ -520,6 +584,7 @@ public class ShardedJedisPipeline extends Queable {
     }
 
     public List<Object> getResults() {
+        closeMovers();
         List<Object> r = new ArrayList<Object>();
         for (FutureResult fr : results) {
             r.add(fr.get());
@@ -533,8 +598,8 @@ public class ShardedJedisPipeline extends Queable {
      * the different Response&lt;?&gt; of the commands you execute.
      */
     public void sync() {
-        for (Client client : clients) {
-            generateResponse(client.getOne());
+        for (Object reply : readReplies()) {
+            generateResponse(reply);
         }
     }
 
@@ -547,13 +612,99 @@ public class ShardedJedisPipeline extends Queable {
      * @return A list of all the responses in the order you executed them.
      */
     public List<Object> syncAndReturnAll() {
-        List<Object> formatted = new ArrayList<Object>();
-        for (Client client : clients) {
-            formatted.add(generateResponse(client.getOne()).get());
+        Object[] replies = readReplies();
+        List<Object> formatted = new ArrayList<Object>(replies.length);
+        for (Object reply : replies) {
+            formatted.add(build(reply));
         }
         return formatted;
     }
 
+    /**
+     * Flushes every shard involved, reads their replies and puts them back
+     * in the order the commands were submitted. Every shard that could be
+     * flushed has its replies read before this returns or throws, and a
+     * failed read empties the pipeline.
+     */
+    private Object[] readReplies() {
+        try {
+            Map<Client, ShardReplies> shards = new IdentityHashMap<Client, ShardReplies>();
+            for (Client client : clients) {
+                ShardReplies shard = shards.get(client);
+                if (shard == null) {
+                    shard = new ShardReplies(client);
+                    shards.put(client, shard);
+                }
+                shard.count++;
+            }
+            List<ShardReplies> flushed = new ArrayList<ShardReplies>(
+                    shards.size());
+            for (ShardReplies shard : shards.values()) {
+                try {
+                    shard.client.flush();
+                    flushed.add(shard);
+                } catch (RuntimeException e) {
+                    shard.failure = e;
+                }
+            }
+
+            if (executor == null || flushed.size() < 2) {
+                for (ShardReplies shard : flushed) {
+                    shard.run();
+                }
+            } else {
+                readConcurrently(flushed);
+            }
+            for (ShardReplies shard : shards.values()) {
+                if (shard.failure != null) {
+                    throw shard.failure;
+                }
+            }
+
+            Object[] replies = new Object[clients.size()];
+            for (int i = 0; i < replies.length; i++) {
+                replies[i] = shards.get(clients.get(i)).next();
+            }
+            return replies;
+        } catch (RuntimeException e) {
+            // the queued responses won't get their replies
+            clean();
+            throw e;
+        } finally {
+            clients.clear();
+            closeMovers();
+        }
+    }
+
+    /**
+     * Reads the replies of each shard on the executor, or on this thread if
+     * the executor rejects it, and waits for all of them even if
+     * interrupted, since they use the connections.
+     */
+    private void readConcurrently(List<ShardReplies> shards) {
+        CountDownLatch done = new CountDownLatch(shards.size());
+        for (ShardReplies shard : shards) {
+            shard.done = done;
+            try {
+                executor.execute(shard);
+            } catch (RejectedExecutionException e) {
+                shard.run();
+            }
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * This method will be removed in Jedis 3.0. Use the methods that return Response's and call
      * sync().
@@ -563,8 +714,39 @@ public class ShardedJedisPipeline extends Queable {
     }
 
     private Client getClient(String key) {
+        jedis.checkMigration();
+        JedisShardInfo previous = jedis.getPreviousShardInfo(key);
+        if (previous != null) {
+            ShardMover.move(SafeEncoder.encode(key), mover(previous),
+                    mover(jedis.getShardInfo(key)));
+        }
         Client client = jedis.getShard(key).getClient();
         clients.add(client);
         return client;
     }
+
+    private Jedis mover(JedisShardInfo shard) {
+        if (movers == null) {
+            movers = new IdentityHashMap<JedisShardInfo, Jedis>();
+        }
+        Jedis mover = movers.get(shard);
+        if (mover == null) {
+            mover = new Jedis(shard);
+            movers.put(shard, mover);
+        }
+        return mover;
+    }
+
+    private void closeMovers() {
+        if (movers == null) {
+            return;
+        }
+        for (Jedis mover : movers.values()) {
+            try {
+                mover.disconnect();
+            } catch (RuntimeException e) {
+            }
+        }
+        movers = null;
+    }
 }
\ No newline at end of file
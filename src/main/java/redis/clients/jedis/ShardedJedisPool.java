@@ -1,15 +1,23 @@
 package redis.clients.jedis;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import org.apache.commons.pool.BasePoolableObjectFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
 
 import redis.clients.util.Hashing;
+import redis.clients.jedis.netty.jmx.PoolMonitor;
 import redis.clients.util.Pool;
+import redis.clients.util.ShardingStrategy;
 
 public class ShardedJedisPool extends Pool<ShardedJedis> {
+    private static final AtomicInteger serial = new AtomicInteger();
+    private final String monitorName;
+    private final ShardedJedisFactory factory;
+
     public ShardedJedisPool(final GenericObjectPool.Config poolConfig,
             List<JedisShardInfo> shards) {
         this(poolConfig, shards, Hashing.MURMUR_HASH);
@@ -27,7 +35,81 @@ public class ShardedJedisPool extends Pool<ShardedJedis> {
 
     public ShardedJedisPool(final GenericObjectPool.Config poolConfig,
             List<JedisShardInfo> shards, Hashing algo, Pattern keyTagPattern) {
-        super(poolConfig, new ShardedJedisFactory(shards, algo, keyTagPattern));
+        this(poolConfig, shards, algo, keyTagPattern, ShardingStrategy.RING);
+    }
+
+    public ShardedJedisPool(final GenericObjectPool.Config poolConfig,
+            List<JedisShardInfo> shards, ShardingStrategy strategy) {
+        this(poolConfig, shards, Hashing.MURMUR_HASH, null, strategy);
+    }
+
+    public ShardedJedisPool(final GenericObjectPool.Config poolConfig,
+            List<JedisShardInfo> shards, Hashing algo, Pattern keyTagPattern,
+            ShardingStrategy strategy) {
+        this(poolConfig, shards, null, algo, keyTagPattern, strategy);
+    }
+
+    /**
+     * Builds a pool of ShardedJedis migrating from previousShards to
+     * shards: they move a key to its new owner before their first command
+     * on it, and migrate() moves the keys left.
+     * 
+     * @see ShardedJedis#ShardedJedis(List, List, Hashing, Pattern,
+     *      ShardingStrategy)
+     */
+    public ShardedJedisPool(final GenericObjectPool.Config poolConfig,
+            List<JedisShardInfo> shards, List<JedisShardInfo> previousShards,
+            Hashing algo, Pattern keyTagPattern, ShardingStrategy strategy) {
+        this(poolConfig, shards.size(), new ShardedJedisFactory(shards,
+                previousShards, algo, keyTagPattern, strategy));
+    }
+
+    private ShardedJedisPool(final GenericObjectPool.Config poolConfig,
+            int shards, ShardedJedisFactory factory) {
+        super(poolConfig, factory);
+        this.factory = factory;
+        if (poolConfig instanceof JedisPoolConfig
+                && ((JedisPoolConfig) poolConfig).isJmxEnabled()) {
+            monitorName = "redis.clients.jedis:service=ShardedJedisPool,shards="
+                    + shards + ",instance=" + serial.incrementAndGet();
+            PoolMonitor.registerMonitor(this, monitorName);
+        } else {
+            monitorName = null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (monitorName != null) {
+            PoolMonitor.unregisterMonitor(monitorName);
+        }
+        super.destroy();
+    }
+
+    /**
+     * Moves the keys that changed owner to their new shard with a
+     * ShardMover, on one of the pooled ShardedJedis, then ends the migration
+     * of all of them. Blocks until it is done, so it is meant to be run in
+     * the background.
+     * 
+     * @return the mover, for its counts
+     */
+    public ShardMover migrate() {
+        ShardedJedis jedis = getResource();
+        ShardMover mover = new ShardMover(jedis);
+        try {
+            mover.run();
+        } catch (RuntimeException e) {
+            returnBrokenResource(jedis);
+            throw e;
+        }
+        returnResource(jedis);
+        factory.migrated.set(true);
+        return mover;
+    }
+
+    public boolean isMigrating() {
+        return !factory.migrated.get();
     }
 
     /**
@@ -35,18 +117,38 @@ public class ShardedJedisPool extends Pool<ShardedJedis> {
      */
     private static class ShardedJedisFactory extends BasePoolableObjectFactory {
         private List<JedisShardInfo> shards;
+        private List<JedisShardInfo> previousShards;
         private Hashing algo;
         private Pattern keyTagPattern;
+        private ShardingStrategy strategy;
+        /**
+         * Set once the keys have been moved: new ShardedJedis are built
+         * without the previous shards, and the others drop them before
+         * their next command, pooled or kept by a thread.
+         */
+        private final AtomicBoolean migrated;
 
-        public ShardedJedisFactory(List<JedisShardInfo> shards, Hashing algo,
-                Pattern keyTagPattern) {
+        public ShardedJedisFactory(List<JedisShardInfo> shards,
+                List<JedisShardInfo> previousShards, Hashing algo,
+                Pattern keyTagPattern, ShardingStrategy strategy) {
             this.shards = shards;
+            this.previousShards = previousShards;
             this.algo = algo;
             this.keyTagPattern = keyTagPattern;
+            this.strategy = strategy;
+            this.migrated = new AtomicBoolean(previousShards == null);
         }
 
         public Object makeObject() throws Exception {
-            ShardedJedis jedis = new ShardedJedis(shards, algo, keyTagPattern);
+            ShardedJedis jedis;
+            if (migrated.get()) {
+                jedis = new ShardedJedis(shards, algo, keyTagPattern,
+                        strategy);
+            } else {
+                jedis = new ShardedJedis(shards, previousShards, algo,
+                        keyTagPattern, strategy);
+                jedis.finishMigrationWhen(migrated);
+            }
             return jedis;
         }
 
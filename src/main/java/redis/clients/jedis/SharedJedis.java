@@ -0,0 +1,206 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * A client that can be shared by any number of threads over a single
+ * connection, pipelining their commands implicitly.
+ * <p>
+ * Callers queue their command and then take turns on the connection. Whoever
+ * holds it writes every command queued so far, flushes them at once and reads
+ * the replies back in order, handing each one to the thread waiting for it.
+ * Callers that arrived in the meantime usually find their reply already there
+ * when they get their turn. The more threads, the bigger the batches.
+ */
+public class SharedJedis {
+    /**
+     * Most commands written in one flush, so that a steady flow of callers
+     * doesn't starve the ones already waiting.
+     */
+    private static final int MAX_BATCH = 1024;
+
+    private final Client client;
+    private final Queue<Request<?>> queue = new ConcurrentLinkedQueue<Request<?>>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public SharedJedis(final String host) {
+        this(new JedisShardInfo(host));
+    }
+
+    public SharedJedis(final String host, final int port) {
+        this(new JedisShardInfo(host, port));
+    }
+
+    public SharedJedis(final JedisShardInfo shardInfo) {
+        client = new Client(shardInfo);
+    }
+
+    /**
+     * Sends a command and waits for its reply.
+     * 
+     * @param builder
+     *            builds the result from the reply
+     */
+    public <T> T execute(final Builder<T> builder, final Command command,
+            final byte[]... args) {
+        for (final byte[] arg : args) {
+            if (arg == null) {
+                throw new JedisDataException(
+                        "value sent to redis cannot be null");
+            }
+        }
+        final Request<T> request = new Request<T>(builder, command, args);
+        queue.add(request);
+        lock.lock();
+        try {
+            while (!request.done) {
+                writeAndRead();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return request.get();
+    }
+
+    public <T> T execute(final Builder<T> builder, final Command command,
+            final String... args) {
+        final byte[][] bargs = new byte[args.length][];
+        for (int i = 0; i < args.length; i++) {
+            bargs[i] = SafeEncoder.encode(args[i]);
+        }
+        return execute(builder, command, bargs);
+    }
+
+    public String ping() {
+        return execute(BuilderFactory.STRING, Command.PING, new byte[0][]);
+    }
+
+    public String get(final String key) {
+        return execute(BuilderFactory.STRING, Command.GET, key);
+    }
+
+    public byte[] get(final byte[] key) {
+        return execute(BuilderFactory.BYTE_ARRAY, Command.GET, key);
+    }
+
+    public String set(final String key, final String value) {
+        return execute(BuilderFactory.STRING, Command.SET, key, value);
+    }
+
+    public String set(final byte[] key, final byte[] value) {
+        return execute(BuilderFactory.STRING, Command.SET, key, value);
+    }
+
+    public Long incr(final String key) {
+        return execute(BuilderFactory.LONG, Command.INCR, key);
+    }
+
+    public Long del(final String... keys) {
+        return execute(BuilderFactory.LONG, Command.DEL, keys);
+    }
+
+    public Boolean exists(final String key) {
+        return execute(BuilderFactory.BOOLEAN, Command.EXISTS, key);
+    }
+
+    public String hget(final String key, final String field) {
+        return execute(BuilderFactory.STRING, Command.HGET, key, field);
+    }
+
+    public Long hset(final String key, final String field, final String value) {
+        return execute(BuilderFactory.LONG, Command.HSET, key, field, value);
+    }
+
+    public void disconnect() {
+        lock.lock();
+        try {
+            client.disconnect();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the queued commands with a single flush and reads their replies.
+     * Must be called holding the lock.
+     */
+    private void writeAndRead() {
+        final List<Request<?>> batch = new ArrayList<Request<?>>();
+        Request<?> request;
+        while (batch.size() < MAX_BATCH && (request = queue.poll()) != null) {
+            batch.add(request);
+        }
+
+        int replied = 0;
+        try {
+            for (final Request<?> r : batch) {
+                client.sendCommand(r.command, r.args);
+            }
+            for (; replied < batch.size(); replied++) {
+                Object data;
+                try {
+                    data = client.getOne();
+                } catch (JedisDataException e) {
+                    data = e;
+                }
+                batch.get(replied).reply(data);
+            }
+        } catch (JedisException e) {
+            // the connection is out of sync, fail what is left of the batch
+            // and start over with a new one on the next call
+            for (; replied < batch.size(); replied++) {
+                batch.get(replied).fail(e);
+            }
+            try {
+                client.disconnect();
+            } catch (JedisConnectionException ignored) {
+            }
+        }
+    }
+
+    /**
+     * A queued command and, once done, its reply. Only accessed holding the
+     * lock, which is what makes the reply visible to the waiting thread.
+     */
+    private static class Request<T> {
+        private final Command command;
+        private final byte[][] args;
+        private final Response<T> response;
+        private JedisException failure;
+        private boolean done;
+
+        Request(final Builder<T> builder, final Command command,
+                final byte[][] args) {
+            this.command = command;
+            this.args = args;
+            this.response = new Response<T>(builder);
+        }
+
+        void reply(final Object data) {
+            response.set(data);
+            done = true;
+        }
+
+        void fail(final JedisException failure) {
+            this.failure = failure;
+            done = true;
+        }
+
+        T get() {
+            if (failure != null) {
+                throw failure;
+            }
+            return response.get();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package redis.clients.jedis;
+
+/**
+ * How a {@link Connection} talks to the server.
+ */
+public enum Transport {
+    /**
+     * A blocking java.net.Socket and its streams.
+     */
+    SOCKET,
+    /**
+     * A non blocking SocketChannel, reading and writing straight into the
+     * connection's heap buffers.
+     */
+    NIO_HEAP,
+    /**
+     * A non blocking SocketChannel going through direct ByteBuffers owned by
+     * the connection, instead of the JDK's per-thread temporary ones. Bytes
+     * are still copied once between those and the connection's heap
+     * buffers, as with NIO_HEAP.
+     */
+    NIO_DIRECT
+}
@@ -0,0 +1,356 @@
+/**
+ * Helios, OpenSource Monitoring
+ * Brought to you by the Helios Development Group
+ *
+ * Copyright 2007, Helios Development Group and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org. 
+ *
+ */
+package redis.clients.jedis.netty;
+
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.ExceptionEvent;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+
+import redis.clients.jedis.Builder;
+import redis.clients.jedis.BuilderFactory;
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * <p>Title: AsyncJedis</p>
+ * <p>Description: A Netty NIO based client that sends any {@link Command} and returns a
+ * {@link ReplyFuture} for its reply. It is thread safe and meant to be shared: commands
+ * from all threads go down a single channel and replies are matched to futures in order.</p>
+ * <p>Writes are pipelined automatically. While a write is in flight, the commands sent in
+ * the meantime are encoded into one buffer, which goes out as a single write as soon as
+ * the previous one completes, so the busier the client the bigger the batches.</p>
+ * <p><code>redis.clients.jedis.netty.AsyncJedis</code></p>
+ */
+public class AsyncJedis extends SimpleChannelUpstreamHandler implements Closeable, ChannelFutureListener {
+	/** The initial size of a write batch */
+	private static final int BATCH_SIZE = 1024;
+	/** Builds the decoded reply itself */
+	private static final Builder<Object> RAW = new Builder<Object>() {
+		public Object build(Object data) {
+			return data;
+		}
+	};
+
+	/** The redis host or IP Address */
+	protected final String host;
+	/** The redis listening port */
+	protected final int port;
+	/** The timeout in ms. */
+	protected final long timeout;
+	/** The command channel */
+	protected final Channel channel;
+	/** The futures of the commands sent, in the order their replies will come back */
+	private final Queue<ReplyFuture<?>> pending = new ConcurrentLinkedQueue<ReplyFuture<?>>();
+	/** Guards the batch, the writing flag and the order of pending */
+	private final Object lock = new Object();
+	/** The commands waiting for the write in flight to complete */
+	private ChannelBuffer batch = ChannelBuffers.dynamicBuffer(BATCH_SIZE);
+	/** Indicates if a write is in flight */
+	private boolean writing = false;
+	/** Set once the channel closed, after which commands fail straight away */
+	private boolean closed = false;
+
+	/**
+	 * Returns a connected AsyncJedis for the passed host and port
+	 * @param host The redis host
+	 * @param port The redis port
+	 * @param auth The redis auth password, or null
+	 * @param timeout The connect timeout in ms., also how long AUTH may take
+	 * @return An {@link AsyncJedis} instance
+	 */
+	public static AsyncJedis getInstance(String host, int port, String auth, long timeout) {
+		return new AsyncJedis(host, port, auth, timeout);
+	}
+
+	/**
+	 * Returns a connected AsyncJedis for the passed host and port
+	 * @param host The redis host
+	 * @param port The redis port
+	 * @return An {@link AsyncJedis} instance
+	 */
+	public static AsyncJedis getInstance(String host, int port) {
+		return getInstance(host, port, null, 2000);
+	}
+
+	/**
+	 * Creates a new AsyncJedis
+	 * @param host The redis host
+	 * @param port The redis port
+	 * @param auth The redis auth password, or null
+	 * @param timeout The connect timeout in ms., also how long AUTH may take
+	 */
+	private AsyncJedis(String host, int port, String auth, long timeout) {
+		this.host = host;
+		this.port = port;
+		this.timeout = timeout;
+		channel = OptimizedPubSubFactory.getInstance(null).newCommandChannelSynch(host, port, timeout);
+		channel.getPipeline().addLast("AsyncJedis", this);
+		if(auth!=null) {
+			try {
+				await(send(BuilderFactory.STRING, Command.AUTH, auth), timeout);
+			} catch (RuntimeException e) {
+				// nobody gets this instance, so nobody else would close the channel
+				channel.close().awaitUninterruptibly(timeout);
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Sends a command
+	 * @param builder Builds the value of the future from the reply
+	 * @param command The command
+	 * @param args The arguments of the command
+	 * @return the future reply
+	 */
+	public <T> ReplyFuture<T> send(Builder<T> builder, Command command, byte[]... args) {
+		for(byte[] arg: args) {
+			if(arg==null) {
+				throw new JedisDataException("value sent to redis cannot be null");
+			}
+		}
+		final ReplyFuture<T> future = new ReplyFuture<T>(builder);
+		final ChannelBuffer toWrite;
+		synchronized(lock) {
+			if(closed) {
+				future.fail(new JedisConnectionException("Connection to [" + host + ":" + port + "] is closed"));
+				return future;
+			}
+			encode(batch, command, args);
+			pending.add(future);
+			if(writing) {
+				return future;
+			}
+			writing = true;
+			toWrite = batch;
+			batch = ChannelBuffers.dynamicBuffer(BATCH_SIZE);
+		}
+		channel.write(toWrite).addListener(this);
+		return future;
+	}
+
+	/**
+	 * Sends a command
+	 * @param builder Builds the value of the future from the reply
+	 * @param command The command
+	 * @param args The arguments of the command
+	 * @return the future reply
+	 */
+	public <T> ReplyFuture<T> send(Builder<T> builder, Command command, String... args) {
+		final byte[][] bargs = new byte[args.length][];
+		for(int i = 0; i < args.length; i++) {
+			bargs[i] = SafeEncoder.encode(args[i]);
+		}
+		return send(builder, command, bargs);
+	}
+
+	/**
+	 * Sends a command whose future returns the reply as decoded by {@link RedisReplyDecoder}
+	 * @param command The command
+	 * @param args The arguments of the command
+	 * @return the future reply
+	 */
+	public ReplyFuture<Object> send(Command command, byte[]... args) {
+		return send(RAW, command, args);
+	}
+
+	public ReplyFuture<String> get(String key) {
+		return send(BuilderFactory.STRING, Command.GET, key);
+	}
+
+	public ReplyFuture<byte[]> get(byte[] key) {
+		return send(BuilderFactory.BYTE_ARRAY, Command.GET, key);
+	}
+
+	public ReplyFuture<String> set(String key, String value) {
+		return send(BuilderFactory.STRING, Command.SET, key, value);
+	}
+
+	public ReplyFuture<String> set(byte[] key, byte[] value) {
+		return send(BuilderFactory.STRING, Command.SET, key, value);
+	}
+
+	public ReplyFuture<Long> incr(String key) {
+		return send(BuilderFactory.LONG, Command.INCR, key);
+	}
+
+	public ReplyFuture<Long> del(String... keys) {
+		return send(BuilderFactory.LONG, Command.DEL, keys);
+	}
+
+	public ReplyFuture<String> ping() {
+		return send(BuilderFactory.STRING, Command.PING, new byte[0][]);
+	}
+
+	/**
+	 * Writes the commands batched while the previous write was in flight.
+	 * {@inheritDoc}
+	 * @see org.jboss.netty.channel.ChannelFutureListener#operationComplete(org.jboss.netty.channel.ChannelFuture)
+	 */
+	public void operationComplete(ChannelFuture future) throws Exception {
+		if(!future.isSuccess()) {
+			channel.close();
+			return;
+		}
+		final ChannelBuffer toWrite;
+		synchronized(lock) {
+			if(!batch.readable()) {
+				writing = false;
+				return;
+			}
+			toWrite = batch;
+			batch = ChannelBuffers.dynamicBuffer(BATCH_SIZE);
+		}
+		channel.write(toWrite).addListener(this);
+	}
+
+	/**
+	 * Completes the oldest pending future with the decoded reply
+	 * {@inheritDoc}
+	 * @see org.jboss.netty.channel.SimpleChannelUpstreamHandler#messageReceived(org.jboss.netty.channel.ChannelHandlerContext, org.jboss.netty.channel.MessageEvent)
+	 */
+	@Override
+	public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+		final ReplyFuture<?> future = pending.poll();
+		if(future==null) {
+			// a reply nobody asked for, the connection can't be trusted anymore
+			channel.close();
+			return;
+		}
+		future.complete(e.getMessage());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.jboss.netty.channel.SimpleChannelUpstreamHandler#exceptionCaught(org.jboss.netty.channel.ChannelHandlerContext, org.jboss.netty.channel.ExceptionEvent)
+	 */
+	@Override
+	public void exceptionCaught(ChannelHandlerContext ctx, ExceptionEvent e) throws Exception {
+		failPending(e.getCause());
+		channel.close();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.jboss.netty.channel.SimpleChannelUpstreamHandler#channelClosed(org.jboss.netty.channel.ChannelHandlerContext, org.jboss.netty.channel.ChannelStateEvent)
+	 */
+	@Override
+	public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+		failPending(new JedisConnectionException("Connection to [" + host + ":" + port + "] closed"));
+		super.channelClosed(ctx, e);
+	}
+
+	/**
+	 * Indicates if this client is connected.
+	 * @return true if this client is connected, false otherwise
+	 */
+	public boolean isConnected() {
+		return channel.isConnected();
+	}
+
+	/**
+	 * Closes the channel. Commands still waiting for their reply fail.
+	 * {@inheritDoc}
+	 * @see java.io.Closeable#close()
+	 */
+	public void close() {
+		channel.close().awaitUninterruptibly(timeout);
+	}
+
+	private void failPending(Throwable cause) {
+		synchronized(lock) {
+			closed = true;
+		}
+		ReplyFuture<?> future;
+		while((future = pending.poll())!=null) {
+			future.fail(cause);
+		}
+	}
+
+	/**
+	 * Waits for a reply, rethrowing its failure the way the blocking client would
+	 * @param future The reply
+	 * @param timeout How long to wait for it in ms.
+	 */
+	private static <T> T await(ReplyFuture<T> future, long timeout) {
+		try {
+			return future.get(timeout, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			throw new JedisConnectionException(e.getMessage(), e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new JedisException(e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof JedisException) {
+				throw (JedisException)e.getCause();
+			}
+			throw new JedisException(e.getCause());
+		}
+	}
+
+	/**
+	 * Encodes a command the way {@link redis.clients.jedis.Protocol#sendCommand} does
+	 */
+	private static void encode(ChannelBuffer buffer, Command command, byte[][] args) {
+		writeHeader(buffer, ProtocolByte.ASTERISK_BYTE.getByte(), args.length + 1);
+		writeHeader(buffer, ProtocolByte.DOLLAR_BYTE.getByte(), command.raw.length);
+		buffer.writeBytes(command.raw);
+		buffer.writeBytes(CR.CR_BYTES);
+		for(byte[] arg: args) {
+			writeHeader(buffer, ProtocolByte.DOLLAR_BYTE.getByte(), arg.length);
+			buffer.writeBytes(arg);
+			buffer.writeBytes(CR.CR_BYTES);
+		}
+	}
+
+	private static void writeHeader(ChannelBuffer buffer, byte prefix, int value) {
+		buffer.writeByte(prefix);
+		int divisor = 1;
+		while(value / divisor >= 10) {
+			divisor *= 10;
+		}
+		for(; divisor > 0; divisor /= 10) {
+			buffer.writeByte('0' + (value / divisor) % 10);
+		}
+		buffer.writeBytes(CR.CR_BYTES);
+	}
+}
@@ -75,6 +75,8 @@ public class OptimizedPubSubFactory {
 	private final Map<String, Object> socketOptions = new HashMap<String, Object>();
 	/** The client pipeine factory */
 	private final ChannelPipelineFactory pipelineFactory;
+	/** The bootstrap for general purpose command channels, sharing the pub sub thread pools */
+	private final ClientBootstrap commandBootstrap;
 	/** An execution handler to hand off the metric submissions to */
 	protected  final ExecutionHandler execHandler = new ExecutionHandler(Executors.newCachedThreadPool(			
 			new ThreadFactory() {
@@ -96,6 +98,8 @@ public class OptimizedPubSubFactory {
 	public static final String MULTI_DECODER_NAME = "multiBulkDecoder";
 	/** The name of the request encoder  */
 	public static final String REQ_ENCODER_NAME = "pubSubRequestEncoder";
+	/** The name of the reply decoder of command channels */
+	public static final String REPLY_DECODER_NAME = "replyDecoder";
 	/** The name of the logging handler  */
 	public static final String LOG_HANDLING_NAME = "loggingHandler";
 	
@@ -164,6 +168,18 @@ public class OptimizedPubSubFactory {
 		if(socketOptions!=null) {
 			this.socketOptions.putAll(socketOptions);
 		}
+		
+		commandBootstrap = new ClientBootstrap(channelFactory);
+		commandBootstrap.setPipelineFactory(new ChannelPipelineFactory() {
+			public ChannelPipeline getPipeline() throws Exception {
+				ChannelPipeline pipeline = Channels.pipeline();
+				pipeline.addLast(REPLY_DECODER_NAME, new RedisReplyDecoder());
+				return pipeline;
+			}
+		});
+		commandBootstrap.setOption("tcpNoDelay", true);
+		commandBootstrap.setOption("keepAlive", true);
+		commandBootstrap.setOptions(this.socketOptions);
 	}
 	
 	/**
@@ -196,6 +212,25 @@ public class OptimizedPubSubFactory {
 		throw new RuntimeException("Channel Connection to [" + remoteAddress + "] Timed Out After [" + timeout + "] ms");
 	}
 
+	/**
+	 * Connects a general purpose command channel to the passed port at the passed host synchronously.
+	 * The channel's pipeline decodes every reply with a {@link RedisReplyDecoder}.
+	 * @param host The host to connect to
+	 * @param port The port to connect to
+	 * @param timeout The connection timeout in ms. 
+	 * @return A connected Channel
+	 */
+	public Channel newCommandChannelSynch(String host, int port, long timeout) {
+		SocketAddress remoteAddress = new InetSocketAddress(host, port);
+		ChannelFuture cf = commandBootstrap.connect(remoteAddress);
+		if(cf.awaitUninterruptibly(timeout)) {
+			if(cf.isSuccess()) {
+				return cf.getChannel();
+			}
+			throw new RuntimeException("Channel Connection to [" + remoteAddress + "] Failed", cf.getCause());
+		} 
+		throw new RuntimeException("Channel Connection to [" + remoteAddress + "] Timed Out After [" + timeout + "] ms");
+	}
 	
 	/**
 	 * Adds or sets a socket option 
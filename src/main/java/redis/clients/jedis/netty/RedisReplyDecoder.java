@@ -0,0 +1,179 @@
+/**
+ * Helios, OpenSource Monitoring
+ * Brought to you by the Helios Development Group
+ *
+ * Copyright 2007, Helios Development Group and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org. 
+ *
+ */
+package redis.clients.jedis.netty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.frame.FrameDecoder;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * <p>Title: RedisReplyDecoder</p>
+ * <p>Description: A decoder for any redis reply. Replies are decoded to the same types
+ * {@link redis.clients.jedis.Protocol#read} returns: byte[] for status and bulk replies,
+ * Long for integers and List&lt;Object&gt; for multi bulk replies, nested ones included.
+ * Error replies are decoded to a {@link JedisDataException} instead of being thrown, and
+ * a nil reply to {@link #NIL}.</p>
+ * <p>Unlike {@link RedisPubEventDecoder} it does not replay a reply from its start when
+ * more data is needed: the elements of a multi bulk reply are consumed as they arrive
+ * and only the element being read is retried, so huge replies are decoded in linear time.</p>
+ * <p><code>redis.clients.jedis.netty.RedisReplyDecoder</code></p>
+ */
+public class RedisReplyDecoder extends FrameDecoder {
+	/** The object a nil reply is decoded to, since a null frame means more data is needed */
+	public static final Object NIL = new Object();
+	/** Returned by readElement when the element is not fully buffered yet */
+	private static final Object INCOMPLETE = new Object();
+
+	/** The multi bulk replies being decoded, innermost last */
+	private final List<MultiBulk> stack = new ArrayList<MultiBulk>();
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.jboss.netty.handler.codec.frame.FrameDecoder#decode(org.jboss.netty.channel.ChannelHandlerContext, org.jboss.netty.channel.Channel, org.jboss.netty.buffer.ChannelBuffer)
+	 */
+	@Override
+	protected Object decode(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception {
+		while (buffer.readable()) {
+			final int start = buffer.readerIndex();
+			Object element = readElement(buffer);
+			if (element == INCOMPLETE) {
+				buffer.readerIndex(start);
+				return null;
+			}
+			if (element instanceof MultiBulk) {
+				stack.add((MultiBulk) element);
+				continue;
+			}
+			boolean complete = true;
+			while (!stack.isEmpty()) {
+				final MultiBulk top = stack.get(stack.size() - 1);
+				top.elements.add(element);
+				if (top.elements.size() < top.size) {
+					complete = false;
+					break;
+				}
+				stack.remove(stack.size() - 1);
+				element = top.elements;
+			}
+			if (complete) {
+				return element == null ? NIL : element;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Reads the next element, leaving the buffer in an undefined position if it is incomplete
+	 * @param buffer The buffer to read from
+	 * @return the element, a new MultiBulk for a non empty multi bulk header, or INCOMPLETE
+	 */
+	private Object readElement(ChannelBuffer buffer) {
+		final int eol = buffer.indexOf(buffer.readerIndex(), buffer.writerIndex(), CR.BYTE2);
+		if (eol < 0) {
+			return INCOMPLETE;
+		}
+		final byte type = buffer.readByte();
+		switch (type) {
+			case '+':
+				return readLine(buffer, eol);
+			case '-':
+				return new JedisDataException(SafeEncoder.encode(readLine(buffer, eol)));
+			case ':':
+				return Long.valueOf(readNumber(buffer, eol));
+			case '$':
+				final int length = (int) readNumber(buffer, eol);
+				if (length == -1) {
+					return null;
+				}
+				if (buffer.readableBytes() < length + CR.CR_LENGTH) {
+					return INCOMPLETE;
+				}
+				final byte[] bulk = new byte[length];
+				buffer.readBytes(bulk);
+				buffer.skipBytes(CR.CR_LENGTH);
+				return bulk;
+			case '*':
+				final int size = (int) readNumber(buffer, eol);
+				if (size == -1) {
+					return null;
+				}
+				if (size == 0) {
+					return new ArrayList<Object>(0);
+				}
+				return new MultiBulk(size);
+			default:
+				throw new JedisConnectionException("Unknown reply: " + (char) type);
+		}
+	}
+
+	/**
+	 * Reads the rest of a line, without its CRLF
+	 */
+	private static byte[] readLine(ChannelBuffer buffer, int eol) {
+		final byte[] line = new byte[eol - 1 - buffer.readerIndex()];
+		buffer.readBytes(line);
+		buffer.skipBytes(CR.CR_LENGTH);
+		return line;
+	}
+
+	/**
+	 * Parses the rest of a line as a signed decimal number, without copying it
+	 */
+	private static long readNumber(ChannelBuffer buffer, int eol) {
+		final int end = eol - 1;
+		boolean negative = false;
+		if (buffer.getByte(buffer.readerIndex()) == '-') {
+			negative = true;
+			buffer.skipBytes(1);
+		}
+		long value = 0;
+		while (buffer.readerIndex() < end) {
+			value = value * 10 + (buffer.readByte() - '0');
+		}
+		buffer.skipBytes(CR.CR_LENGTH);
+		return negative ? -value : value;
+	}
+
+	/**
+	 * A multi bulk reply whose elements are still being read
+	 */
+	private static class MultiBulk {
+		final int size;
+		final List<Object> elements;
+
+		MultiBulk(int size) {
+			this.size = size;
+			this.elements = new ArrayList<Object>(size);
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/**
+ * Helios, OpenSource Monitoring
+ * Brought to you by the Helios Development Group
+ *
+ * Copyright 2007, Helios Development Group and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org. 
+ *
+ */
+package redis.clients.jedis.netty;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import redis.clients.jedis.Builder;
+
+/**
+ * <p>Title: ReplyFuture</p>
+ * <p>Description: The pending reply of a command sent through an {@link AsyncJedis}.
+ * A command can't be taken back once it has been queued, so the future cannot be cancelled.
+ * Error replies and connection failures surface as the cause of an {@link ExecutionException}.</p>
+ * <p><code>redis.clients.jedis.netty.ReplyFuture</code></p>
+ */
+public class ReplyFuture<T> implements Future<T> {
+	/** Builds the value from the decoded reply */
+	private final Builder<T> builder;
+	/** Released once the reply or a failure is in */
+	private final CountDownLatch done = new CountDownLatch(1);
+	/** The built value */
+	private volatile T value;
+	/** The failure, if any */
+	private volatile Throwable failure;
+
+	/**
+	 * Creates a new ReplyFuture
+	 * @param builder Builds the value from the decoded reply
+	 */
+	ReplyFuture(Builder<T> builder) {
+		this.builder = builder;
+	}
+
+	/**
+	 * Completes the future with the decoded reply
+	 * @param reply The decoded reply, as returned by {@link RedisReplyDecoder}
+	 */
+	void complete(Object reply) {
+		try {
+			if(reply instanceof Throwable) {
+				failure = (Throwable)reply;
+			} else {
+				value = builder.build(reply==RedisReplyDecoder.NIL ? null : reply);
+			}
+		} catch (RuntimeException e) {
+			failure = e;
+		}
+		done.countDown();
+	}
+
+	/**
+	 * Fails the future
+	 * @param cause The cause of the failure
+	 */
+	void fail(Throwable cause) {
+		failure = cause;
+		done.countDown();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.Future#cancel(boolean)
+	 */
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.Future#isCancelled()
+	 */
+	public boolean isCancelled() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.Future#isDone()
+	 */
+	public boolean isDone() {
+		return done.getCount()==0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.Future#get()
+	 */
+	public T get() throws InterruptedException, ExecutionException {
+		done.await();
+		return result();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.Future#get(long, java.util.concurrent.TimeUnit)
+	 */
+	public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		if(!done.await(timeout, unit)) {
+			throw new TimeoutException("No reply after [" + timeout + "] " + unit);
+		}
+		return result();
+	}
+
+	private T result() throws ExecutionException {
+		if(failure!=null) {
+			throw new ExecutionException(failure);
+		}
+		return value;
+	}
+}
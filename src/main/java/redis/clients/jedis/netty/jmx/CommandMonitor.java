@@ -0,0 +1,154 @@
+/**
+ * Helios, OpenSource Monitoring
+ * Brought to you by the Helios Development Group
+ *
+ * Copyright 2007, Helios Development Group and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org. 
+ *
+ */
+package redis.clients.jedis.netty.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import redis.clients.jedis.CommandStats;
+import redis.clients.util.LatencyHistogram;
+
+/**
+ * <p>Title: CommandMonitor</p>
+ * <p>Description: JMX monitor for the per command {@link CommandStats} of a set of connections.</p> 
+ * <p><code>redis.clients.jedis.netty.jmx.CommandMonitor</code></p>
+ */
+public class CommandMonitor implements CommandMonitorMXBean {
+	/** A cache of registered command monitors keyed by their registered JMX ObjectNames */
+	protected static final Map<ObjectName, CommandMonitor> instances = new ConcurrentHashMap<ObjectName, CommandMonitor>();
+	/** The platform MBeanServer */
+	protected static final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+	/** The stats to expose */
+	protected final CommandStats stats;
+	
+	/**
+	 * Creates and registers a new CommandMonitor
+	 * @param stats The stats to expose
+	 * @param objectName The JMX ObjectName of the MBean
+	 */
+	public static void registerMonitor(CommandStats stats, CharSequence objectName) {
+		if(stats==null) throw new IllegalArgumentException("The passed stats were null", new Throwable());
+		ObjectName on = JMXHelper.objectName(objectName);
+		if(!instances.containsKey(on)) {
+			synchronized(instances) {
+				if(!instances.containsKey(on)) {
+					CommandMonitor cm = new CommandMonitor(stats);
+					instances.put(on, cm);
+					if(!server.isRegistered(on)) {
+						try {
+							server.registerMBean(cm, on);
+						} catch (Exception ex) {
+							ex.printStackTrace(System.err);
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Unregisters a CommandMonitor
+	 * @param objectName The JMX ObjectName of the MBean
+	 */
+	public static void unregisterMonitor(CharSequence objectName) {
+		ObjectName on = JMXHelper.objectName(objectName);
+		if(instances.remove(on)!=null) {
+			try {
+				server.unregisterMBean(on);
+			} catch (Exception ex) {
+				// already gone
+			}
+		}
+	}
+	
+	/**
+	 * Creates a new CommandMonitor
+	 * @param stats The stats to expose
+	 */
+	protected CommandMonitor(CommandStats stats) {
+		this.stats = stats;
+	}
+	
+	public long getSentCount() {
+		long n = 0;
+		for(CommandStats.Counters c: stats.getSent()) {
+			n += c.getSentCount();
+		}
+		return n;
+	}
+	
+	public long getErrorCount() {
+		long n = 0;
+		for(CommandStats.Counters c: stats.getSent()) {
+			n += c.getErrorCount();
+		}
+		return n;
+	}
+	
+	public long getBytesWritten() {
+		long n = 0;
+		for(CommandStats.Counters c: stats.getSent()) {
+			n += c.getBytesWritten();
+		}
+		return n;
+	}
+	
+	public long getBytesRead() {
+		long n = 0;
+		for(CommandStats.Counters c: stats.getSent()) {
+			n += c.getBytesRead();
+		}
+		return n;
+	}
+	
+	public double getSentPerSecond() {
+		long elapsed = System.currentTimeMillis() - stats.getSince();
+		return elapsed<=0 ? 0 : getSentCount() * 1000d / elapsed;
+	}
+	
+	public CommandSummary[] getCommands() {
+		List<CommandStats.Counters> sent = stats.getSent();
+		CommandSummary[] summaries = new CommandSummary[sent.size()];
+		for(int i = 0; i < summaries.length; i++) {
+			CommandStats.Counters c = sent.get(i);
+			LatencyHistogram latency = c.getLatency();
+			summaries[i] = new CommandSummary(c.getCommand().name(), c.getSentCount(), c.getErrorCount(),
+				c.getBytesWritten(), c.getBytesRead(), latency.getMeanMicros(),
+				latency.getPercentileMicros(50), latency.getPercentileMicros(90),
+				latency.getPercentileMicros(99), latency.getPercentileMicros(99.9),
+				latency.getMaxMicros());
+		}
+		return summaries;
+	}
+	
+	public void reset() {
+		stats.reset();
+	}
+}
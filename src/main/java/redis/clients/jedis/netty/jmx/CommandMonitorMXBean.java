@@ -0,0 +1,76 @@
+/**
+ * Helios, OpenSource Monitoring
+ * Brought to you by the Helios Development Group
+ *
+ * Copyright 2007, Helios Development Group and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org. 
+ *
+ */
+package redis.clients.jedis.netty.jmx;
+
+import javax.management.MXBean;
+
+/**
+ * <p>Title: CommandMonitorMXBean</p>
+ * <p>Description: MXBean interface for the CommandMonitor</p> 
+ * <p><code>redis.clients.jedis.netty.jmx.CommandMonitorMXBean</code></p>
+ */
+@MXBean
+public interface CommandMonitorMXBean {
+	/**
+	 * Returns the number of commands sent
+	 * @return the number of commands sent
+	 */
+	public long getSentCount();
+	
+	/**
+	 * Returns the number of error replies
+	 * @return the number of error replies
+	 */
+	public long getErrorCount();
+	
+	/**
+	 * Returns the number of bytes written by the instrumented connections
+	 * @return the number of bytes written
+	 */
+	public long getBytesWritten();
+	
+	/**
+	 * Returns the number of bytes read by the instrumented connections
+	 * @return the number of bytes read
+	 */
+	public long getBytesRead();
+	
+	/**
+	 * Returns the number of commands sent per second
+	 * @return the command rate
+	 */
+	public double getSentPerSecond();
+	
+	/**
+	 * Returns a summary per command sent so far, with its counts, bytes and latency percentiles in microseconds
+	 * @return the command summaries
+	 */
+	public CommandSummary[] getCommands();
+	
+	/**
+	 * Resets the counters and the latency histograms
+	 */
+	public void reset();
+}
@@ -0,0 +1,111 @@
+/**
+ * Helios, OpenSource Monitoring
+ * Brought to you by the Helios Development Group
+ *
+ * Copyright 2007, Helios Development Group and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org. 
+ *
+ */
+package redis.clients.jedis.netty.jmx;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * <p>Title: CommandSummary</p>
+ * <p>Description: A snapshot of the counts, bytes and latency percentiles of one command, as published by the {@link CommandMonitor}</p> 
+ * <p><code>redis.clients.jedis.netty.jmx.CommandSummary</code></p>
+ */
+public class CommandSummary {
+	private final String command;
+	private final long sentCount;
+	private final long errorCount;
+	private final long bytesWritten;
+	private final long bytesRead;
+	private final long meanMicros;
+	private final long percentile50Micros;
+	private final long percentile90Micros;
+	private final long percentile99Micros;
+	private final long percentile999Micros;
+	private final long maxMicros;
+	
+	/**
+	 * Creates a new CommandSummary
+	 */
+	@ConstructorProperties({"command", "sentCount", "errorCount", "bytesWritten", "bytesRead", "meanMicros",
+		"percentile50Micros", "percentile90Micros", "percentile99Micros", "percentile999Micros", "maxMicros"})
+	public CommandSummary(String command, long sentCount, long errorCount, long bytesWritten, long bytesRead,
+			long meanMicros, long percentile50Micros, long percentile90Micros, long percentile99Micros,
+			long percentile999Micros, long maxMicros) {
+		this.command = command;
+		this.sentCount = sentCount;
+		this.errorCount = errorCount;
+		this.bytesWritten = bytesWritten;
+		this.bytesRead = bytesRead;
+		this.meanMicros = meanMicros;
+		this.percentile50Micros = percentile50Micros;
+		this.percentile90Micros = percentile90Micros;
+		this.percentile99Micros = percentile99Micros;
+		this.percentile999Micros = percentile999Micros;
+		this.maxMicros = maxMicros;
+	}
+
+	public String getCommand() {
+		return command;
+	}
+
+	public long getSentCount() {
+		return sentCount;
+	}
+
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	public long getMeanMicros() {
+		return meanMicros;
+	}
+
+	public long getPercentile50Micros() {
+		return percentile50Micros;
+	}
+
+	public long getPercentile90Micros() {
+		return percentile90Micros;
+	}
+
+	public long getPercentile99Micros() {
+		return percentile99Micros;
+	}
+
+	public long getPercentile999Micros() {
+		return percentile999Micros;
+	}
+
+	public long getMaxMicros() {
+		return maxMicros;
+	}
+}
@@ -0,0 +1,199 @@
+/**
+ * Helios, OpenSource Monitoring
+ * Brought to you by the Helios Development Group
+ *
+ * Copyright 2007, Helios Development Group and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org. 
+ *
+ */
+package redis.clients.jedis.netty.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import redis.clients.util.Pool;
+import redis.clients.util.PoolStats;
+
+/**
+ * <p>Title: PoolMonitor</p>
+ * <p>Description: JMX monitor for {@link Pool}s. It only reads the pool's {@link PoolStats}, which are always collected.
+ * The pool is held weakly, so a pool dropped without being destroyed can still be collected, and its monitor is
+ * unregistered by the next registration.</p> 
+ * <p><code>redis.clients.jedis.netty.jmx.PoolMonitor</code></p>
+ */
+public class PoolMonitor implements PoolMonitorMXBean {
+	/** A cache of registered pool monitors keyed by their registered JMX ObjectNames */
+	protected static final Map<ObjectName, PoolMonitor> instances = new ConcurrentHashMap<ObjectName, PoolMonitor>();
+	/** The platform MBeanServer */
+	protected static final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+	/** The pool to instrument */
+	protected final WeakReference<Pool<?>> pool;
+	/** The pool's stats */
+	protected final PoolStats stats;
+	
+	/**
+	 * Creates and registers a new PoolMonitor
+	 * @param pool The pool to instrument
+	 * @param objectName The JMX ObjectName of the pool MBean
+	 */
+	public static void registerMonitor(Pool<?> pool, CharSequence objectName) {
+		if(pool==null) throw new IllegalArgumentException("The passed pool was null", new Throwable());
+		ObjectName on = JMXHelper.objectName(objectName);
+		expunge();
+		if(!instances.containsKey(on)) {
+			synchronized(instances) {
+				if(!instances.containsKey(on)) {
+					PoolMonitor pm = new PoolMonitor(pool);
+					instances.put(on, pm);
+					if(!server.isRegistered(on)) {
+						try {
+							server.registerMBean(pm, on);
+						} catch (Exception ex) {
+							ex.printStackTrace(System.err);
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Unregisters a PoolMonitor
+	 * @param objectName The JMX ObjectName of the pool MBean
+	 */
+	public static void unregisterMonitor(CharSequence objectName) {
+		ObjectName on = JMXHelper.objectName(objectName);
+		if(instances.remove(on)!=null) {
+			try {
+				server.unregisterMBean(on);
+			} catch (Exception ex) {
+				// already gone
+			}
+		}
+	}
+	
+	/**
+	 * Unregisters the monitors of pools that were collected without being destroyed
+	 */
+	protected static void expunge() {
+		for(Map.Entry<ObjectName, PoolMonitor> entry: instances.entrySet()) {
+			if(entry.getValue().pool.get()==null) {
+				unregisterMonitor(entry.getKey().toString());
+			}
+		}
+	}
+	
+	/**
+	 * Creates a new PoolMonitor
+	 * @param pool The pool to instrument
+	 */
+	protected PoolMonitor(Pool<?> pool) {
+		this.pool = new WeakReference<Pool<?>>(pool);
+		this.stats = pool.getStats();
+	}
+	
+	public int getNumActive() {
+		Pool<?> p = pool.get();
+		return p==null ? 0 : p.getNumActive();
+	}
+	
+	public int getNumIdle() {
+		Pool<?> p = pool.get();
+		return p==null ? 0 : p.getNumIdle();
+	}
+	
+	public long getBorrowCount() {
+		return stats.getBorrowedCount();
+	}
+	
+	public long getReturnCount() {
+		return stats.getReturnedCount();
+	}
+	
+	public long getExhaustedCount() {
+		return stats.getExhaustedCount();
+	}
+	
+	public long getCreatedCount() {
+		return stats.getCreatedCount();
+	}
+	
+	public double getCreatedPerSecond() {
+		return perSecond(stats.getCreatedCount());
+	}
+	
+	public long getDestroyedCount() {
+		return stats.getDestroyedCount();
+	}
+	
+	public double getDestroyedPerSecond() {
+		return perSecond(stats.getDestroyedCount());
+	}
+	
+	public long getValidationCount() {
+		return stats.getValidationCount();
+	}
+	
+	public long getValidationFailureCount() {
+		return stats.getValidationFailureCount();
+	}
+	
+	public long getBorrowWaitMeanMicros() {
+		return stats.getBorrowWait().getMeanMicros();
+	}
+	
+	public long getBorrowWait50thMicros() {
+		return stats.getBorrowWait().getPercentileMicros(50);
+	}
+	
+	public long getBorrowWait90thMicros() {
+		return stats.getBorrowWait().getPercentileMicros(90);
+	}
+	
+	public long getBorrowWait99thMicros() {
+		return stats.getBorrowWait().getPercentileMicros(99);
+	}
+	
+	public long getBorrowWait999thMicros() {
+		return stats.getBorrowWait().getPercentileMicros(99.9);
+	}
+	
+	public long getBorrowWaitMaxMicros() {
+		return stats.getBorrowWait().getMaxMicros();
+	}
+	
+	public void reset() {
+		stats.reset();
+	}
+	
+	/**
+	 * Averages a count over the time since the stats started
+	 * @param count The count
+	 * @return the count per second
+	 */
+	private double perSecond(long count) {
+		long elapsed = System.currentTimeMillis() - stats.getSince();
+		return elapsed<=0 ? 0 : count * 1000d / elapsed;
+	}
+}
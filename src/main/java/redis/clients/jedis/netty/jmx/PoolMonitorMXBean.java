@@ -0,0 +1,142 @@
+/**
+ * Helios, OpenSource Monitoring
+ * Brought to you by the Helios Development Group
+ *
+ * Copyright 2007, Helios Development Group and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org. 
+ *
+ */
+package redis.clients.jedis.netty.jmx;
+
+import javax.management.MXBean;
+
+/**
+ * <p>Title: PoolMonitorMXBean</p>
+ * <p>Description: MXBean interface for the PoolMonitor. Rates are averaged since the pool was created or the counters last reset.</p> 
+ * <p><code>redis.clients.jedis.netty.jmx.PoolMonitorMXBean</code></p>
+ */
+@MXBean
+public interface PoolMonitorMXBean {
+	/**
+	 * Returns the number of resources currently borrowed
+	 * @return the number of resources currently borrowed
+	 */
+	public int getNumActive();
+	
+	/**
+	 * Returns the number of resources idle in the pool
+	 * @return the number of resources idle in the pool
+	 */
+	public int getNumIdle();
+	
+	/**
+	 * Returns the number of borrows
+	 * @return the number of borrows
+	 */
+	public long getBorrowCount();
+	
+	/**
+	 * Returns the number of resources given back, broken ones included
+	 * @return the number of resources given back
+	 */
+	public long getReturnCount();
+	
+	/**
+	 * Returns the number of borrows that failed because the pool was exhausted or the wait timed out
+	 * @return the number of exhaustion events
+	 */
+	public long getExhaustedCount();
+	
+	/**
+	 * Returns the number of resources created
+	 * @return the number of resources created
+	 */
+	public long getCreatedCount();
+	
+	/**
+	 * Returns the number of resources created per second
+	 * @return the creation rate
+	 */
+	public double getCreatedPerSecond();
+	
+	/**
+	 * Returns the number of resources destroyed
+	 * @return the number of resources destroyed
+	 */
+	public long getDestroyedCount();
+	
+	/**
+	 * Returns the number of resources destroyed per second
+	 * @return the destruction rate
+	 */
+	public double getDestroyedPerSecond();
+	
+	/**
+	 * Returns the number of validations, on borrow, on return or in the background
+	 * @return the number of validations
+	 */
+	public long getValidationCount();
+	
+	/**
+	 * Returns the number of failed validations
+	 * @return the number of failed validations
+	 */
+	public long getValidationFailureCount();
+	
+	/**
+	 * Returns the mean time a borrow waited for a resource, in microseconds
+	 * @return the mean borrow wait time in us.
+	 */
+	public long getBorrowWaitMeanMicros();
+	
+	/**
+	 * Returns the median time a borrow waited for a resource, in microseconds
+	 * @return the median borrow wait time in us.
+	 */
+	public long getBorrowWait50thMicros();
+	
+	/**
+	 * Returns the 90th percentile of the time a borrow waited for a resource, in microseconds
+	 * @return the 90th percentile borrow wait time in us.
+	 */
+	public long getBorrowWait90thMicros();
+	
+	/**
+	 * Returns the 99th percentile of the time a borrow waited for a resource, in microseconds
+	 * @return the 99th percentile borrow wait time in us.
+	 */
+	public long getBorrowWait99thMicros();
+	
+	/**
+	 * Returns the 99.9th percentile of the time a borrow waited for a resource, in microseconds
+	 * @return the 99.9th percentile borrow wait time in us.
+	 */
+	public long getBorrowWait999thMicros();
+	
+	/**
+	 * Returns the longest time a borrow waited for a resource, in microseconds
+	 * @return the maximum borrow wait time in us.
+	 */
+	public long getBorrowWaitMaxMicros();
+	
+	/**
+	 * Resets the counters and the borrow wait histogram
+	 */
+	public void reset();
+}
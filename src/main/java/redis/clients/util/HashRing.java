@@ -0,0 +1,53 @@
+package redis.clients.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Places 160 virtual nodes per unit of weight of each shard on a ring of
+ * hashes; a key belongs to the shard of the first node at or after its hash.
+ */
+public class HashRing implements ShardingStrategy {
+    public Selector select(List<? extends ShardInfo<?>> shards, Hashing algo) {
+        TreeMap<Long, Integer> nodes = new TreeMap<Long, Integer>();
+        for (int i = 0; i != shards.size(); ++i) {
+            final ShardInfo<?> shardInfo = shards.get(i);
+            if (shardInfo.getName() == null)
+                for (int n = 0; n < 160 * shardInfo.getWeight(); n++) {
+                    nodes.put(algo.hash("SHARD-" + i + "-NODE-" + n), i);
+                }
+            else
+                for (int n = 0; n < 160 * shardInfo.getWeight(); n++) {
+                    nodes.put(algo.hash(shardInfo.getName() + "*"
+                            + shardInfo.getWeight() + n), i);
+                }
+        }
+
+        final long[] ring = new long[nodes.size()];
+        final int[] ringShards = new int[nodes.size()];
+        int n = 0;
+        for (Map.Entry<Long, Integer> node : nodes.entrySet()) {
+            ring[n] = node.getKey();
+            ringShards[n] = node.getValue();
+            n++;
+        }
+        return new Selector() {
+            public int getShard(long hash) {
+                int i = Arrays.binarySearch(ring, hash);
+                if (i < 0) {
+                    i = -i - 1;
+                    if (i == ring.length) {
+                        i = 0;
+                    }
+                }
+                return ringShards[i];
+            }
+
+            public int[] getNodes() {
+                return ringShards.clone();
+            }
+        };
+    }
+}
@@ -5,14 +5,20 @@ import java.security.NoSuchAlgorithmException;
 
 public interface Hashing {
     public static final Hashing MURMUR_HASH = new MurmurHash();
+    public static final Hashing MURMUR3_HASH = new Murmur3Hash();
+    public static final Hashing XXHASH_64 = new XXHash64();
     public ThreadLocal<MessageDigest> md5Holder = new ThreadLocal<MessageDigest>();
 
-    public static final Hashing MD5 = new Hashing() {
+    public static final Hashing MD5 = new RangeHashing() {
         public long hash(String key) {
             return hash(SafeEncoder.encode(key));
         }
 
         public long hash(byte[] key) {
+            return hash(key, 0, key.length);
+        }
+
+        public long hash(byte[] key, int offset, int length) {
             try {
                 if (md5Holder.get() == null) {
                     md5Holder.set(MessageDigest.getInstance("MD5"));
@@ -23,7 +29,7 @@ public interface Hashing {
             MessageDigest md5 = md5Holder.get();
 
             md5.reset();
-            md5.update(key);
+            md5.update(key, offset, length);
             byte[] bKey = md5.digest();
             long res = ((long) (bKey[3] & 0xFF) << 24)
                     | ((long) (bKey[2] & 0xFF) << 16)
@@ -0,0 +1,51 @@
+package redis.clients.util;
+
+import java.util.List;
+
+/**
+ * Jump consistent hash, from Lamping and Veach, "A Fast, Minimal Memory,
+ * Consistent Hash Algorithm". Going from n to n + 1 buckets moves 1/(n + 1)
+ * of the keys, all to the new bucket.
+ * 
+ * A shard gets as many buckets as its weight. Buckets are numbered in the
+ * order of the shard list, so shards must only be appended to it, or removed
+ * from its end: any other change moves keys between the remaining shards.
+ */
+public class JumpHash implements ShardingStrategy {
+    public Selector select(List<? extends ShardInfo<?>> shards, Hashing algo) {
+        int buckets = 0;
+        for (ShardInfo<?> shardInfo : shards) {
+            buckets += shardInfo.getWeight();
+        }
+        final int[] bucketShards = new int[buckets];
+        int b = 0;
+        for (int i = 0; i != shards.size(); ++i) {
+            for (int n = 0; n < shards.get(i).getWeight(); n++) {
+                bucketShards[b++] = i;
+            }
+        }
+        return new Selector() {
+            public int getShard(long hash) {
+                return bucketShards[bucket(hash, bucketShards.length)];
+            }
+
+            public int[] getNodes() {
+                return bucketShards.clone();
+            }
+        };
+    }
+
+    /**
+     * @return the bucket of key, between 0 and buckets - 1
+     */
+    public static int bucket(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+}
@@ -0,0 +1,85 @@
+package redis.clients.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations, cheap enough to record every borrow of
+ * a busy pool.
+ * <p>
+ * Durations are kept in microseconds, in power of two buckets: bucket n
+ * counts the durations below 2^n us and at least 2^(n-1) us. Recording is an
+ * atomic increment of one bucket, and percentiles are reported as the upper
+ * bound of the bucket they fall in, so they are accurate within a factor of
+ * two.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void record(final long nanos) {
+        final long micros = nanos / 1000;
+        final int bucket = Math.min(BUCKETS - 1,
+                64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        long max;
+        while (micros > (max = maxMicros.get())
+                && !maxMicros.compareAndSet(max, micros)) {
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMeanMicros() {
+        final long n = count.get();
+        return n == 0 ? 0 : totalMicros.get() / n;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * @param percentile
+     *            between 0 and 100
+     * @return the duration, in microseconds, below which the given
+     *         percentage of the recorded durations fall
+     */
+    public long getPercentileMicros(final double percentile) {
+        final long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        final long rank = (long) Math.ceil(n * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return i == 0 ? 0 : Math.min(1L << i, maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+}
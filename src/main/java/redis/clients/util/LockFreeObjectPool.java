@@ -0,0 +1,368 @@
+package redis.clients.util;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.pool.ObjectPool;
+import org.apache.commons.pool.PoolableObjectFactory;
+import org.apache.commons.pool.impl.GenericObjectPool;
+
+/**
+ * An ObjectPool whose borrow and return never take a lock.
+ * <p>
+ * Idle objects are kept on a Treiber stack, so the most recently returned
+ * ones, whose connections are the warmest, are handed out first. On top of
+ * that each thread remembers the last object it returned and tries to get
+ * that one back first, which usually succeeds without touching the shared
+ * stack at all. Objects are claimed with a compare-and-set on their state,
+ * so an object reachable both from a thread and from the stack is handed out
+ * only once.
+ * <p>
+ * maxActive, maxIdle, maxWait, whenExhaustedAction, testOnBorrow and
+ * testOnReturn of the GenericObjectPool.Config are honoured. Waiting for an
+ * object when the pool is exhausted parks the thread on a Semaphore, whose
+ * uncontended acquire is a single compare-and-set. Idle object eviction is
+ * not supported, but {@link #validateIdle()} validates the idle objects.
+ */
+public class LockFreeObjectPool implements ObjectPool {
+    private static final int IDLE = 0;
+    private static final int BORROWED = 1;
+    private static final int INVALID = 2;
+
+    private final AtomicReference<Node> top = new AtomicReference<Node>();
+    /** Keyed by identity, so pooled objects that are equal() don't collide */
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<Key, Entry>();
+    private final ThreadLocal<Entry> affinity = new ThreadLocal<Entry>();
+    private final AtomicInteger idle = new AtomicInteger();
+    private final Semaphore permits;
+    private final int maxIdle;
+    private final long maxWait;
+    private final byte whenExhaustedAction;
+    private final boolean testOnBorrow;
+    private final boolean testOnReturn;
+    private volatile PoolableObjectFactory factory;
+    private volatile boolean closed;
+
+    public LockFreeObjectPool(final PoolableObjectFactory factory,
+            final GenericObjectPool.Config config) {
+        this.factory = factory;
+        this.permits = config.maxActive < 0 ? null : new Semaphore(
+                config.maxActive);
+        this.maxIdle = config.maxIdle;
+        this.maxWait = config.maxWait;
+        this.whenExhaustedAction = config.whenExhaustedAction;
+        this.testOnBorrow = config.testOnBorrow;
+        this.testOnReturn = config.testOnReturn;
+    }
+
+    public Object borrowObject() throws Exception {
+        assertOpen();
+        final boolean permit = acquirePermit();
+        try {
+            while (true) {
+                Entry entry = claimIdle();
+                final boolean created = entry == null;
+                if (created) {
+                    entry = new Entry(factory.makeObject(), BORROWED);
+                    entries.put(new Key(entry.object), entry);
+                }
+                entry.permit = permit;
+                try {
+                    factory.activateObject(entry.object);
+                    if (testOnBorrow && !factory.validateObject(entry.object)) {
+                        throw new NoSuchElementException(
+                                "Could not validate object");
+                    }
+                    return entry.object;
+                } catch (Exception e) {
+                    destroy(entry);
+                    if (created) {
+                        throw e;
+                    }
+                    // a stale idle object, try the next one
+                }
+            }
+        } catch (Exception e) {
+            if (permit) {
+                permits.release();
+            }
+            throw e;
+        }
+    }
+
+    public void returnObject(final Object obj) throws Exception {
+        final Entry entry = lookup(obj);
+        final boolean permit = entry.permit;
+        entry.permit = false;
+        try {
+            if (testOnReturn && !factory.validateObject(obj)) {
+                destroy(entry);
+                return;
+            }
+            try {
+                factory.passivateObject(obj);
+            } catch (Exception e) {
+                destroy(entry);
+                return;
+            }
+            if (closed || (maxIdle >= 0 && idle.get() >= maxIdle)) {
+                destroy(entry);
+                return;
+            }
+            idle.incrementAndGet();
+            entry.state.set(IDLE);
+            affinity.set(entry);
+            if (entry.queued.compareAndSet(false, true)) {
+                push(entry);
+            }
+            if (closed) {
+                // lost a race with close(), don't leave it behind
+                clear();
+            }
+        } finally {
+            if (permit) {
+                permits.release();
+            }
+        }
+    }
+
+    public void invalidateObject(final Object obj) throws Exception {
+        final Entry entry = lookup(obj);
+        final boolean permit = entry.permit;
+        entry.permit = false;
+        destroy(entry);
+        if (permit) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Creates an object and adds it to the idle ones, for warming up the
+     * pool.
+     */
+    public void addObject() throws Exception {
+        assertOpen();
+        final Entry entry = new Entry(factory.makeObject(), IDLE);
+        factory.passivateObject(entry.object);
+        entries.put(new Key(entry.object), entry);
+        idle.incrementAndGet();
+        entry.queued.set(true);
+        push(entry);
+    }
+
+    public int getNumIdle() {
+        return Math.max(0, idle.get());
+    }
+
+    public int getNumActive() {
+        return Math.max(0, entries.size() - idle.get());
+    }
+
+    /**
+     * Destroys the idle objects.
+     */
+    public void clear() {
+        Node node;
+        while ((node = top.getAndSet(null)) != null) {
+            for (; node != null; node = node.next) {
+                final Entry entry = node.entry;
+                entry.queued.set(false);
+                if (entry.state.compareAndSet(IDLE, INVALID)) {
+                    idle.decrementAndGet();
+                    destroy(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Validates the idle objects one at a time where they are, destroying
+     * the ones that fail. Only the object being validated is unavailable to
+     * borrowers meanwhile.
+     */
+    public void validateIdle() {
+        for (Node node = top.get(); node != null; node = node.next) {
+            final Entry entry = node.entry;
+            if (!entry.state.compareAndSet(IDLE, BORROWED)) {
+                continue;
+            }
+            idle.decrementAndGet();
+            boolean valid;
+            try {
+                valid = factory.validateObject(entry.object);
+            } catch (Exception e) {
+                valid = false;
+            }
+            if (!valid) {
+                destroy(entry);
+                continue;
+            }
+            idle.incrementAndGet();
+            entry.state.set(IDLE);
+            // a borrower may have popped it meanwhile and dropped the node
+            if (entry.queued.compareAndSet(false, true)) {
+                push(entry);
+            }
+            if (closed) {
+                clear();
+                return;
+            }
+        }
+    }
+
+    public void close() throws Exception {
+        closed = true;
+        clear();
+    }
+
+    /**
+     * @deprecated the factory is meant to be given to the constructor, as
+     *             with GenericObjectPool
+     */
+    @Deprecated
+    public void setFactory(final PoolableObjectFactory factory) {
+        if (!entries.isEmpty()) {
+            throw new IllegalStateException(
+                    "Objects are already active, the factory can't change");
+        }
+        this.factory = factory;
+    }
+
+    private void assertOpen() {
+        if (closed) {
+            throw new IllegalStateException("Pool not open");
+        }
+    }
+
+    /**
+     * @return whether a permit was taken, which has to be given back when
+     *         the object is returned
+     */
+    private boolean acquirePermit() {
+        if (permits == null) {
+            return false;
+        }
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (whenExhaustedAction == GenericObjectPool.WHEN_EXHAUSTED_GROW) {
+            return false;
+        }
+        if (whenExhaustedAction == GenericObjectPool.WHEN_EXHAUSTED_FAIL) {
+            throw new NoSuchElementException("Pool exhausted");
+        }
+        try {
+            if (maxWait <= 0) {
+                permits.acquire();
+                return true;
+            }
+            if (permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new NoSuchElementException("Timeout waiting for idle object");
+    }
+
+    private Entry claimIdle() {
+        Entry entry = affinity.get();
+        if (entry != null && entry.state.compareAndSet(IDLE, BORROWED)) {
+            idle.decrementAndGet();
+            return entry;
+        }
+        while (true) {
+            final Node node = top.get();
+            if (node == null) {
+                return null;
+            }
+            if (!top.compareAndSet(node, node.next)) {
+                continue;
+            }
+            entry = node.entry;
+            // clear before claiming, so that a concurrent return either
+            // sees the entry idle here or finds it off the stack and pushes
+            entry.queued.set(false);
+            if (entry.state.compareAndSet(IDLE, BORROWED)) {
+                idle.decrementAndGet();
+                return entry;
+            }
+        }
+    }
+
+    private void push(final Entry entry) {
+        final Node node = new Node(entry);
+        do {
+            node.next = top.get();
+        } while (!top.compareAndSet(node.next, node));
+    }
+
+    private Entry lookup(final Object obj) {
+        Entry entry = affinity.get();
+        if (entry != null && entry.object == obj) {
+            return entry;
+        }
+        final Key key = new Key(obj);
+        entry = entries.get(key);
+        if (entry == null) {
+            // not one of ours, adopt it like GenericObjectPool does
+            entry = new Entry(obj, BORROWED);
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private void destroy(final Entry entry) {
+        entry.state.set(INVALID);
+        entries.remove(new Key(entry.object), entry);
+        try {
+            factory.destroyObject(entry.object);
+        } catch (Exception e) {
+        }
+    }
+
+    private static class Entry {
+        final Object object;
+        final AtomicInteger state;
+        /** Whether a node for this entry is on the stack */
+        final AtomicBoolean queued = new AtomicBoolean();
+        volatile boolean permit;
+
+        Entry(final Object object, final int state) {
+            this.object = object;
+            this.state = new AtomicInteger(state);
+        }
+    }
+
+    private static class Key {
+        final Object object;
+
+        Key(final Object object) {
+            this.object = object;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(object);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Key && ((Key) other).object == object;
+        }
+    }
+
+    private static class Node {
+        final Entry entry;
+        Node next;
+
+        Node(final Entry entry) {
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package redis.clients.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The first 64 bits of MurmurHash3 x64 128, from Austin Appleby's
+ * https://github.com/aappleby/smhasher, with a seed of 0.
+ * 
+ * Input is read the same way as by XXHash64.
+ */
+public class Murmur3Hash implements RangeHashing {
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    public long hash(String key) {
+        return hash(SafeEncoder.encode(key));
+    }
+
+    public long hash(byte[] key) {
+        return hash(key, 0, key.length, 0);
+    }
+
+    public long hash(byte[] key, int offset, int length) {
+        return hash(key, offset, length, 0);
+    }
+
+    /**
+     * Hashes length bytes of array from offset.
+     */
+    public static long hash(byte[] array, int offset, int length, long seed) {
+        final ByteBuffer data = ByteBuffer.wrap(array).order(
+                ByteOrder.LITTLE_ENDIAN);
+        long h1 = seed;
+        long h2 = seed;
+        final int blocksEnd = offset + (length & ~15);
+        int i = offset;
+
+        for (; i < blocksEnd; i += 16) {
+            h1 ^= mixK1(data.getLong(i));
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(data.getLong(i + 8));
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        final int remaining = offset + length - i;
+        long k1 = 0;
+        long k2 = 0;
+        for (int n = remaining - 1; n >= 8; n--) {
+            k2 = k2 << 8 | (data.get(i + n) & 0xffL);
+        }
+        for (int n = Math.min(remaining, 8) - 1; n >= 0; n--) {
+            k1 = k1 << 8 | (data.get(i + n) & 0xffL);
+        }
+        if (remaining > 8) {
+            h2 ^= mixK2(k2);
+        }
+        if (remaining > 0) {
+            h1 ^= mixK1(k1);
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        return h1;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
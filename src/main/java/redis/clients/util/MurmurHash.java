@@ -29,7 +29,7 @@ import java.nio.ByteOrder;
  * Andrzej Bialecki (ab at getopt org).
  * </p>
  */
-public class MurmurHash implements Hashing {
+public class MurmurHash implements RangeHashing {
     /**
      * Hashes bytes in an array.
      * 
@@ -113,8 +113,48 @@ public class MurmurHash implements Hashing {
         return hash64A(ByteBuffer.wrap(data), seed);
     }
 
+    /**
+     * Same as hash64A(ByteBuffer.wrap(data, offset, length), seed), reading
+     * the array directly so that hashing allocates nothing.
+     */
     public static long hash64A(byte[] data, int offset, int length, int seed) {
-        return hash64A(ByteBuffer.wrap(data, offset, length), seed);
+        long m = 0xc6a4a7935bd1e995L;
+        int r = 47;
+
+        long h = seed ^ (length * m);
+
+        final int end = offset + (length & ~7);
+        int i = offset;
+        long k;
+        for (; i < end; i += 8) {
+            k = (data[i] & 0xffL) | (data[i + 1] & 0xffL) << 8
+                    | (data[i + 2] & 0xffL) << 16 | (data[i + 3] & 0xffL) << 24
+                    | (data[i + 4] & 0xffL) << 32 | (data[i + 5] & 0xffL) << 40
+                    | (data[i + 6] & 0xffL) << 48 | (data[i + 7] & 0xffL) << 56;
+
+            k *= m;
+            k ^= k >>> r;
+            k *= m;
+
+            h ^= k;
+            h *= m;
+        }
+
+        final int remaining = offset + length - i;
+        if (remaining > 0) {
+            k = 0;
+            for (int n = 0; n < remaining; n++) {
+                k |= (data[i + n] & 0xffL) << (8 * n);
+            }
+            h ^= k;
+            h *= m;
+        }
+
+        h ^= h >>> r;
+        h *= m;
+        h ^= h >>> r;
+
+        return h;
     }
 
     public static long hash64A(ByteBuffer buf, int seed) {
@@ -157,7 +197,11 @@ public class MurmurHash implements Hashing {
     }
 
     public long hash(byte[] key) {
-        return hash64A(key, 0x1234ABCD);
+        return hash64A(key, 0, key.length, 0x1234ABCD);
+    }
+
+    public long hash(byte[] key, int offset, int length) {
+        return hash64A(key, offset, length, 0x1234ABCD);
     }
 
     public long hash(String key) {
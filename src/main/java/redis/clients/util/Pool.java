@@ -1,5 +1,10 @@
 package redis.clients.util;
 
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.pool.ObjectPool;
 import org.apache.commons.pool.PoolableObjectFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
 
@@ -7,29 +12,260 @@ import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.exceptions.JedisException;
 
 public abstract class Pool<T> {
-    private final GenericObjectPool internalPool;
+    /**
+     * How often, at most, slots of dead threads are looked for when a thread
+     * finds its own slot empty.
+     */
+    private static final long RECLAIM_INTERVAL_MILLIS = 1000;
+
+    /**
+     * How long, at most, an exhausted borrow waits before looking at the
+     * slots of other threads again.
+     */
+    private static final long WAIT_SLICE_MILLIS = 100;
 
+    private final ObjectPool internalPool;
+    private final PoolableObjectFactory factory;
+    private final ThreadAffinity affinity;
+    private final PoolValidator validator;
+    private final PoolStats stats = new PoolStats();
+    /**
+     * Whether resources taken from affinity slots are validated every time,
+     * rather than by age
+     */
+    private final boolean testParked;
+    /** How long a resource may stay in a slot before it is validated again */
+    private final long parkedValidationMillis;
+    /** Whether an exhausted borrow waits, with affinity on */
+    private final boolean blockWhenExhausted;
+    private final long maxWait;
+    private final int maxActive;
+    /** Notified when a resource is given back while borrows are waiting */
+    private final Object vacancy = new Object();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private volatile long nextReclaim;
+    private volatile boolean destroyed;
+
+    /**
+     * Backs the pool with a {@link LockFreeObjectPool} when the config is a
+     * {@link PoolConfig} asking for it, with a commons-pool GenericObjectPool
+     * otherwise.
+     */
     public Pool(final GenericObjectPool.Config poolConfig,
             PoolableObjectFactory factory) {
-        this.internalPool = new GenericObjectPool(factory, poolConfig);
+        factory = stats.wrap(factory);
+        final PoolConfig extended = poolConfig instanceof PoolConfig
+                ? (PoolConfig) poolConfig : null;
+        final long validationMillis = extended != null ? extended
+                .getBackgroundValidationMillis() : 0;
+        final boolean threadAffinity = extended != null
+                && extended.isThreadAffinity();
+        // background validation turns testOnBorrow off, leaving the age check
+        this.testParked = validationMillis <= 0 && poolConfig.testOnBorrow;
+        this.parkedValidationMillis = validationMillis;
+        this.blockWhenExhausted = poolConfig.whenExhaustedAction == GenericObjectPool.WHEN_EXHAUSTED_BLOCK;
+        this.maxWait = poolConfig.maxWait;
+        this.maxActive = poolConfig.maxActive;
+
+        GenericObjectPool.Config config = poolConfig;
+        if (validationMillis > 0 || (threadAffinity && blockWhenExhausted)) {
+            config = copyOf(poolConfig);
+            if (validationMillis > 0) {
+                // idle objects are validated in the background instead, by
+                // evict() for a GenericObjectPool
+                config.testOnBorrow = false;
+                config.testWhileIdle = true;
+                config.numTestsPerEvictionRun = -1;
+            }
+            if (threadAffinity) {
+                // waits in getResource(), which can take parked resources
+                config.whenExhaustedAction = GenericObjectPool.WHEN_EXHAUSTED_FAIL;
+            }
+        }
+
+        if (validationMillis > 0) {
+            this.validator = new PoolValidator(config.minIdle,
+                    config.maxActive, validationMillis);
+            factory = validator.wrap(factory);
+        } else {
+            this.validator = null;
+        }
+        if (extended != null && extended.isLockFree()) {
+            this.internalPool = new LockFreeObjectPool(factory, config);
+        } else {
+            this.internalPool = new GenericObjectPool(factory, config);
+        }
+        if (threadAffinity) {
+            this.affinity = new ThreadAffinity();
+        } else {
+            this.affinity = null;
+        }
+        this.factory = factory;
+        if (validator != null) {
+            validator.start(internalPool);
+        }
+    }
+
+    public int getNumActive() {
+        return internalPool.getNumActive();
+    }
+
+    public int getNumIdle() {
+        return internalPool.getNumIdle();
+    }
+
+    /**
+     * @return how many idle resources were validated in the background, 0
+     *         when background validation is off
+     */
+    public long getValidationCount() {
+        return validator == null ? 0 : validator.getValidationCount();
+    }
+
+    /**
+     * @return how many idle resources failed background validation and
+     *         were destroyed
+     */
+    public long getValidationFailureCount() {
+        return validator == null ? 0 : validator.getValidationFailureCount();
+    }
+
+    public PoolStats getStats() {
+        return stats;
     }
 
     @SuppressWarnings("unchecked")
     public T getResource() {
+        if (affinity != null) {
+            final Object resource = checkParked(affinity.take());
+            if (resource != null) {
+                stats.borrowed(0);
+                return (T) resource;
+            }
+            reclaimAbandoned();
+        }
+        final long start = System.nanoTime();
         try {
-            return (T) internalPool.borrowObject();
+            final T resource = (T) (affinity == null ? internalPool
+                    .borrowObject() : borrowOrSteal());
+            stats.borrowed(System.nanoTime() - start);
+            return resource;
+        } catch (NoSuchElementException e) {
+            stats.exhausted();
+            throw new JedisConnectionException(
+                    "Could not get a resource from the pool", e);
         } catch (Exception e) {
             throw new JedisConnectionException(
                     "Could not get a resource from the pool", e);
         }
     }
-        
+
+    /**
+     * Borrows from the underlying pool, which never blocks with affinity on.
+     * When it is exhausted, takes a resource parked in the slot of another
+     * thread instead, or waits for one to be given back.
+     */
+    private Object borrowOrSteal() throws Exception {
+        final long deadline = System.currentTimeMillis() + maxWait;
+        boolean waiting = false;
+        try {
+            while (true) {
+                try {
+                    return internalPool.borrowObject();
+                } catch (NoSuchElementException e) {
+                    if (maxActive < 0 || internalPool.getNumActive() < maxActive) {
+                        // not exhausted, a new object failed validation
+                        throw e;
+                    }
+                    ThreadAffinity.Parked parked;
+                    while ((parked = affinity.steal()) != null) {
+                        final Object resource = checkParked(parked);
+                        if (resource != null) {
+                            return resource;
+                        }
+                    }
+                    if (!blockWhenExhausted) {
+                        throw e;
+                    }
+                    if (!waiting) {
+                        // from now on returns go to the pool, look again
+                        waiters.incrementAndGet();
+                        waiting = true;
+                        continue;
+                    }
+                    long wait = WAIT_SLICE_MILLIS;
+                    if (maxWait > 0) {
+                        final long remaining = deadline
+                                - System.currentTimeMillis();
+                        if (remaining <= 0) {
+                            throw new NoSuchElementException(
+                                    "Timeout waiting for idle object");
+                        }
+                        wait = Math.min(wait, remaining);
+                    }
+                    try {
+                        synchronized (vacancy) {
+                            vacancy.wait(wait);
+                        }
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            if (waiting) {
+                waiters.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Activates a resource taken from a slot, as the pool does on every
+     * borrow, and validates it when testOnBorrow is set without background
+     * validation, or when it sat there longer than the background validation
+     * interval, since the validator only sees idle resources.
+     * 
+     * @return the resource, or null if there was none or it was invalid
+     */
+    private Object checkParked(final ThreadAffinity.Parked parked) {
+        if (parked == null) {
+            return null;
+        }
+        final boolean validate = testParked
+                || (parkedValidationMillis > 0 && System.currentTimeMillis()
+                        - parked.since >= parkedValidationMillis);
+        try {
+            factory.activateObject(parked.resource);
+            if (!validate || factory.validateObject(parked.resource)) {
+                return parked.resource;
+            }
+        } catch (Exception e) {
+        }
+        try {
+            internalPool.invalidateObject(parked.resource);
+        } catch (Exception e) {
+        }
+        return null;
+    }
+
     public void returnResourceObject(final Object resource) {
+        stats.returned();
+        if (affinity != null && !destroyed && waiters.get() == 0
+                && affinity.offer(resource)) {
+            if (destroyed) {
+                // raced with destroy(), which may have missed it
+                returnAll(affinity.drain());
+            }
+            return;
+        }
         try {
             internalPool.returnObject(resource);
         } catch (Exception e) {
             throw new JedisException(
                     "Could not return the resource to the pool", e);
+        } finally {
+            signalWaiters();
         }
     }
     
@@ -42,19 +278,74 @@ public abstract class Pool<T> {
     }
 
     protected void returnBrokenResourceObject(final Object resource) {
+        stats.returned();
         try {
             internalPool.invalidateObject(resource);
         } catch (Exception e) {
             throw new JedisException(
                     "Could not return the resource to the pool", e);
+        } finally {
+            signalWaiters();
+        }
+    }
+
+    private void signalWaiters() {
+        if (waiters.get() > 0) {
+            synchronized (vacancy) {
+                vacancy.notifyAll();
+            }
         }
     }
 
     public void destroy() {
+        destroyed = true;
+        if (validator != null) {
+            validator.stop();
+        }
+        if (affinity != null) {
+            returnAll(affinity.drain());
+        }
         try {
             internalPool.close();
         } catch (Exception e) {
             throw new JedisException("Could not destroy the pool", e);
         }
     }
-}
\ No newline at end of file
+
+    private void reclaimAbandoned() {
+        final long now = System.currentTimeMillis();
+        if (now < nextReclaim) {
+            return;
+        }
+        nextReclaim = now + RECLAIM_INTERVAL_MILLIS;
+        returnAll(affinity.reclaimAbandoned());
+    }
+
+    private void returnAll(final List<Object> resources) {
+        for (final Object resource : resources) {
+            try {
+                internalPool.returnObject(resource);
+            } catch (Exception e) {
+            }
+        }
+    }
+
+    private static GenericObjectPool.Config copyOf(
+            final GenericObjectPool.Config poolConfig) {
+        final GenericObjectPool.Config config = new GenericObjectPool.Config();
+        config.maxIdle = poolConfig.maxIdle;
+        config.minIdle = poolConfig.minIdle;
+        config.maxActive = poolConfig.maxActive;
+        config.maxWait = poolConfig.maxWait;
+        config.whenExhaustedAction = poolConfig.whenExhaustedAction;
+        config.testOnBorrow = poolConfig.testOnBorrow;
+        config.testOnReturn = poolConfig.testOnReturn;
+        config.testWhileIdle = poolConfig.testWhileIdle;
+        config.timeBetweenEvictionRunsMillis = poolConfig.timeBetweenEvictionRunsMillis;
+        config.numTestsPerEvictionRun = poolConfig.numTestsPerEvictionRun;
+        config.minEvictableIdleTimeMillis = poolConfig.minEvictableIdleTimeMillis;
+        config.softMinEvictableIdleTimeMillis = poolConfig.softMinEvictableIdleTimeMillis;
+        config.lifo = poolConfig.lifo;
+        return config;
+    }
+}
@@ -0,0 +1,57 @@
+package redis.clients.util;
+
+import org.apache.commons.pool.impl.GenericObjectPool;
+
+/**
+ * GenericObjectPool.Config with the settings {@link Pool} adds on top of
+ * commons-pool. A plain Config leaves all of them off.
+ */
+public class PoolConfig extends GenericObjectPool.Config {
+    private boolean lockFree = false;
+    private boolean threadAffinity = false;
+    private long backgroundValidationMillis = 0;
+
+    public boolean isLockFree() {
+        return lockFree;
+    }
+
+    /**
+     * Uses a {@link LockFreeObjectPool} instead of GenericObjectPool, which
+     * synchronizes every borrow and return. The eviction settings are
+     * ignored by it.
+     */
+    public void setLockFree(boolean lockFree) {
+        this.lockFree = lockFree;
+    }
+
+    public boolean isThreadAffinity() {
+        return threadAffinity;
+    }
+
+    /**
+     * Lets each thread keep the last resource it returned and get it back on
+     * its next borrow without going to the pool at all. A kept resource
+     * still counts as active; when the pool is exhausted, a borrow takes one
+     * kept by another thread before waiting. Kept resources are activated
+     * by the factory on borrow like any other. They are validated when kept
+     * longer than the background validation interval, or on every borrow
+     * when testOnBorrow is set without background validation.
+     */
+    public void setThreadAffinity(boolean threadAffinity) {
+        this.threadAffinity = threadAffinity;
+    }
+
+    public long getBackgroundValidationMillis() {
+        return backgroundValidationMillis;
+    }
+
+    /**
+     * When positive, the pool creates minIdle connections up front and a
+     * background thread validates the idle ones at this interval, keeping
+     * minIdle of them around. testOnBorrow is then turned off, so borrows
+     * neither PING nor connect as long as idle connections are left.
+     */
+    public void setBackgroundValidationMillis(long backgroundValidationMillis) {
+        this.backgroundValidationMillis = backgroundValidationMillis;
+    }
+}
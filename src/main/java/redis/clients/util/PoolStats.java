@@ -0,0 +1,126 @@
+package redis.clients.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.pool.PoolableObjectFactory;
+
+/**
+ * Counters and borrow wait times of a {@link Pool}. Creations, destructions
+ * and validations are counted by wrapping the pool's factory, so they are
+ * seen whatever pool implementation is underneath.
+ */
+public class PoolStats {
+    private final LatencyHistogram borrowWait = new LatencyHistogram();
+    private final AtomicLong borrowed = new AtomicLong();
+    private final AtomicLong returned = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong validations = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private volatile long since = System.currentTimeMillis();
+
+    /**
+     * @return a factory that delegates to the given one, counting what it
+     *         does here
+     */
+    public PoolableObjectFactory wrap(final PoolableObjectFactory factory) {
+        return new PoolableObjectFactory() {
+            public Object makeObject() throws Exception {
+                final Object obj = factory.makeObject();
+                created.incrementAndGet();
+                return obj;
+            }
+
+            public void destroyObject(Object obj) throws Exception {
+                destroyed.incrementAndGet();
+                factory.destroyObject(obj);
+            }
+
+            public boolean validateObject(Object obj) {
+                validations.incrementAndGet();
+                final boolean valid = factory.validateObject(obj);
+                if (!valid) {
+                    validationFailures.incrementAndGet();
+                }
+                return valid;
+            }
+
+            public void activateObject(Object obj) throws Exception {
+                factory.activateObject(obj);
+            }
+
+            public void passivateObject(Object obj) throws Exception {
+                factory.passivateObject(obj);
+            }
+        };
+    }
+
+    void borrowed(final long waitNanos) {
+        borrowed.incrementAndGet();
+        borrowWait.record(waitNanos);
+    }
+
+    void returned() {
+        returned.incrementAndGet();
+    }
+
+    void exhausted() {
+        exhausted.incrementAndGet();
+    }
+
+    public LatencyHistogram getBorrowWait() {
+        return borrowWait;
+    }
+
+    public long getBorrowedCount() {
+        return borrowed.get();
+    }
+
+    public long getReturnedCount() {
+        return returned.get();
+    }
+
+    /**
+     * @return how many borrows failed because the pool was exhausted or the
+     *         wait for a resource timed out
+     */
+    public long getExhaustedCount() {
+        return exhausted.get();
+    }
+
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    public long getDestroyedCount() {
+        return destroyed.get();
+    }
+
+    public long getValidationCount() {
+        return validations.get();
+    }
+
+    public long getValidationFailureCount() {
+        return validationFailures.get();
+    }
+
+    /**
+     * @return when the counters started, or were last reset
+     */
+    public long getSince() {
+        return since;
+    }
+
+    public void reset() {
+        borrowWait.reset();
+        borrowed.set(0);
+        returned.set(0);
+        exhausted.set(0);
+        created.set(0);
+        destroyed.set(0);
+        validations.set(0);
+        validationFailures.set(0);
+        since = System.currentTimeMillis();
+    }
+}
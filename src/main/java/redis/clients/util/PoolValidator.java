@@ -0,0 +1,153 @@
+package redis.clients.util;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.pool.ObjectPool;
+import org.apache.commons.pool.PoolableObjectFactory;
+import org.apache.commons.pool.impl.GenericObjectPool;
+
+/**
+ * Keeps a pool warm and its idle objects validated from a background
+ * thread, so that borrowers don't pay for either.
+ * <p>
+ * On start it creates minIdle objects. Then, on every run, it validates the
+ * objects that are idle at that moment, destroys the ones that fail, and
+ * tops the pool back up to minIdle. Idle objects are validated one at a
+ * time where they are, so the others stay available to borrowers: a
+ * {@link LockFreeObjectPool} does it itself, a GenericObjectPool through
+ * its evict(), which needs testWhileIdle set.
+ */
+public class PoolValidator {
+    private static final AtomicInteger serial = new AtomicInteger();
+
+    private final int minIdle;
+    private final int maxActive;
+    private final long intervalMillis;
+    private final AtomicLong validations = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private ObjectPool pool;
+    private ScheduledExecutorService scheduler;
+    private volatile Thread thread;
+
+    public PoolValidator(final int minIdle, final int maxActive,
+            final long intervalMillis) {
+        this.minIdle = minIdle;
+        this.maxActive = maxActive;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Wraps the factory of the pool, counting the validations made from the
+     * validation thread.
+     */
+    public PoolableObjectFactory wrap(final PoolableObjectFactory factory) {
+        return new PoolableObjectFactory() {
+            public Object makeObject() throws Exception {
+                return factory.makeObject();
+            }
+
+            public void destroyObject(Object obj) throws Exception {
+                factory.destroyObject(obj);
+            }
+
+            public boolean validateObject(Object obj) {
+                if (Thread.currentThread() != thread) {
+                    return factory.validateObject(obj);
+                }
+                validations.incrementAndGet();
+                boolean valid = false;
+                try {
+                    valid = factory.validateObject(obj);
+                } finally {
+                    if (!valid) {
+                        validationFailures.incrementAndGet();
+                    }
+                }
+                return valid;
+            }
+
+            public void activateObject(Object obj) throws Exception {
+                factory.activateObject(obj);
+            }
+
+            public void passivateObject(Object obj) throws Exception {
+                factory.passivateObject(obj);
+            }
+        };
+    }
+
+    /**
+     * Creates the minIdle objects of pool, built with the factory from
+     * {@link #wrap(PoolableObjectFactory)}, on the calling thread, then
+     * schedules the validation runs.
+     */
+    public void start(final ObjectPool pool) {
+        this.pool = pool;
+        ensureMinIdle();
+        scheduler = Executors
+                .newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "PoolValidator#"
+                                + serial.incrementAndGet());
+                        t.setDaemon(true);
+                        thread = t;
+                        return t;
+                    }
+                });
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                validateIdle();
+                ensureMinIdle();
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public long getValidationCount() {
+        return validations.get();
+    }
+
+    public long getValidationFailureCount() {
+        return validationFailures.get();
+    }
+
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    private void validateIdle() {
+        try {
+            if (pool instanceof LockFreeObjectPool) {
+                ((LockFreeObjectPool) pool).validateIdle();
+            } else if (pool instanceof GenericObjectPool) {
+                ((GenericObjectPool) pool).evict();
+            }
+        } catch (Exception e) {
+            // closed, the scheduler is being stopped
+        }
+    }
+
+    private void ensureMinIdle() {
+        try {
+            while (pool.getNumIdle() < minIdle
+                    && (maxActive < 0 || pool.getNumIdle()
+                            + pool.getNumActive() < maxActive)) {
+                pool.addObject();
+                created.incrementAndGet();
+            }
+        } catch (Exception e) {
+            // the server is unreachable, try again on the next run
+        }
+    }
+}
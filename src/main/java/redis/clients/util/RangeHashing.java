@@ -0,0 +1,14 @@
+package redis.clients.util;
+
+/**
+ * A Hashing that can hash part of an array in place. The built-in
+ * algorithms implement it, so that Sharded hashes key tags without copying
+ * them; other Hashing implementations get a copy of the range instead.
+ */
+public interface RangeHashing extends Hashing {
+    /**
+     * Hashes length bytes of key starting at offset, the same as hashing a
+     * copy of them would.
+     */
+    public long hash(byte[] key, int offset, int length);
+}
@@ -16,18 +16,34 @@
 
 package redis.clients.util;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 
 import redis.clients.jedis.exceptions.JedisConnectionException;
 
 public class RedisInputStream extends FilterInputStream {
 
-    protected final byte buf[];
+    /**
+     * Number of payloads larger than the buffer that have to be seen before
+     * an adaptive stream grows its buffer.
+     */
+    private static final int GROW_THRESHOLD = 3;
+
+    protected byte buf[];
 
     protected int count, limit;
 
+    private int maxBufferSize;
+
+    private int oversizedPayloads;
+
+    private long filled;
+
     public RedisInputStream(InputStream in, int size) {
         super(in);
         if (size <= 0) {
@@ -40,6 +56,53 @@ public class RedisInputStream extends FilterInputStream {
         this(in, 8192);
     }
 
+    /**
+     * Makes the buffer adaptive: once a few payloads larger than the buffer
+     * have been read, it is grown to fit them, up to maxBufferSize. A value
+     * not bigger than the current buffer size keeps the buffer fixed.
+     */
+    public void setMaxBufferSize(final int maxBufferSize) {
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    public int getBufferSize() {
+        return buf.length;
+    }
+
+    /**
+     * @return how many bytes were read from this stream so far, not counting
+     *         the ones still waiting in the buffer
+     */
+    public long getBytesRead() {
+        return filled - Math.max(0, limit - count);
+    }
+
+    /**
+     * Tells the stream a payload of the given length is about to be read, so
+     * an adaptive stream can grow its buffer when this keeps happening with
+     * payloads that don't fit.
+     */
+    public void expectPayload(final int length) {
+        if (length <= buf.length || buf.length >= maxBufferSize) {
+            return;
+        }
+        if (++oversizedPayloads < GROW_THRESHOLD) {
+            return;
+        }
+        oversizedPayloads = 0;
+
+        int size = buf.length;
+        while (size < length && size < maxBufferSize) {
+            size <<= 1;
+        }
+        final byte[] grown = new byte[Math.min(size, maxBufferSize)];
+        final int pending = Math.max(0, limit - count);
+        System.arraycopy(buf, count, grown, 0, pending);
+        buf = grown;
+        count = 0;
+        limit = pending;
+    }
+
     public byte readByte() throws IOException {
         if (count == limit) {
             fill();
@@ -93,6 +156,199 @@ public class RedisInputStream extends FilterInputStream {
         return reply;
     }
 
+    /**
+     * Reads a status line as raw bytes, without going through a
+     * StringBuilder and a String first.
+     */
+    public byte[] readLineBytes() {
+        ensureFill();
+
+        int pos = count;
+        final byte[] buf = this.buf;
+        while (true) {
+            if (pos == limit) {
+                return readLineBytesSlowly();
+            }
+            if (buf[pos++] == '\r') {
+                if (pos == limit) {
+                    return readLineBytesSlowly();
+                }
+                if (buf[pos++] == '\n') {
+                    break;
+                }
+            }
+        }
+
+        final int n = (pos - count) - 2;
+        final byte[] line = new byte[n];
+        System.arraycopy(buf, count, line, 0, n);
+        count = pos;
+        return line;
+    }
+
+    /**
+     * Slow path in case a line of bytes cannot be found in the buffer. If the
+     * line is split across two buffer fills, the bytes are gathered in a
+     * temporary stream.
+     */
+    private byte[] readLineBytesSlowly() {
+        ByteArrayOutputStream bout = null;
+        while (true) {
+            ensureFill();
+
+            byte b = buf[count++];
+            if (b == '\r') {
+                ensureFill();
+                byte c = buf[count++];
+                if (c == '\n') {
+                    break;
+                }
+                if (bout == null) {
+                    bout = new ByteArrayOutputStream(16);
+                }
+                bout.write(b);
+                bout.write(c);
+            } else {
+                if (bout == null) {
+                    bout = new ByteArrayOutputStream(16);
+                }
+                bout.write(b);
+            }
+        }
+
+        return bout == null ? new byte[0] : bout.toByteArray();
+    }
+
+    /**
+     * Reads a signed decimal integer terminated by CRLF straight out of the
+     * buffer. No String is created on the way, which is what we want for
+     * the length and count lines of every bulk and multi bulk reply.
+     * 
+     * @throws JedisConnectionException if the line is not an int
+     */
+    public int readIntCrLf() {
+        final long value = readLongCrLf();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new JedisConnectionException("Integer out of range: "
+                    + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Same as {@link #readIntCrLf()} but for 64 bit values, as used by
+     * integer replies.
+     * 
+     * @throws JedisConnectionException if the line is not a long
+     */
+    public long readLongCrLf() {
+        final byte[] buf = this.buf;
+
+        ensureFill();
+
+        final boolean isNeg = buf[count] == '-';
+        if (isNeg) {
+            ++count;
+        }
+
+        // accumulated negatively, like Long.parseLong, to reach MIN_VALUE
+        final long limit = isNeg ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        final long multmin = limit / 10;
+        long value = 0;
+        int digits = 0;
+        while (true) {
+            ensureFill();
+
+            final int b = buf[count++];
+            if (b == '\r') {
+                ensureFill();
+
+                if (buf[count++] != '\n') {
+                    throw new JedisConnectionException("Unexpected character!");
+                }
+
+                break;
+            }
+            final int digit = b - '0';
+            if (digit < 0 || digit > 9) {
+                throw new JedisConnectionException(
+                        "Unexpected character in a number: " + (char) b);
+            }
+            if (value < multmin || value * 10 < limit + digit) {
+                throw new JedisConnectionException("Number out of range");
+            }
+            value = value * 10 - digit;
+            digits++;
+        }
+        if (digits == 0) {
+            throw new JedisConnectionException("Missing number");
+        }
+
+        return (isNeg ? value : -value);
+    }
+
+    /**
+     * Hands the next len bytes of a bulk payload, and skips its trailing
+     * CRLF, straight from the buffer to out, so the payload never has to
+     * fit in memory as a whole. Should out fail, the rest of the payload is
+     * still consumed to keep the connection in sync, and the failure is
+     * rethrown afterwards. Failures of the connection itself surface as
+     * JedisConnectionException, so an IOException always comes from out.
+     */
+    public void readBulkTo(final OutputStream out, int len) throws IOException {
+        IOException failure = null;
+        while (len > 0) {
+            ensureFill();
+            final int length = Math.min(limit - count, len);
+            if (failure == null) {
+                try {
+                    out.write(buf, count, length);
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            count += length;
+            len -= length;
+        }
+
+        ensureFill();
+        count++;
+        ensureFill();
+        count++;
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Copies the next len bytes of a bulk payload, and skips its trailing
+     * CRLF, from the buffer into dst. If the payload does not fit in dst it
+     * is skipped, so the connection stays in sync, dst is left untouched and
+     * a BufferOverflowException is thrown.
+     */
+    public void readBulkTo(final ByteBuffer dst, int len) {
+        final boolean fits = len <= dst.remaining();
+        while (len > 0) {
+            ensureFill();
+            final int length = Math.min(limit - count, len);
+            if (fits) {
+                dst.put(buf, count, length);
+            }
+            count += length;
+            len -= length;
+        }
+
+        ensureFill();
+        count++;
+        ensureFill();
+        count++;
+
+        if (!fits) {
+            throw new BufferOverflowException();
+        }
+    }
+
     public int read(byte[] b, int off, int len) throws IOException {
         if (count == limit) {
             fill();
@@ -108,5 +364,26 @@ public class RedisInputStream extends FilterInputStream {
     private void fill() throws IOException {
         limit = in.read(buf);
         count = 0;
+        if (limit > 0) {
+            filled += limit;
+        }
+    }
+
+    /**
+     * Makes sure there is at least one byte available in the buffer, and
+     * complains if the server has gone away.
+     */
+    private void ensureFill() throws JedisConnectionException {
+        if (count >= limit) {
+            try {
+                fill();
+            } catch (IOException e) {
+                throw new JedisConnectionException(e);
+            }
+            if (limit == -1) {
+                throw new JedisConnectionException(
+                        "It seems like server has closed the connection.");
+            }
+        }
     }
 }
@@ -1,6 +1,7 @@
 package redis.clients.util;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 
 /**
  * The class implements a buffered output stream without synchronization
@@ -8,10 +9,22 @@ import java.io.*;
  * This stream fully ignore mark/reset and should not be used outside Jedis
  */
 public final class RedisOutputStream extends FilterOutputStream {
-    protected final byte buf[];
+    /**
+     * Number of times the buffer has to fill up between two explicit flushes
+     * before an adaptive stream grows it.
+     */
+    private static final int GROW_THRESHOLD = 3;
+
+    protected byte buf[];
 
     protected int count;
 
+    private int maxBufferSize;
+
+    private int overflows;
+
+    private long flushed;
+
     public RedisOutputStream(final OutputStream out) {
         this(out, 8192);
     }
@@ -24,10 +37,37 @@ public final class RedisOutputStream extends FilterOutputStream {
         buf = new byte[size];
     }
 
+    /**
+     * Makes the buffer adaptive: when it keeps filling up before being
+     * flushed, as happens with large pipelines, it is doubled, up to
+     * maxBufferSize. A value not bigger than the current buffer size keeps
+     * the buffer fixed.
+     */
+    public void setMaxBufferSize(final int maxBufferSize) {
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    public int getBufferSize() {
+        return buf.length;
+    }
+
+    /**
+     * @return how many bytes were written to this stream so far, buffered
+     *         ones included
+     */
+    public long getBytesWritten() {
+        return flushed + count;
+    }
+
     private void flushBuffer() throws IOException {
         if (count > 0) {
             out.write(buf, 0, count);
+            flushed += count;
             count = 0;
+            if (buf.length < maxBufferSize && ++overflows >= GROW_THRESHOLD) {
+                overflows = 0;
+                buf = new byte[Math.min(buf.length << 1, maxBufferSize)];
+            }
         }
     }
 
@@ -46,6 +86,7 @@ public final class RedisOutputStream extends FilterOutputStream {
         if (len >= buf.length) {
             flushBuffer();
             out.write(b, off, len);
+            flushed += len;
         } else {
             if (len >= buf.length - count) {
                 flushBuffer();
@@ -56,6 +97,29 @@ public final class RedisOutputStream extends FilterOutputStream {
         }
     }
 
+    /**
+     * Writes the remaining bytes of src, leaving its position untouched.
+     * Direct buffers are copied into the output buffer in place, without
+     * going through an intermediate byte[].
+     */
+    public void write(final ByteBuffer src) throws IOException {
+        if (src.hasArray()) {
+            write(src.array(), src.arrayOffset() + src.position(),
+                    src.remaining());
+            return;
+        }
+
+        final ByteBuffer in = src.duplicate();
+        while (in.hasRemaining()) {
+            final int length = Math.min(buf.length - count, in.remaining());
+            in.get(buf, count, length);
+            count += length;
+            if (count == buf.length) {
+                flushBuffer();
+            }
+        }
+    }
+
     public void writeAsciiCrLf(final String in) throws IOException {
         final int size = in.length();
 
@@ -73,6 +137,11 @@ public final class RedisOutputStream extends FilterOutputStream {
         return ch >= Character.MIN_SURROGATE && ch <= Character.MAX_SURROGATE;
     }
 
+    private static boolean isSurrogatePair(final String str, final int i) {
+        return Character.isHighSurrogate(str.charAt(i)) && i + 1 < str.length()
+                && Character.isLowSurrogate(str.charAt(i + 1));
+    }
+
     public static int utf8Length (final String str) {
         int strLen = str.length(), utfLen = 0;
         for(int i = 0; i != strLen; ++i) {
@@ -82,8 +151,13 @@ public final class RedisOutputStream extends FilterOutputStream {
             } else if (c < 0x800) {
                 utfLen += 2;
             } else if (isSurrogate(c)) {
-                i++;
-                utfLen += 4;
+                if (isSurrogatePair(str, i)) {
+                    i++;
+                    utfLen += 4;
+                } else {
+                    // String.getBytes() replaces a lone surrogate with '?'
+                    utfLen++;
+                }
             } else {
                 utfLen += 3;
             }
@@ -127,10 +201,17 @@ public final class RedisOutputStream extends FilterOutputStream {
                 buf[count++] = (byte)(0xc0 | (c >> 6));
                 buf[count++] = (byte)(0x80 | (c & 0x3f));
             } else if (isSurrogate(c)) {
+                if (!isSurrogatePair(str, i)) {
+                    buf[count++] = '?';
+                    if(count == buf.length) {
+                        flushBuffer();
+                    }
+                    continue;
+                }
                 if(4 >= buf.length - count) {
                     flushBuffer();
                 }
-                int uc = Character.toCodePoint(c, str.charAt(i++));
+                int uc = Character.toCodePoint(c, str.charAt(++i));
                 buf[count++] = ((byte)(0xf0 | ((uc >> 18))));
                 buf[count++] = ((byte)(0x80 | ((uc >> 12) & 0x3f)));
                 buf[count++] = ((byte)(0x80 | ((uc >> 6) & 0x3f)));
@@ -225,6 +306,7 @@ public final class RedisOutputStream extends FilterOutputStream {
 
     public void flush() throws IOException {
         flushBuffer();
+        overflows = 0;
         out.flush();
     }
 }
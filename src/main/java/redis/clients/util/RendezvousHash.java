@@ -0,0 +1,65 @@
+package redis.clients.util;
+
+import java.util.List;
+
+/**
+ * Weighted rendezvous hashing: each shard scores a key with weight / -ln(u),
+ * u being a uniform draw seeded by the key hash and the shard, and the
+ * highest score wins. Removing a shard only moves its own keys, and adding
+ * one only takes keys from the others, whatever their order.
+ * 
+ * A shard is identified by its name, or by its {@link ShardInfo#getIdentity()
+ * identity} when it has none, host:port for a JedisShardInfo. Only shards
+ * without either are identified by their position in the shard list, as on
+ * the ring, and then only move their keys when removed from the end.
+ */
+public class RendezvousHash implements ShardingStrategy {
+    public Selector select(List<? extends ShardInfo<?>> shards, Hashing algo) {
+        final long[] seeds = new long[shards.size()];
+        final double[] weights = new double[shards.size()];
+        final int[] nodes = new int[shards.size()];
+        for (int i = 0; i != shards.size(); ++i) {
+            final ShardInfo<?> shardInfo = shards.get(i);
+            seeds[i] = algo.hash(seed(shardInfo, i));
+            weights[i] = shardInfo.getWeight();
+            nodes[i] = i;
+        }
+        return new Selector() {
+            public int getShard(long hash) {
+                int best = 0;
+                double bestScore = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < seeds.length; i++) {
+                    final double score = weights[i] / -Math.log(uniform(hash ^ seeds[i]));
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = i;
+                    }
+                }
+                return best;
+            }
+
+            public int[] getNodes() {
+                return nodes.clone();
+            }
+        };
+    }
+
+    private static String seed(ShardInfo<?> shardInfo, int i) {
+        if (shardInfo.getName() != null) {
+            return shardInfo.getName();
+        }
+        final String identity = shardInfo.getIdentity();
+        return identity != null ? identity : "SHARD-" + i;
+    }
+
+    /**
+     * Mixes x, with the finalizer of SplitMix64, into a double strictly
+     * between 0 and 1.
+     */
+    private static double uniform(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        x = x ^ (x >>> 31);
+        return ((x >>> 11) + 0.5) / (1L << 53);
+    }
+}
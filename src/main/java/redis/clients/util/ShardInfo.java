@@ -17,4 +17,13 @@ public abstract class ShardInfo<T> {
     protected abstract T createResource();
     
     public abstract String getName();
+
+    /**
+     * @return what identifies this shard wherever it is in the shard list,
+     *         for the strategies that need it when there is no name, or null
+     *         if nothing does
+     */
+    public String getIdentity() {
+        return null;
+    }
 }
@@ -1,19 +1,32 @@
 package redis.clients.util;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class Sharded<R, S extends ShardInfo<R>> {
 
     public static final int DEFAULT_WEIGHT = 1;
-    private TreeMap<Long, S> nodes;
+    /**
+     * Picks the index, in shardInfos and shardResources, of the shard owning
+     * a key hash.
+     */
+    private ShardingStrategy.Selector selector;
+    private final List<S> shardInfos = new ArrayList<S>();
+    private final List<R> shardResources = new ArrayList<R>();
+    private List<S> nodes;
+    /**
+     * While migrating, picks the index in previousShardResources of the
+     * owner of a key hash before the shards changed; null otherwise.
+     */
+    private ShardingStrategy.Selector previousSelector;
+    private List<R> previousShardResources;
+    private List<S> previousShardInfos;
     private final Hashing algo;
     private final Map<ShardInfo<R>, R> resources = new LinkedHashMap<ShardInfo<R>, R>();
 
@@ -27,6 +40,11 @@ public class Sharded<R, S extends ShardInfo<R>> {
     // the tag is anything between {}
     public static final Pattern DEFAULT_KEY_TAG_PATTERN = Pattern
             .compile("\\{(.+?)\\}");
+    /**
+     * Whether tagPattern is the default one, which is then matched by a
+     * plain scan of the key instead of a regular expression.
+     */
+    private boolean braceTags;
 
     public Sharded(List<S> shards) {
         this(shards, Hashing.MURMUR_HASH); // MD5 is really not good as we works
@@ -34,8 +52,7 @@ public class Sharded<R, S extends ShardInfo<R>> {
     }
 
     public Sharded(List<S> shards, Hashing algo) {
-        this.algo = algo;
-        initialize(shards);
+        this(shards, algo, null);
     }
 
     public Sharded(List<S> shards, Pattern tagPattern) {
@@ -45,46 +62,243 @@ public class Sharded<R, S extends ShardInfo<R>> {
     }
 
     public Sharded(List<S> shards, Hashing algo, Pattern tagPattern) {
+        this(shards, algo, tagPattern, ShardingStrategy.RING);
+    }
+
+    public Sharded(List<S> shards, Hashing algo, Pattern tagPattern,
+            ShardingStrategy strategy) {
+        this(shards, null, algo, tagPattern, strategy);
+    }
+
+    /**
+     * Builds a Sharded in migration mode: keys belong to shards, but may
+     * still be held by their owner among previousShards, the shards in use
+     * before shards were added or removed, until they are moved and
+     * finishMigration() is called. The shards found in both lists must be
+     * the same instances.
+     */
+    public Sharded(List<S> shards, List<S> previousShards, Hashing algo,
+            Pattern tagPattern, ShardingStrategy strategy) {
         this.algo = algo;
         this.tagPattern = tagPattern;
-        initialize(shards);
-    }
-
-    private void initialize(List<S> shards) {
-        nodes = new TreeMap<Long, S>();
-
-        for (int i = 0; i != shards.size(); ++i) {
-            final S shardInfo = shards.get(i);
-            if (shardInfo.getName() == null)
-            	for (int n = 0; n < 160 * shardInfo.getWeight(); n++) {
-            		nodes.put(this.algo.hash("SHARD-" + i + "-NODE-" + n), shardInfo);
-            	}
-            else
-            	for (int n = 0; n < 160 * shardInfo.getWeight(); n++) {
-            		nodes.put(this.algo.hash(shardInfo.getName() + "*" + shardInfo.getWeight() + n), shardInfo);
-            	}
-            resources.put(shardInfo, shardInfo.createResource());
+        this.braceTags = tagPattern != null
+                && tagPattern.pattern().equals(
+                        DEFAULT_KEY_TAG_PATTERN.pattern())
+                && tagPattern.flags() == DEFAULT_KEY_TAG_PATTERN.flags();
+        initialize(shards, strategy);
+        if (previousShards != null) {
+            initializePrevious(previousShards, strategy);
+        }
+    }
+
+    private void initialize(List<S> shards, ShardingStrategy strategy) {
+        for (S shardInfo : shards) {
+            R resource = shardInfo.createResource();
+            resources.put(shardInfo, resource);
+            shardInfos.add(shardInfo);
+            shardResources.add(resource);
+        }
+
+        selector = strategy.select(shardInfos, algo);
+        List<S> nodes = new ArrayList<S>();
+        for (int shard : selector.getNodes()) {
+            nodes.add(shardInfos.get(shard));
+        }
+        this.nodes = Collections.unmodifiableList(nodes);
+    }
+
+    private void initializePrevious(List<S> shards, ShardingStrategy strategy) {
+        previousShardResources = new ArrayList<R>();
+        for (S shardInfo : shards) {
+            R resource = resources.get(shardInfo);
+            if (resource == null) {
+                resource = shardInfo.createResource();
+                resources.put(shardInfo, resource);
+            }
+            previousShardResources.add(resource);
+        }
+        previousShardInfos = new ArrayList<S>(shards);
+        previousSelector = strategy.select(shards, algo);
+    }
+
+    public boolean isMigrating() {
+        return previousSelector != null;
+    }
+
+    /**
+     * Drops the shards in use before the migration, once their keys have
+     * been moved to their new owners. Their resources are kept among
+     * getAllShards().
+     */
+    public void finishMigration() {
+        previousSelector = null;
+        previousShardResources = null;
+        previousShardInfos = null;
+    }
+
+    /**
+     * @return the shard that owned key before the migration, or null if
+     *         there is no migration or the key has not changed owner
+     */
+    public R getPreviousShard(byte[] key) {
+        return previousSelector == null ? null : getPreviousShard(hash(key));
+    }
+
+    public R getPreviousShard(String key) {
+        return previousSelector == null ? null : getPreviousShard(hash(key));
+    }
+
+    /**
+     * @return the info of the shard that owned key before the migration, or
+     *         null if there is no migration or the key has not changed owner
+     */
+    public S getPreviousShardInfo(String key) {
+        if (previousSelector == null) {
+            return null;
+        }
+        final long hash = hash(key);
+        final S previous = previousShardInfos.get(previousSelector
+                .getShard(hash));
+        return previous == shardInfos.get(selector.getShard(hash)) ? null
+                : previous;
+    }
+
+    private R getPreviousShard(long hash) {
+        final R previous = previousShardResources.get(previousSelector
+                .getShard(hash));
+        return previous == shardResources.get(selector.getShard(hash)) ? null
+                : previous;
+    }
+
+    /**
+     * @return the shards in use before the migration, or an empty list if
+     *         there is none
+     */
+    public List<R> getPreviousShards() {
+        if (previousShardResources == null) {
+            return Collections.emptyList();
         }
+        return Collections.unmodifiableList(previousShardResources);
     }
 
     public R getShard(byte[] key) {
-        return resources.get(getShardInfo(key));
+        return shardResources.get(selector.getShard(hash(key)));
     }
 
     public R getShard(String key) {
-        return resources.get(getShardInfo(key));
+        return shardResources.get(selector.getShard(hash(key)));
     }
 
     public S getShardInfo(byte[] key) {
-        SortedMap<Long, S> tail = nodes.tailMap(algo.hash(key));
-        if (tail.size() == 0) {
-            return nodes.get(nodes.firstKey());
-        }
-        return tail.get(tail.firstKey());
+        return shardInfos.get(selector.getShard(hash(key)));
     }
 
     public S getShardInfo(String key) {
-        return getShardInfo(SafeEncoder.encode(getKeyTag(key)));
+        return shardInfos.get(selector.getShard(hash(key)));
+    }
+
+    /**
+     * Hashes the key tag of a binary key, which is found the same way as the
+     * one of a String key.
+     */
+    private long hash(byte[] key) {
+        if (braceTags) {
+            final long tag = findBraceTag(key);
+            if (tag >= 0) {
+                final int start = (int) (tag >>> 32);
+                return hash(key, start, (int) tag - start);
+            }
+            return algo.hash(key);
+        }
+        if (tagPattern != null) {
+            final String decoded = SafeEncoder.encode(key);
+            final String tag = getKeyTag(decoded);
+            if (tag != decoded) {
+                return algo.hash(SafeEncoder.encode(tag));
+            }
+            // no tag: decoding is lossy for keys that are not UTF-8, so hash
+            // the key as it is
+        }
+        return algo.hash(key);
+    }
+
+    private long hash(byte[] key, int offset, int length) {
+        if (algo instanceof RangeHashing) {
+            return ((RangeHashing) algo).hash(key, offset, length);
+        }
+        final byte[] range = new byte[length];
+        System.arraycopy(key, offset, range, 0, length);
+        return algo.hash(range);
+    }
+
+    private long hash(String key) {
+        if (braceTags) {
+            // braces are ASCII, so they are found in the encoded key as they
+            // would be in the String, and the tag can be hashed in place
+            return hash(SafeEncoder.encode(key));
+        }
+        return algo.hash(SafeEncoder.encode(getKeyTag(key)));
+    }
+
+    /**
+     * Finds what DEFAULT_KEY_TAG_PATTERN would match in the UTF-8 encoded
+     * key: the shortest non empty run of characters other than line
+     * terminators, between the first '{' followed by one and a '}'.
+     * 
+     * @return the offset of the tag in the high int and the offset of its
+     *         closing brace in the low one, or -1 if there is no tag
+     */
+    static long findBraceTag(byte[] key) {
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != '{') {
+                continue;
+            }
+            for (int j = i + 1; j < key.length; j++) {
+                final byte b = key[j];
+                if (b == '\n' || b == '\r') {
+                    break;
+                }
+                // U+0085, U+2028 and U+2029 end lines too
+                if (b == (byte) 0xc2 && j + 1 < key.length
+                        && key[j + 1] == (byte) 0x85) {
+                    break;
+                }
+                if (b == (byte) 0xe2 && j + 2 < key.length
+                        && key[j + 1] == (byte) 0x80
+                        && (key[j + 2] == (byte) 0xa8 || key[j + 2] == (byte) 0xa9)) {
+                    break;
+                }
+                if (b == '}' && j > i + 1) {
+                    return ((long) (i + 1) << 32) | j;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The String version of findBraceTag(byte[]).
+     * 
+     * @return the tag, or null if there is none
+     */
+    static String findBraceTag(String key) {
+        final int length = key.length();
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != '{') {
+                continue;
+            }
+            for (int j = i + 1; j < length; j++) {
+                final char c = key.charAt(j);
+                if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028'
+                        || c == '\u2029') {
+                    break;
+                }
+                if (c == '}' && j > i + 1) {
+                    return key.substring(i + 1, j);
+                }
+            }
+        }
+        return null;
     }
 
     /**
@@ -97,6 +311,10 @@ public class Sharded<R, S extends ShardInfo<R>> {
      * @return The tag if it exists, or the original key
      */
     public String getKeyTag(String key) {
+        if (braceTags) {
+            final String tag = findBraceTag(key);
+            return tag == null ? key : tag;
+        }
         if (tagPattern != null) {
             Matcher m = tagPattern.matcher(key);
             if (m.find())
@@ -106,7 +324,7 @@ public class Sharded<R, S extends ShardInfo<R>> {
     }
 
     public Collection<S> getAllShardInfo() {
-        return Collections.unmodifiableCollection(nodes.values());
+        return nodes;
     }
 
     public Collection<R> getAllShards() {
@@ -0,0 +1,50 @@
+package redis.clients.util;
+
+import java.util.List;
+
+/**
+ * Decides which shard owns a key, from the hash of its tag.
+ */
+public interface ShardingStrategy {
+    /**
+     * The ketama-like ring of 160 virtual nodes per unit of weight that
+     * Sharded has always used.
+     */
+    public static final ShardingStrategy RING = new HashRing();
+    /**
+     * Jump consistent hash: no memory beyond the shard list and near perfect
+     * balance, but shards may only be added or removed at the end of the
+     * list.
+     */
+    public static final ShardingStrategy JUMP = new JumpHash();
+    /**
+     * Weighted rendezvous (highest random weight) hashing: shards may be
+     * added or removed anywhere, at the cost of scoring every shard on each
+     * lookup. Shards are told apart by name, or else by identity, such as
+     * the host:port of a JedisShardInfo.
+     */
+    public static final ShardingStrategy RENDEZVOUS = new RendezvousHash();
+
+    /**
+     * @param shards
+     *            the shards, in the order they were configured
+     * @param algo
+     *            the hashing of the Sharded, for the strategies that hash
+     *            anything other than keys
+     */
+    public Selector select(List<? extends ShardInfo<?>> shards, Hashing algo);
+
+    public interface Selector {
+        /**
+         * @return the index in the shard list of the shard owning keys whose
+         *         tag hashes to hash
+         */
+        public int getShard(long hash);
+
+        /**
+         * @return the index of the shard of each node the strategy placed,
+         *         in the order it placed them
+         */
+        public int[] getNodes();
+    }
+}
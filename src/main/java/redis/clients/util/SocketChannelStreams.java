@@ -0,0 +1,176 @@
+package redis.clients.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Input and output streams over a connected SocketChannel. The channel is
+ * switched to non blocking mode and waits go through a selector, so the
+ * socket's SO_TIMEOUT is honoured the same way as with a plain Socket.
+ * <p>
+ * With direct buffers the data is staged in a ByteBuffer allocated once per
+ * connection, then copied to or from the callers' arrays; otherwise the
+ * arrays are wrapped and handed to the channel, and the JDK stages them in
+ * its own per-thread temporary direct buffers. Either way each byte is
+ * copied once between the socket and the Redis streams' buffers.
+ */
+public class SocketChannelStreams {
+    private final SocketChannel channel;
+    private final Selector selector;
+    private final SelectionKey key;
+    private final ByteBuffer readBuffer;
+    private final ByteBuffer writeBuffer;
+    private final InputStream inputStream = new ChannelInputStream();
+    private final OutputStream outputStream = new ChannelOutputStream();
+
+    public SocketChannelStreams(final SocketChannel channel,
+            final boolean direct, final int inputBufferSize,
+            final int outputBufferSize) throws IOException {
+        this.channel = channel;
+        if (direct) {
+            readBuffer = ByteBuffer.allocateDirect(inputBufferSize);
+            writeBuffer = ByteBuffer.allocateDirect(outputBufferSize);
+        } else {
+            readBuffer = null;
+            writeBuffer = null;
+        }
+        channel.configureBlocking(false);
+        selector = Selector.open();
+        try {
+            key = channel.register(selector, 0);
+        } catch (IOException e) {
+            selector.close();
+            throw e;
+        }
+    }
+
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    public void close() throws IOException {
+        try {
+            selector.close();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void await(final int ops) throws IOException {
+        final int timeout = channel.socket().getSoTimeout();
+        final long deadline = System.currentTimeMillis() + timeout;
+        key.interestOps(ops);
+        try {
+            // 0 waits forever, as SO_TIMEOUT does
+            long wait = timeout;
+            while (selector.select(wait) == 0) {
+                if (!channel.isOpen()) {
+                    throw new IOException("Channel closed");
+                }
+                if (timeout > 0) {
+                    // woken up early: only wait for what is left
+                    wait = deadline - System.currentTimeMillis();
+                    if (wait <= 0) {
+                        throw new SocketTimeoutException(
+                                ops == SelectionKey.OP_READ ? "Read timed out"
+                                        : "Write timed out");
+                    }
+                }
+            }
+        } finally {
+            selector.selectedKeys().clear();
+        }
+    }
+
+    private int read(final byte[] b, final int off, final int len)
+            throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        final ByteBuffer dst;
+        if (readBuffer == null) {
+            dst = ByteBuffer.wrap(b, off, len);
+        } else {
+            readBuffer.clear();
+            readBuffer.limit(Math.min(len, readBuffer.capacity()));
+            dst = readBuffer;
+        }
+
+        int read;
+        while ((read = channel.read(dst)) == 0) {
+            await(SelectionKey.OP_READ);
+        }
+        if (read > 0 && readBuffer != null) {
+            readBuffer.flip();
+            readBuffer.get(b, off, read);
+        }
+        return read;
+    }
+
+    private void write(final byte[] b, int off, int len) throws IOException {
+        if (writeBuffer == null) {
+            writeFully(ByteBuffer.wrap(b, off, len));
+            return;
+        }
+        while (len > 0) {
+            final int chunk = Math.min(len, writeBuffer.capacity());
+            writeBuffer.clear();
+            writeBuffer.put(b, off, chunk);
+            writeBuffer.flip();
+            writeFully(writeBuffer);
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    private void writeFully(final ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            if (channel.write(src) == 0) {
+                await(SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    private class ChannelInputStream extends InputStream {
+        private final byte[] single = new byte[1];
+
+        public int read() throws IOException {
+            final int read = read(single, 0, 1);
+            return read == -1 ? -1 : single[0] & 0xff;
+        }
+
+        public int read(final byte[] b, final int off, final int len)
+                throws IOException {
+            return SocketChannelStreams.this.read(b, off, len);
+        }
+
+        public void close() throws IOException {
+            SocketChannelStreams.this.close();
+        }
+    }
+
+    private class ChannelOutputStream extends OutputStream {
+        public void write(final int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        public void write(final byte[] b, final int off, final int len)
+                throws IOException {
+            SocketChannelStreams.this.write(b, off, len);
+        }
+
+        public void close() throws IOException {
+            SocketChannelStreams.this.close();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package redis.clients.util;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A per-thread slot holding the last resource a thread gave back, so it can
+ * have it again without going through the pool.
+ * <p>
+ * A resource sitting in a slot still counts as borrowed for the pool
+ * underneath, so a thread finding the pool exhausted can take one parked by
+ * another thread with {@link #steal()}. Slots of threads that have died are
+ * handed back with {@link #reclaimAbandoned()}, and all of them with
+ * {@link #drain()}.
+ */
+public class ThreadAffinity {
+    private final ThreadLocal<Slot> slot = new ThreadLocal<Slot>();
+    private final Queue<Slot> slots = new ConcurrentLinkedQueue<Slot>();
+
+    /**
+     * @return the resource kept by the current thread, or null
+     */
+    public Parked take() {
+        final Slot s = slot.get();
+        return s == null ? null : s.resource.getAndSet(null);
+    }
+
+    /**
+     * Empties the first non-empty slot, whichever thread it belongs to.
+     * 
+     * @return the resource that was kept, or null if all slots are empty
+     */
+    public Parked steal() {
+        for (final Slot s : slots) {
+            final Parked parked = s.resource.getAndSet(null);
+            if (parked != null) {
+                return parked;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Keeps the resource for the current thread, unless it already keeps
+     * one.
+     * 
+     * @return whether the resource was kept
+     */
+    public boolean offer(final Object resource) {
+        Slot s = slot.get();
+        if (s == null) {
+            s = new Slot();
+            slot.set(s);
+            slots.add(s);
+        }
+        return s.resource.compareAndSet(null, new Parked(resource));
+    }
+
+    /**
+     * Empties the slots of all threads.
+     * 
+     * @return the resources that were kept
+     */
+    public List<Object> drain() {
+        final List<Object> resources = new ArrayList<Object>();
+        for (final Slot s : slots) {
+            final Parked parked = s.resource.getAndSet(null);
+            if (parked != null) {
+                resources.add(parked.resource);
+            }
+        }
+        return resources;
+    }
+
+    /**
+     * Empties and forgets the slots of threads that have died.
+     * 
+     * @return the resources that were kept
+     */
+    public List<Object> reclaimAbandoned() {
+        final List<Object> resources = new ArrayList<Object>();
+        for (final Iterator<Slot> it = slots.iterator(); it.hasNext();) {
+            final Slot s = it.next();
+            final Thread owner = s.owner.get();
+            if (owner == null || !owner.isAlive()) {
+                it.remove();
+                final Parked parked = s.resource.getAndSet(null);
+                if (parked != null) {
+                    resources.add(parked.resource);
+                }
+            }
+        }
+        return resources;
+    }
+
+    private static class Slot {
+        final WeakReference<Thread> owner = new WeakReference<Thread>(
+                Thread.currentThread());
+        final AtomicReference<Parked> resource = new AtomicReference<Parked>();
+    }
+
+    /**
+     * A resource kept in a slot, with the time it was put there.
+     */
+    public static final class Parked {
+        public final Object resource;
+        public final long since = System.currentTimeMillis();
+
+        Parked(final Object resource) {
+            this.resource = resource;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package redis.clients.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * xxHash64, from Yann Collet's reference implementation at
+ * https://github.com/Cyan4973/xxHash, with a seed of 0.
+ * 
+ * Input is read 8 bytes at a time, without copying.
+ */
+public class XXHash64 implements RangeHashing {
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+    public long hash(String key) {
+        return hash(SafeEncoder.encode(key));
+    }
+
+    public long hash(byte[] key) {
+        return hash(key, 0, key.length, 0);
+    }
+
+    public long hash(byte[] key, int offset, int length) {
+        return hash(key, offset, length, 0);
+    }
+
+    /**
+     * Hashes length bytes of array from offset. They are read through a
+     * little-endian ByteBuffer: the JIT turns its reads into plain 8 byte
+     * loads, and the buffer does not escape, so it is not allocated once
+     * this is compiled.
+     */
+    public static long hash(byte[] array, int offset, int length, long seed) {
+        final ByteBuffer data = ByteBuffer.wrap(array).order(
+                ByteOrder.LITTLE_ENDIAN);
+        final int end = offset + length;
+        int i = offset;
+        long h;
+
+        if (length >= 32) {
+            long v1 = seed + PRIME64_1 + PRIME64_2;
+            long v2 = seed + PRIME64_2;
+            long v3 = seed;
+            long v4 = seed - PRIME64_1;
+            final int limit = end - 32;
+            do {
+                v1 = round(v1, data.getLong(i));
+                v2 = round(v2, data.getLong(i + 8));
+                v3 = round(v3, data.getLong(i + 16));
+                v4 = round(v4, data.getLong(i + 24));
+                i += 32;
+            } while (i <= limit);
+
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+                    + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = mergeRound(h, v1);
+            h = mergeRound(h, v2);
+            h = mergeRound(h, v3);
+            h = mergeRound(h, v4);
+        } else {
+            h = seed + PRIME64_5;
+        }
+
+        h += length;
+
+        for (; i + 8 <= end; i += 8) {
+            h ^= round(0, data.getLong(i));
+            h = Long.rotateLeft(h, 27) * PRIME64_1 + PRIME64_4;
+        }
+        if (i + 4 <= end) {
+            h ^= (data.getInt(i) & 0xffffffffL) * PRIME64_1;
+            h = Long.rotateLeft(h, 23) * PRIME64_2 + PRIME64_3;
+            i += 4;
+        }
+        for (; i < end; i++) {
+            h ^= (data.get(i) & 0xffL) * PRIME64_5;
+            h = Long.rotateLeft(h, 11) * PRIME64_1;
+        }
+
+        h ^= h >>> 33;
+        h *= PRIME64_2;
+        h ^= h >>> 29;
+        h *= PRIME64_3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME64_2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME64_1;
+    }
+
+    private static long mergeRound(long acc, long val) {
+        acc ^= round(0, val);
+        return acc * PRIME64_1 + PRIME64_4;
+    }
+}
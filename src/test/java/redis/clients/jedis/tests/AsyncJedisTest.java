@@ -0,0 +1,127 @@
+package redis.clients.jedis.tests;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.junit.Test;
+
+import redis.clients.jedis.BuilderFactory;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.netty.AsyncJedis;
+import redis.clients.jedis.netty.RedisReplyDecoder;
+import redis.clients.jedis.netty.ReplyFuture;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+import redis.clients.util.SafeEncoder;
+
+public class AsyncJedisTest extends JedisTestBase {
+    private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void decodeFragmentedReplies() {
+        DecoderEmbedder<Object> decoder = new DecoderEmbedder<Object>(
+                new RedisReplyDecoder());
+        byte[] replies = ("+OK\r\n:-12\r\n$-1\r\n$3\r\nfoo\r\n"
+                + "*3\r\n$3\r\nbar\r\n*2\r\n:1\r\n$-1\r\n*0\r\n-ERR bad\r\n")
+                .getBytes();
+        for (byte b : replies) {
+            decoder.offer(ChannelBuffers.wrappedBuffer(new byte[] { b }));
+        }
+
+        assertEquals("OK", SafeEncoder.encode((byte[]) decoder.poll()));
+        assertEquals(Long.valueOf(-12), decoder.poll());
+        assertSame(RedisReplyDecoder.NIL, decoder.poll());
+        assertEquals("foo", SafeEncoder.encode((byte[]) decoder.poll()));
+
+        List<Object> multi = (List<Object>) decoder.poll();
+        assertEquals(3, multi.size());
+        assertEquals("bar", SafeEncoder.encode((byte[]) multi.get(0)));
+        List<Object> nested = new ArrayList<Object>();
+        nested.add(1L);
+        nested.add(null);
+        assertEquals(nested, multi.get(1));
+        assertEquals(new ArrayList<Object>(), multi.get(2));
+
+        assertEquals("ERR bad", ((JedisDataException) decoder.poll())
+                .getMessage());
+        assertNull(decoder.poll());
+    }
+
+    @Test
+    public void authTimesOutOnSilentServer() throws Exception {
+        // accepts the connection but never answers
+        ServerSocket server = new ServerSocket(0);
+        long start = System.currentTimeMillis();
+        try {
+            AsyncJedis.getInstance("localhost", server.getLocalPort(),
+                    "foobared", 200);
+            fail("AUTH should have timed out");
+        } catch (JedisConnectionException e) {
+            assertTrue(System.currentTimeMillis() - start < 2000);
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void sendFromManyThreads() throws Exception {
+        final AsyncJedis jedis = AsyncJedis.getInstance(hnp.host, hnp.port,
+                "foobared", 2000);
+        jedis.del("foo").get();
+
+        Thread[] threads = new Thread[10];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int n = 0; n < 1000; n++) {
+                        jedis.incr("foo");
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals("10000", jedis.get("foo").get());
+        jedis.close();
+    }
+
+    @Test
+    public void errorRepliesFailTheirFutureOnly() throws Exception {
+        AsyncJedis jedis = AsyncJedis.getInstance(hnp.host, hnp.port,
+                "foobared", 2000);
+        jedis.set("foo", "bar");
+        ReplyFuture<Long> failed = jedis.send(BuilderFactory.LONG,
+                Protocol.Command.INCR, "foo");
+        ReplyFuture<String> value = jedis.get("foo");
+
+        try {
+            failed.get();
+            fail("INCR of a string should have failed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof JedisDataException);
+        }
+        assertEquals("bar", value.get());
+        jedis.close();
+    }
+
+    @Test
+    public void commandsFailOnceClosed() throws Exception {
+        AsyncJedis jedis = AsyncJedis.getInstance(hnp.host, hnp.port,
+                "foobared", 2000);
+        jedis.close();
+        try {
+            jedis.ping().get();
+            fail("A closed client should not send commands");
+        } catch (ExecutionException e) {
+        }
+    }
+}
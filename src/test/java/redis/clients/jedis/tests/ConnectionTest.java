@@ -6,6 +6,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import redis.clients.jedis.Connection;
+import redis.clients.jedis.Transport;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 
 public class ConnectionTest extends Assert {
@@ -33,4 +34,26 @@ public class ConnectionTest extends Assert {
         client.setPort(55665);
         client.connect();
     }
-}
\ No newline at end of file
+
+    @Test(expected = JedisConnectionException.class)
+    public void checkWrongPortOverSocketChannel() {
+        client.setHost("localhost");
+        client.setPort(55665);
+        client.setTransport(Transport.NIO_DIRECT);
+        client.connect();
+    }
+
+    @Test
+    public void failedConnectClosesTheChannel() {
+        client.setHost("localhost");
+        client.setPort(55665);
+        client.setTransport(Transport.NIO_HEAP);
+        try {
+            client.connect();
+            fail();
+        } catch (JedisConnectionException e) {
+        }
+        assertTrue(client.getSocket().isClosed());
+        assertFalse(client.getSocket().getChannel().isOpen());
+    }
+}
@@ -0,0 +1,46 @@
+package redis.clients.jedis.tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import redis.clients.util.Hashing;
+import redis.clients.util.RangeHashing;
+import redis.clients.util.SafeEncoder;
+
+public class HashingTest extends Assert {
+    @Test
+    public void xxHash64Vectors() {
+        assertEquals(0xef46db3751d8e999L, Hashing.XXHASH_64.hash(new byte[0]));
+        assertEquals(0x44bc2cf5ad770999L, Hashing.XXHASH_64.hash("abc"));
+        assertEquals(0x44bc2cf5ad770999L, Hashing.XXHASH_64.hash(SafeEncoder
+                .encode("abc")));
+    }
+
+    @Test
+    public void murmur3Vectors() {
+        assertEquals(0xcbd8a7b341bd9b02L, Hashing.MURMUR3_HASH.hash("hello"));
+        assertEquals(0xcbd8a7b341bd9b02L, Hashing.MURMUR3_HASH
+                .hash(SafeEncoder.encode("hello")));
+    }
+
+    @Test
+    public void rangesHashLikeTheirBytes() {
+        byte[] buffer = SafeEncoder.encode("xxabcyy{hello}");
+        RangeHashing xxHash = (RangeHashing) Hashing.XXHASH_64;
+        RangeHashing murmur3 = (RangeHashing) Hashing.MURMUR3_HASH;
+
+        assertEquals(0xef46db3751d8e999L, xxHash.hash(buffer, 5, 0));
+        assertEquals(0x44bc2cf5ad770999L, xxHash.hash(buffer, 2, 3));
+        assertEquals(0xcbd8a7b341bd9b02L, murmur3.hash(buffer, 8, 5));
+
+        // longer than the 32 and 16 byte blocks, at an unaligned offset
+        byte[] key = new byte[100];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (byte) (i * 31);
+        }
+        byte[] range = new byte[77];
+        System.arraycopy(key, 3, range, 0, range.length);
+        assertEquals(xxHash.hash(range), xxHash.hash(key, 3, range.length));
+        assertEquals(murmur3.hash(range), murmur3.hash(key, 3, range.length));
+    }
+}
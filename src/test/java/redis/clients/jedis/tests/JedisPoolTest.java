@@ -1,5 +1,13 @@
 package redis.clients.jedis.tests;
 
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.pool.BasePoolableObjectFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
 import org.apache.commons.pool.impl.GenericObjectPool.Config;
 import org.junit.Assert;
@@ -11,6 +19,9 @@ import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+import redis.clients.util.Pool;
+import redis.clients.util.PoolConfig;
+import redis.clients.util.PoolStats;
 
 public class JedisPoolTest extends Assert {
     private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
@@ -123,4 +134,307 @@ public class JedisPoolTest extends Assert {
         pool.returnResource(jedis);
         pool.destroy();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void checkConnectionsWithLockFreePool() {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setLockFree(true);
+        config.setTestOnBorrow(true);
+        JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+                "foobared");
+        Jedis jedis = pool.getResource();
+        jedis.set("foo", "bar");
+        pool.returnResource(jedis);
+
+        assertSame(jedis, pool.getResource());
+        assertEquals("bar", jedis.get("foo"));
+        pool.returnBrokenResource(jedis);
+
+        Jedis other = pool.getResource();
+        assertNotSame(jedis, other);
+        assertEquals("bar", other.get("foo"));
+        pool.returnResource(other);
+        pool.destroy();
+    }
+
+    @Test(expected = JedisConnectionException.class)
+    public void checkLockFreePoolOverflow() {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setLockFree(true);
+        config.setMaxActive(1);
+        config.setWhenExhaustedAction(GenericObjectPool.WHEN_EXHAUSTED_FAIL);
+        JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+                "foobared");
+        Jedis jedis = pool.getResource();
+        jedis.set("foo", "0");
+
+        Jedis newJedis = pool.getResource();
+        newJedis.incr("foo");
+    }
+
+    @Test
+    public void lockFreePoolBlocksUntilReturn() throws InterruptedException {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setLockFree(true);
+        config.setMaxActive(1);
+        config.setMaxWait(5000);
+        final JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+                "foobared");
+        final Jedis jedis = pool.getResource();
+        Thread returner = new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                }
+                pool.returnResource(jedis);
+            }
+        };
+        returner.start();
+
+        assertSame(jedis, pool.getResource());
+        returner.join();
+        pool.returnResource(jedis);
+        pool.destroy();
+    }
+
+    @Test
+    public void threadAffinityKeepsConnectionPerThread()
+            throws InterruptedException {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setThreadAffinity(true);
+        final JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+                "foobared");
+        final Jedis jedis = pool.getResource();
+        pool.returnResource(jedis);
+        assertSame(jedis, pool.getResource());
+        pool.returnResource(jedis);
+
+        final Jedis[] other = new Jedis[1];
+        Thread thread = new Thread() {
+            public void run() {
+                other[0] = pool.getResource();
+                other[0].set("foo", "bar");
+                pool.returnResource(other[0]);
+            }
+        };
+        thread.start();
+        thread.join();
+        assertNotSame(jedis, other[0]);
+
+        assertSame(jedis, pool.getResource());
+        assertEquals("bar", jedis.get("foo"));
+        pool.returnBrokenResource(jedis);
+        assertNotSame(jedis, pool.getResource());
+        pool.destroy();
+    }
+
+    @Test
+    public void threadAffinityLendsParkedConnectionsWhenExhausted()
+            throws InterruptedException {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setThreadAffinity(true);
+        config.setMaxActive(1);
+        config.setMaxWait(2000);
+        final JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+                "foobared");
+        final Jedis[] parked = new Jedis[1];
+        final CountDownLatch returned = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread thread = new Thread() {
+            public void run() {
+                parked[0] = pool.getResource();
+                pool.returnResource(parked[0]);
+                returned.countDown();
+                try {
+                    done.await();
+                } catch (InterruptedException e) {
+                }
+            }
+        };
+        thread.start();
+        returned.await();
+
+        Jedis jedis = pool.getResource();
+        assertSame(parked[0], jedis);
+        pool.returnResource(jedis);
+        done.countDown();
+        thread.join();
+        pool.destroy();
+    }
+
+    @Test
+    public void threadAffinityValidatesParkedConnections() {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setThreadAffinity(true);
+        config.setTestOnBorrow(true);
+        JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+                "foobared");
+        Jedis jedis = pool.getResource();
+        pool.returnResource(jedis);
+        jedis.disconnect();
+
+        Jedis other = pool.getResource();
+        assertNotSame(jedis, other);
+        assertEquals("PONG", other.ping());
+        pool.returnResource(other);
+        pool.destroy();
+    }
+
+    @Test
+    public void threadAffinityValidatesParkedConnectionsByAge()
+            throws InterruptedException {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setThreadAffinity(true);
+        config.setTestOnBorrow(true);
+        config.setBackgroundValidationMillis(200);
+        JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+                "foobared");
+        Jedis jedis = pool.getResource();
+        pool.returnResource(jedis);
+        long validations = pool.getStats().getValidationCount();
+
+        // testOnBorrow is left to the background validation
+        assertSame(jedis, pool.getResource());
+        assertEquals(validations, pool.getStats().getValidationCount());
+        pool.returnResource(jedis);
+        jedis.disconnect();
+        Thread.sleep(300);
+
+        Jedis other = pool.getResource();
+        assertNotSame(jedis, other);
+        assertEquals("PONG", other.ping());
+        pool.returnResource(other);
+        pool.destroy();
+    }
+
+    @Test
+    public void threadAffinityActivatesParkedResources() {
+        final AtomicInteger activations = new AtomicInteger();
+        PoolConfig config = new PoolConfig();
+        config.setThreadAffinity(true);
+        Pool<Object> pool = new Pool<Object>(config,
+                new BasePoolableObjectFactory() {
+                    public Object makeObject() {
+                        return new Object();
+                    }
+
+                    public void activateObject(Object obj) throws Exception {
+                        if (activations.incrementAndGet() > 2) {
+                            throw new IllegalStateException();
+                        }
+                    }
+                }) {
+        };
+        Object resource = pool.getResource();
+        pool.returnResource(resource);
+        assertSame(resource, pool.getResource());
+        assertEquals(2, activations.get());
+        pool.returnResource(resource);
+
+        // one that fails activation is destroyed, not handed out
+        try {
+            pool.getResource();
+            fail();
+        } catch (JedisConnectionException e) {
+        }
+        assertEquals(0, pool.getNumActive());
+        pool.destroy();
+    }
+
+    @Test
+    public void backgroundValidationWarmsUpThePool()
+            throws InterruptedException {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setMinIdle(3);
+        config.setTestOnBorrow(true);
+        config.setBackgroundValidationMillis(50);
+        JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+                "foobared");
+        assertEquals(3, pool.getNumIdle());
+
+        Thread.sleep(300);
+        assertTrue(pool.getValidationCount() >= 3);
+        assertEquals(0, pool.getValidationFailureCount());
+
+        Jedis jedis = pool.getResource();
+        assertEquals("PONG", jedis.ping());
+        pool.returnResource(jedis);
+        pool.destroy();
+    }
+
+    @Test
+    public void backgroundValidationOfLockFreePoolKeepsIdleConnections()
+            throws InterruptedException {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setLockFree(true);
+        config.setMinIdle(3);
+        config.setBackgroundValidationMillis(50);
+        JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+                "foobared");
+        Jedis jedis = pool.getResource();
+        pool.returnResource(jedis);
+
+        Thread.sleep(300);
+        assertTrue(pool.getValidationCount() >= 3);
+        assertEquals(0, pool.getValidationFailureCount());
+        assertEquals(3, pool.getNumIdle());
+        assertEquals(0, pool.getNumActive());
+
+        jedis.disconnect();
+        Thread.sleep(300);
+        assertEquals(1, pool.getValidationFailureCount());
+        assertEquals(3, pool.getNumIdle());
+        assertNotSame(jedis, pool.getResource());
+        pool.destroy();
+    }
+
+    @Test
+    public void monitorIsRegisteredOnlyWhenEnabled() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName pattern = new ObjectName(
+                "redis.clients.jedis:service=JedisPool,*");
+        int before = server.queryNames(pattern, null).size();
+
+        JedisPool pool = new JedisPool(new JedisPoolConfig(), hnp.host,
+                hnp.port, 2000, "foobared");
+        assertEquals(before, server.queryNames(pattern, null).size());
+        pool.destroy();
+
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setJmxEnabled(true);
+        pool = new JedisPool(config, hnp.host, hnp.port, 2000, "foobared");
+        assertEquals(before + 1, server.queryNames(pattern, null).size());
+        pool.destroy();
+        assertEquals(before, server.queryNames(pattern, null).size());
+    }
+
+    @Test
+    public void statsAreCollected() {
+        Config config = new Config();
+        config.maxActive = 1;
+        config.whenExhaustedAction = GenericObjectPool.WHEN_EXHAUSTED_FAIL;
+        config.testOnBorrow = true;
+        JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+                "foobared");
+        Jedis jedis = pool.getResource();
+        try {
+            pool.getResource();
+            fail("The pool should be exhausted");
+        } catch (JedisConnectionException e) {
+        }
+        pool.returnBrokenResource(jedis);
+        pool.returnResource(pool.getResource());
+
+        PoolStats stats = pool.getStats();
+        assertEquals(2, stats.getBorrowedCount());
+        assertEquals(2, stats.getReturnedCount());
+        assertEquals(1, stats.getExhaustedCount());
+        assertEquals(2, stats.getCreatedCount());
+        assertEquals(1, stats.getDestroyedCount());
+        assertEquals(2, stats.getValidationCount());
+        assertEquals(2, stats.getBorrowWait().getCount());
+        assertTrue(stats.getBorrowWait().getPercentileMicros(99) > 0);
+        pool.destroy();
+    }
+}
@@ -6,9 +6,14 @@ import java.util.Map;
 
 import org.junit.Test;
 
+import redis.clients.jedis.CommandStats;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
 import redis.clients.jedis.JedisShardInfo;
 import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.jedis.ReplyVisitor;
+import redis.clients.jedis.Transport;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.tests.commands.JedisCommandTestBase;
@@ -45,6 +50,28 @@ public class JedisTest extends JedisCommandTestBase {
         jedis.get("foo");
     }
 
+    @Test
+    public void connectOverSocketChannel() {
+        for (Transport transport : new Transport[] { Transport.NIO_HEAP,
+                Transport.NIO_DIRECT }) {
+            JedisShardInfo shardInfo = new JedisShardInfo("localhost",
+                    Protocol.DEFAULT_PORT);
+            shardInfo.setPassword("foobared");
+            shardInfo.setTransport(transport);
+            shardInfo.setInputBufferSize(64);
+            shardInfo.setOutputBufferSize(64);
+            Jedis jedis = new Jedis(shardInfo);
+
+            byte[] bigdata = new byte[1777];
+            for (int b = 0; b < bigdata.length; b++) {
+                bigdata[b] = (byte) ((byte) b % 255);
+            }
+            jedis.set("foo".getBytes(), bigdata);
+            assertArrayEquals(bigdata, jedis.get("foo".getBytes()));
+            jedis.disconnect();
+        }
+    }
+
     @Test(expected = JedisConnectionException.class)
     public void timeoutConnection() throws Exception {
         jedis = new Jedis("localhost", 6379, 15000);
@@ -69,4 +96,61 @@ public class JedisTest extends JedisCommandTestBase {
         jedis.getClient().getSocket().shutdownOutput();
         assertEquals("bar", jedis.get("foo"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void collectCommandStats() {
+        CommandStats stats = new CommandStats();
+        JedisShardInfo shardInfo = new JedisShardInfo("localhost",
+                Protocol.DEFAULT_PORT);
+        shardInfo.setPassword("foobared");
+        shardInfo.setCommandStats(stats);
+        Jedis jedis = new Jedis(shardInfo);
+        jedis.set("foo", "bar");
+        assertEquals("bar", jedis.get("foo"));
+        Pipeline p = jedis.pipelined();
+        p.get("foo");
+        p.incr("foo");
+        p.sync();
+        jedis.disconnect();
+
+        CommandStats.Counters get = stats.get(Command.GET);
+        assertEquals(2, get.getSentCount());
+        assertEquals(2, get.getReplyCount());
+        assertEquals(0, get.getErrorCount());
+        // *2\r\n$3\r\nGET\r\n$3\r\nfoo\r\n and $3\r\nbar\r\n
+        assertEquals(2 * 22, get.getBytesWritten());
+        assertEquals(2 * 9, get.getBytesRead());
+        assertEquals(1, stats.get(Command.INCR).getErrorCount());
+        assertEquals(1, stats.get(Command.SET).getSentCount());
+        assertEquals(1, stats.get(Command.AUTH).getSentCount());
+        assertEquals(0, stats.get(Command.DEL).getSentCount());
+    }
+
+    @Test
+    public void commandStatsCountFailingVisitors() {
+        CommandStats stats = new CommandStats();
+        JedisShardInfo shardInfo = new JedisShardInfo("localhost",
+                Protocol.DEFAULT_PORT);
+        shardInfo.setPassword("foobared");
+        shardInfo.setCommandStats(stats);
+        Jedis jedis = new Jedis(shardInfo);
+        jedis.rpush("foo", "a");
+        jedis.rpush("foo", "b");
+        try {
+            jedis.lrange("foo", 0, -1, new ReplyVisitor<String>() {
+                public void visit(String element) {
+                    throw new IllegalStateException(element);
+                }
+            });
+            fail("the visitor should have thrown");
+        } catch (IllegalStateException e) {
+            assertEquals("a", e.getMessage());
+        }
+        jedis.disconnect();
+
+        CommandStats.Counters lrange = stats.get(Command.LRANGE);
+        assertEquals(1, lrange.getSentCount());
+        assertEquals(1, lrange.getReplyCount());
+        assertEquals(1, lrange.getErrorCount());
+    }
+}
@@ -8,6 +8,7 @@ import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -50,6 +51,69 @@ public class PipeliningTest extends Assert {
 
     }
 
+    @Test
+    public void compactPipeline() {
+        Pipeline p = jedis.pipelined();
+        p.setCompact(true);
+        assertNull(p.set("foo", "bar"));
+        p.get("foo");
+        p.incr("foo");
+        p.llen("missing");
+
+        final List<Object> replies = new ArrayList<Object>();
+        assertEquals(4, p.sync(new ReplyVisitor<Object>() {
+            public void visit(Object reply) {
+                replies.add(reply);
+            }
+        }));
+
+        assertEquals("OK", replies.get(0));
+        assertEquals("bar", replies.get(1));
+        assertTrue(replies.get(2) instanceof JedisDataException);
+        assertEquals(Long.valueOf(0), replies.get(3));
+
+        p.get("foo");
+        assertEquals(1, p.syncAndReturnAll().size());
+        p.setCompact(false);
+        Response<String> foo = p.get("foo");
+        p.sync();
+        assertEquals("bar", foo.get());
+    }
+
+    @Test
+    public void windowedPipeline() {
+        Pipeline p = jedis.pipelined();
+        p.setCompact(true);
+        final List<Object> replies = new ArrayList<Object>();
+        p.setWindow(10, 0, new ReplyVisitor<Object>() {
+            public void visit(Object reply) {
+                replies.add(reply);
+            }
+        });
+        for (int i = 0; i < 1000; i++) {
+            p.incr("counter");
+            assertTrue(i + 1 - replies.size() < 10);
+        }
+        p.sync(new ReplyVisitor<Object>() {
+            public void visit(Object reply) {
+                replies.add(reply);
+            }
+        });
+        assertEquals(1000, replies.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Long.valueOf(i + 1), replies.get(i));
+        }
+
+        p.setCompact(false);
+        p.setWindow(0, 1024);
+        Response<String> first = p.set("foo", "bar");
+        for (int i = 0; i < 100; i++) {
+            p.set("foo" + i, "bar");
+        }
+        assertEquals("OK", first.get());
+        p.sync();
+    }
+
     @Test
     public void pipelineResponse() {
         jedis.set("string", "foo");
@@ -2,16 +2,25 @@ package redis.clients.jedis.tests;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
 
 import redis.clients.jedis.Protocol;
+import redis.clients.jedis.ReplyVisitor;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
 import redis.clients.util.RedisInputStream;
 import redis.clients.util.RedisOutputStream;
 import redis.clients.util.SafeEncoder;
@@ -39,6 +48,87 @@ public class ProtocolTest extends JedisTestBase {
         assertEquals(expectedCommand, sb.toString());
     }
 
+    @Test
+    public void buildACommandWithKeyword() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        RedisOutputStream ros = new RedisOutputStream(bos);
+        Protocol.sendCommand(ros, Protocol.Command.CONFIG,
+                Protocol.Keyword.GET, SafeEncoder.encode("maxmemory"));
+        ros.flush();
+
+        assertEquals("*3\r\n$6\r\nCONFIG\r\n$3\r\nget\r\n$9\r\nmaxmemory\r\n",
+                SafeEncoder.encode(bos.toByteArray()));
+    }
+
+    @Test
+    public void buildACommandWithLargeArgument() throws IOException {
+        byte[] value = new byte[1000];
+        Arrays.fill(value, (byte) 'x');
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        RedisOutputStream ros = new RedisOutputStream(bos);
+        Protocol.sendCommand(ros, Protocol.Command.SET,
+                SafeEncoder.encode("foo"), value);
+        ros.flush();
+
+        assertEquals("*3\r\n$3\r\nSET\r\n$3\r\nfoo\r\n$1000\r\n"
+                + SafeEncoder.encode(value) + "\r\n",
+                SafeEncoder.encode(bos.toByteArray()));
+    }
+
+    @Test
+    public void buildACommandFromByteBuffer() throws IOException {
+        byte[] key = SafeEncoder.encode("foo");
+        byte[] value = SafeEncoder.encode("some value");
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        RedisOutputStream ros = new RedisOutputStream(expected);
+        Protocol.sendCommand(ros, Protocol.Command.SET, key, value);
+        ros.flush();
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(value.length);
+        direct.put(value).flip();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        ros = new RedisOutputStream(actual, 4);
+        Protocol.sendCommand(ros, Protocol.Command.SET, new byte[][] { key },
+                direct);
+        ros.flush();
+
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        assertEquals(0, direct.position());
+    }
+
+    @Test
+    public void writeDirectBufferFillingTheBuffer() throws IOException {
+        ByteBuffer direct = ByteBuffer.allocateDirect(4);
+        direct.put(SafeEncoder.encode("abcd")).flip();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        RedisOutputStream ros = new RedisOutputStream(actual, 4);
+        ros.write(direct);
+        ros.write((byte) 'e');
+        ros.flush();
+
+        assertEquals("abcde", SafeEncoder.encode(actual.toByteArray()));
+    }
+
+    @Test
+    public void buildACommandFromStrings() throws IOException {
+        String[] args = { "SOMEKEY", "caf\u00e9 \u20ac \ud83d\ude00",
+                "lone \ud83d surrogate" };
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        RedisOutputStream ros = new RedisOutputStream(expected);
+        Protocol.sendCommand(ros, Protocol.Command.SET,
+                SafeEncoder.encodeMany(args));
+        ros.flush();
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        ros = new RedisOutputStream(actual, 4);
+        Protocol.sendCommand(ros, Protocol.Command.SET, args);
+        ros.flush();
+
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
     @Test
     public void bulkReply() {
         InputStream is = new ByteArrayInputStream("$6\r\nfoobar\r\n".getBytes());
@@ -55,6 +145,70 @@ public class ProtocolTest extends JedisTestBase {
                 response);
     }
 
+    @Test
+    public void streamedBulkReply() {
+        FragmentedByteArrayInputStream fis = new FragmentedByteArrayInputStream(
+                "$30\r\n012345678901234567890123456789\r\n:1\r\n".getBytes());
+        RedisInputStream is = new RedisInputStream(fis, 8);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        assertEquals(30, Protocol.readBulkReply(is, bos));
+        assertArrayEquals(SafeEncoder.encode("012345678901234567890123456789"),
+                bos.toByteArray());
+        assertEquals(1, Protocol.readLong(is));
+    }
+
+    @Test
+    public void bulkReplyIntoByteBuffer() {
+        FragmentedByteArrayInputStream fis = new FragmentedByteArrayInputStream(
+                "$6\r\nfoobar\r\n$6\r\nfoobar\r\n:1\r\n".getBytes());
+        RedisInputStream is = new RedisInputStream(fis, 4);
+        ByteBuffer dst = ByteBuffer.allocateDirect(8);
+        assertEquals(6, Protocol.readBulkReply(is, dst));
+        assertEquals(6, dst.position());
+
+        try {
+            Protocol.readBulkReply(is, dst);
+            fail("The value should not fit in the buffer");
+        } catch (BufferOverflowException e) {
+        }
+        assertEquals(6, dst.position());
+        assertEquals(1, Protocol.readLong(is));
+
+        byte[] value = new byte[6];
+        dst.flip();
+        dst.get(value);
+        assertArrayEquals(SafeEncoder.encode("foobar"), value);
+    }
+
+    @Test
+    public void streamedNullBulkReply() {
+        InputStream is = new ByteArrayInputStream("$-1\r\n".getBytes());
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        assertEquals(-1,
+                Protocol.readBulkReply(new RedisInputStream(is), bos));
+        assertEquals(0, bos.size());
+    }
+
+    @Test
+    public void streamedBulkReplyToFailingSink() {
+        InputStream is = new ByteArrayInputStream(
+                "$6\r\nfoobar\r\n+OK\r\n".getBytes());
+        RedisInputStream ris = new RedisInputStream(is);
+        try {
+            Protocol.readBulkReply(ris, new OutputStream() {
+                public void write(int b) throws IOException {
+                    throw new IOException("disk full");
+                }
+            });
+            fail("The sink failure should have been reported");
+        } catch (JedisException e) {
+            assertFalse(e instanceof JedisConnectionException);
+        }
+        // the connection is still usable
+        assertArrayEquals(SafeEncoder.encode("OK"),
+                (byte[]) Protocol.read(ris));
+    }
+
     @Test
     public void nullBulkReply() {
         InputStream is = new ByteArrayInputStream("$-1\r\n".getBytes());
@@ -76,6 +230,72 @@ public class ProtocolTest extends JedisTestBase {
         assertEquals(123, response);
     }
 
+    @Test
+    public void negativeIntegerReply() {
+        InputStream is = new ByteArrayInputStream(":-9876543210\r\n".getBytes());
+        long response = (Long) Protocol.read(new RedisInputStream(is));
+        assertEquals(-9876543210L, response);
+    }
+
+    @Test
+    public void primitiveIntegerReply() {
+        InputStream is = new ByteArrayInputStream(":42\r\n".getBytes());
+        assertEquals(42, Protocol.readLong(new RedisInputStream(is)));
+    }
+
+    @Test(expected = JedisDataException.class)
+    public void primitiveIntegerErrorReply() {
+        InputStream is = new ByteArrayInputStream(
+                "-ERR value is not an integer\r\n".getBytes());
+        Protocol.readLong(new RedisInputStream(is));
+    }
+
+    @Test
+    public void fragmentedIntegerReply() {
+        FragmentedByteArrayInputStream fis = new FragmentedByteArrayInputStream(
+                ":1234567890123\r\n".getBytes());
+        long response = (Long) Protocol.read(new RedisInputStream(fis, 4));
+        assertEquals(1234567890123L, response);
+    }
+
+    @Test
+    public void fragmentedSingleLineReply() {
+        FragmentedByteArrayInputStream fis = new FragmentedByteArrayInputStream(
+                "+QUEUED\r\n".getBytes());
+        byte[] response = (byte[]) Protocol.read(new RedisInputStream(fis, 3));
+        assertArrayEquals(SafeEncoder.encode("QUEUED"), response);
+    }
+
+    @Test
+    public void extremeIntegerReplies() {
+        InputStream is = new ByteArrayInputStream(
+                ":9223372036854775807\r\n:-9223372036854775808\r\n".getBytes());
+        RedisInputStream ris = new RedisInputStream(is);
+        assertEquals(Long.MAX_VALUE, Protocol.readLong(ris));
+        assertEquals(Long.MIN_VALUE, Protocol.readLong(ris));
+    }
+
+    @Test
+    public void malformedNumbers() {
+        String[] replies = { ":12a\r\n", ":\r\n", ":-\r\n", "$x\r\n",
+                ":9223372036854775808\r\n", "$2147483648\r\n",
+                "*-2147483649\r\n" };
+        for (String reply : replies) {
+            InputStream is = new ByteArrayInputStream(reply.getBytes());
+            try {
+                Protocol.read(new RedisInputStream(is));
+                fail("Should have rejected " + reply.trim());
+            } catch (JedisConnectionException e) {
+            }
+        }
+    }
+
+    @Test(expected = JedisConnectionException.class)
+    public void closedConnectionReply() {
+        InputStream is = new ByteArrayInputStream("$12".getBytes());
+        Protocol.read(new RedisInputStream(is));
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void multiBulkReply() {
@@ -93,6 +313,45 @@ public class ProtocolTest extends JedisTestBase {
         assertEquals(expected, response);
     }
 
+    @Test
+    public void visitedMultiBulkReply() {
+        FragmentedByteArrayInputStream fis = new FragmentedByteArrayInputStream(
+                "*3\r\n$3\r\nfoo\r\n$-1\r\n$5\r\nHello\r\n:7\r\n"
+                        .getBytes());
+        RedisInputStream is = new RedisInputStream(fis, 8);
+        final List<byte[]> visited = new ArrayList<byte[]>();
+        int count = Protocol.readMultiBulkReply(is, new ReplyVisitor<byte[]>() {
+            public void visit(byte[] element) {
+                visited.add(element);
+            }
+        });
+
+        List<byte[]> expected = new ArrayList<byte[]>();
+        expected.add(SafeEncoder.encode("foo"));
+        expected.add(null);
+        expected.add(SafeEncoder.encode("Hello"));
+        assertEquals(3, count);
+        assertEquals(expected, visited);
+        assertEquals(7, Protocol.readLong(is));
+    }
+
+    @Test
+    public void failingVisitorKeepsConnectionInSync() {
+        InputStream is = new ByteArrayInputStream(
+                "*2\r\n$3\r\nfoo\r\n$3\r\nbar\r\n:7\r\n".getBytes());
+        RedisInputStream ris = new RedisInputStream(is);
+        try {
+            Protocol.readMultiBulkReply(ris, new ReplyVisitor<byte[]>() {
+                public void visit(byte[] element) {
+                    throw new IllegalStateException();
+                }
+            });
+            fail("The visitor failure should have been rethrown");
+        } catch (IllegalStateException e) {
+        }
+        assertEquals(7, Protocol.readLong(ris));
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void nullMultiBulkReply() {
@@ -101,4 +360,57 @@ public class ProtocolTest extends JedisTestBase {
                 .read(new RedisInputStream(is));
         assertNull(response);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void adaptiveInputBufferGrowsForLargePayloads() {
+        StringBuilder sb = new StringBuilder();
+        for (int n = 0; n < 4; n++) {
+            sb.append("$40\r\n0123456789012345678901234567890123456789\r\n");
+        }
+        RedisInputStream is = new RedisInputStream(new ByteArrayInputStream(
+                sb.toString().getBytes()), 16);
+        is.setMaxBufferSize(64);
+
+        for (int n = 0; n < 4; n++) {
+            assertEquals("0123456789012345678901234567890123456789",
+                    SafeEncoder.encode((byte[]) Protocol.read(is)));
+        }
+        assertEquals(64, is.getBufferSize());
+    }
+
+    @Test
+    public void fixedInputBufferDoesNotGrow() {
+        StringBuilder sb = new StringBuilder();
+        for (int n = 0; n < 4; n++) {
+            sb.append("$20\r\n01234567890123456789\r\n");
+        }
+        RedisInputStream is = new RedisInputStream(new ByteArrayInputStream(
+                sb.toString().getBytes()), 16);
+
+        for (int n = 0; n < 4; n++) {
+            assertEquals("01234567890123456789",
+                    SafeEncoder.encode((byte[]) Protocol.read(is)));
+        }
+        assertEquals(16, is.getBufferSize());
+    }
+
+    @Test
+    public void adaptiveOutputBufferGrowsForLargePipelines()
+            throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        RedisOutputStream ros = new RedisOutputStream(bos, 16);
+        ros.setMaxBufferSize(32);
+
+        for (int n = 0; n < 10; n++) {
+            Protocol.sendCommand(ros, Protocol.Command.GET, "foo");
+        }
+        ros.flush();
+
+        assertEquals(32, ros.getBufferSize());
+        StringBuilder expected = new StringBuilder();
+        for (int n = 0; n < 10; n++) {
+            expected.append("*2\r\n$3\r\nGET\r\n$3\r\nfoo\r\n");
+        }
+        assertEquals(expected.toString(), bos.toString());
+    }
+}
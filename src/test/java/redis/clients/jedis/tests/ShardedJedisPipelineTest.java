@@ -4,13 +4,17 @@ import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNull;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -21,6 +25,7 @@ import redis.clients.jedis.Response;
 import redis.clients.jedis.ShardedJedis;
 import redis.clients.jedis.ShardedJedisPipeline;
 import redis.clients.jedis.Tuple;
+import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.exceptions.JedisDataException;
 
 public class ShardedJedisPipelineTest {
@@ -121,4 +126,50 @@ public class ShardedJedisPipelineTest {
         p.sync();
         assertNull(shouldNotExist.get());
     }
+
+    @Test
+    public void syncReadsShardsConcurrently() {
+        ShardedJedisPipeline p = jedis.pipelined();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        p.setExecutor(executor);
+        List<Response<Long>> counters = new ArrayList<Response<Long>>();
+        for (int i = 0; i < 100; i++) {
+            p.set("foo" + i, "bar");
+            counters.add(p.incr("counter" + i % 10));
+        }
+        List<Object> results = p.syncAndReturnAll();
+        executor.shutdown();
+
+        assertEquals(200, results.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("OK", results.get(2 * i));
+            assertEquals(Long.valueOf(i / 10 + 1), results.get(2 * i + 1));
+            assertEquals(Long.valueOf(i / 10 + 1), counters.get(i).get());
+        }
+        assertEquals("bar", jedis.get("foo99"));
+    }
+
+    @Test
+    public void failedShardStillDrainsTheOthers() throws IOException {
+        String a = "a";
+        String b = "b";
+        for (int i = 0; jedis.getShard(a) == jedis.getShard(b); i++) {
+            b = "b" + i;
+        }
+        ShardedJedisPipeline p = jedis.pipelined();
+        p.set(a, "a");
+        p.set(b, "b");
+        jedis.getShard(a).getClient().getSocket().shutdownOutput();
+        try {
+            p.sync();
+            fail("the broken shard should have failed the sync");
+        } catch (JedisConnectionException e) {
+        }
+
+        p.get(b);
+        List<Object> results = p.syncAndReturnAll();
+        assertEquals(1, results.size());
+        assertEquals("b", results.get(0));
+    }
 }
+
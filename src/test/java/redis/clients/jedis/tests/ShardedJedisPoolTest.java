@@ -11,10 +11,15 @@ import org.junit.Test;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.ShardMover;
 import redis.clients.jedis.ShardedJedis;
+import redis.clients.jedis.ShardedJedisPipeline;
 import redis.clients.jedis.ShardedJedisPool;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+import redis.clients.util.Hashing;
+import redis.clients.util.PoolConfig;
+import redis.clients.util.ShardingStrategy;
 
 public class ShardedJedisPoolTest extends Assert {
     private static HostAndPort redis1 = HostAndPortUtil.getRedisServers()
@@ -51,6 +56,140 @@ public class ShardedJedisPoolTest extends Assert {
         pool.destroy();
     }
 
+    @Test
+    public void checkConnectionsWithStrategies() {
+        for (ShardingStrategy strategy : new ShardingStrategy[] {
+                ShardingStrategy.JUMP, ShardingStrategy.RENDEZVOUS }) {
+            ShardedJedisPool pool = new ShardedJedisPool(new Config(),
+                    shards, strategy);
+            ShardedJedis jedis = pool.getResource();
+            for (int i = 0; i < 20; i++) {
+                jedis.set("foo" + i, "bar" + i);
+            }
+            pool.returnResource(jedis);
+
+            jedis = pool.getResource();
+            for (int i = 0; i < 20; i++) {
+                assertEquals("bar" + i, jedis.get("foo" + i));
+            }
+            pool.returnResource(jedis);
+            pool.destroy();
+        }
+    }
+
+    @Test
+    public void migrateToAddedShard() {
+        List<JedisShardInfo> previousShards = shards.subList(0, 1);
+        ShardedJedisPool previousPool = new ShardedJedisPool(new Config(),
+                previousShards);
+        ShardedJedis jedis = previousPool.getResource();
+        for (int i = 0; i < 100; i++) {
+            jedis.set("foo" + i, "bar" + i);
+            jedis.hset("hash" + i, "a", "1");
+        }
+        jedis.rpush("list", "a", "b");
+        jedis.hset("hash", "field", "value");
+        previousPool.returnResource(jedis);
+        previousPool.destroy();
+
+        ShardedJedisPool pool = new ShardedJedisPool(new Config(), shards,
+                previousShards, Hashing.MURMUR_HASH, null,
+                ShardingStrategy.RING);
+        assertTrue(pool.isMigrating());
+        jedis = pool.getResource();
+        List<String> moving = new ArrayList<String>();
+        List<String> movingHashes = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            // every key is still found, moving or not
+            assertEquals("bar" + i, jedis.get("foo" + i));
+            if (jedis.getShardInfo("foo" + i) == shards.get(1)) {
+                moving.add("foo" + i);
+            }
+            if (jedis.getShardInfo("hash" + i) == shards.get(1)) {
+                movingHashes.add("hash" + i);
+            }
+        }
+        assertFalse(moving.isEmpty());
+        assertTrue(movingHashes.size() > 1);
+        jedis.set(moving.get(0), "newer");
+        jedis.del(moving.get(1));
+        assertNull(jedis.get(moving.get(1)));
+        assertFalse(jedis.exists(moving.get(1)));
+        // a field added to a hash not moved yet joins the ones it has
+        jedis.hset(movingHashes.get(0), "b", "2");
+        assertEquals(2, jedis.hgetAll(movingHashes.get(0)).size());
+        ShardedJedisPipeline p = jedis.pipelined();
+        p.hset(movingHashes.get(1), "b", "2");
+        p.sync();
+        assertEquals(2, jedis.hgetAll(movingHashes.get(1)).size());
+        // the keys read or written above were moved by the client
+        int left = movingHashes.size() - 2;
+        for (String key : new String[] { "list", "hash" }) {
+            if (jedis.getShardInfo(key) == shards.get(1)) {
+                left++;
+            }
+        }
+        pool.returnResource(jedis);
+
+        ShardMover mover = pool.migrate();
+        assertFalse(pool.isMigrating());
+        assertEquals(left, mover.getMoved());
+
+        Jedis first = new Jedis(shards.get(0));
+        jedis = pool.getResource();
+        assertFalse(jedis.isMigrating());
+        assertEquals("newer", jedis.get(moving.get(0)));
+        assertNull(jedis.get(moving.get(1)));
+        for (String key : moving) {
+            assertFalse(first.exists(key));
+        }
+        for (String key : movingHashes) {
+            assertFalse(first.exists(key));
+        }
+        assertEquals(2, jedis.hgetAll(movingHashes.get(0)).size());
+        assertEquals(2, jedis.hgetAll(movingHashes.get(1)).size());
+        for (String key : moving.subList(2, moving.size())) {
+            assertEquals(key.replace("foo", "bar"), jedis.get(key));
+        }
+        first.disconnect();
+        assertEquals(2, jedis.lrange("list", 0, -1).size());
+        assertEquals("value", jedis.hget("hash", "field"));
+        pool.returnResource(jedis);
+        pool.destroy();
+    }
+
+    @Test
+    public void migrationEndsForInstancesKeptByThreads()
+            throws InterruptedException {
+        List<JedisShardInfo> previousShards = shards.subList(0, 1);
+        PoolConfig config = new PoolConfig();
+        config.setThreadAffinity(true);
+        final ShardedJedisPool pool = new ShardedJedisPool(config, shards,
+                previousShards, Hashing.MURMUR_HASH, null,
+                ShardingStrategy.RING);
+        ShardedJedis jedis = pool.getResource();
+        assertTrue(jedis.isMigrating());
+        jedis.set("foo", "bar");
+        pool.returnResource(jedis);
+
+        // migrated from another thread, while this one keeps its instance
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                pool.migrate();
+            }
+        });
+        thread.start();
+        thread.join();
+        assertFalse(pool.isMigrating());
+
+        ShardedJedis kept = pool.getResource();
+        assertSame(jedis, kept);
+        assertFalse(kept.isMigrating());
+        assertEquals("bar", kept.get("foo"));
+        pool.returnResource(kept);
+        pool.destroy();
+    }
+
     @Test
     public void checkConnectionWithDefaultPort() {
         ShardedJedisPool pool = new ShardedJedisPool(new Config(), shards);
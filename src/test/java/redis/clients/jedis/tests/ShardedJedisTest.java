@@ -2,6 +2,8 @@ package redis.clients.jedis.tests;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -15,6 +17,7 @@ import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
 import redis.clients.util.Hashing;
 import redis.clients.util.SafeEncoder;
 import redis.clients.util.Sharded;
+import redis.clients.util.ShardingStrategy;
 
 public class ShardedJedisTest extends Assert {
     private static HostAndPort redis1 = HostAndPortUtil.getRedisServers()
@@ -50,6 +53,49 @@ public class ShardedJedisTest extends Assert {
         assertNotSame(s1, s2);
     }
 
+    @Test
+    public void multiKeyCommandsAcrossShards() {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        JedisShardInfo si = new JedisShardInfo(redis1.host, redis1.port);
+        si.setPassword("foobared");
+        shards.add(si);
+        si = new JedisShardInfo(redis2.host, redis2.port);
+        si.setPassword("foobared");
+        shards.add(si);
+        ShardedJedis jedis = new ShardedJedis(shards);
+        for (Jedis shard : jedis.getAllShards()) {
+            shard.flushDB();
+        }
+
+        String[] keysvalues = new String[40];
+        String[] keys = new String[21];
+        for (int i = 0; i < 20; i++) {
+            keysvalues[2 * i] = "key" + i;
+            keysvalues[2 * i + 1] = "value" + i;
+            keys[i] = "key" + i;
+        }
+        keys[20] = "missing";
+        assertEquals("OK", jedis.mset(keysvalues));
+
+        List<String> values = jedis.mget(keys);
+        assertEquals(21, values.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals("value" + i, values.get(i));
+            assertEquals("value" + i, jedis.get("key" + i));
+        }
+        assertNull(values.get(20));
+
+        List<byte[]> binaryValues = jedis.mget(SafeEncoder.encode("key3"),
+                SafeEncoder.encode("missing"), SafeEncoder.encode("key1"));
+        assertEquals("value3", SafeEncoder.encode(binaryValues.get(0)));
+        assertNull(binaryValues.get(1));
+        assertEquals("value1", SafeEncoder.encode(binaryValues.get(2)));
+
+        assertEquals(Long.valueOf(20), jedis.del(keys));
+        assertNull(jedis.get("key0"));
+        jedis.disconnect();
+    }
+
     @Test
     public void trySharding() {
         List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
@@ -140,6 +186,137 @@ public class ShardedJedisTest extends Assert {
         assertNotSame(s5, s6);
     }
 
+    @Test
+    public void binaryKeysHonourKeyTags() {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        shards.add(new JedisShardInfo(redis1.host, redis1.port));
+        shards.add(new JedisShardInfo(redis2.host, redis2.port));
+        ShardedJedis jedis = new ShardedJedis(shards,
+                ShardedJedis.DEFAULT_KEY_TAG_PATTERN);
+
+        // the scan agrees with the pattern on its edge cases
+        String[] keys = { "{}", "{}}", "{{}}", "a{b", "a}b{", "{\n}x{y}",
+                "{a\nb}", "{\u2028}", "{\u00e9}", "x{\u00e9\u2029}{z}",
+                "{a}{b}", "{{a}", "}{a}" };
+        for (String key : keys) {
+            Matcher m = ShardedJedis.DEFAULT_KEY_TAG_PATTERN.matcher(key);
+            assertEquals(m.find() ? m.group(1) : key, jedis.getKeyTag(key));
+        }
+
+        List<String> different = getKeysDifferentShard(jedis);
+        for (String key : different) {
+            assertSame(jedis.getShardInfo(key), jedis.getShardInfo(SafeEncoder
+                    .encode(key)));
+            String tagged = "x{" + key + "}\u00e9";
+            assertSame(jedis.getShardInfo(key), jedis.getShardInfo(tagged));
+            assertSame(jedis.getShardInfo(key), jedis.getShardInfo(SafeEncoder
+                    .encode(tagged)));
+        }
+    }
+
+    @Test
+    public void keyTagsWithCustomHashing() {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        shards.add(new JedisShardInfo(redis1.host, redis1.port));
+        shards.add(new JedisShardInfo(redis2.host, redis2.port));
+        // implements only the two methods Hashing has always had
+        Hashing custom = new Hashing() {
+            public long hash(String key) {
+                return hash(SafeEncoder.encode(key));
+            }
+
+            public long hash(byte[] key) {
+                return Hashing.MURMUR_HASH.hash(key);
+            }
+        };
+        ShardedJedis jedis = new ShardedJedis(shards, custom,
+                ShardedJedis.DEFAULT_KEY_TAG_PATTERN);
+        ShardedJedis murmur = new ShardedJedis(shards, Hashing.MURMUR_HASH,
+                ShardedJedis.DEFAULT_KEY_TAG_PATTERN);
+
+        for (String key : getKeysDifferentShard(murmur)) {
+            String tagged = "x{" + key + "}y";
+            assertSame(jedis.getShardInfo(key), jedis.getShardInfo(tagged));
+            assertSame(jedis.getShardInfo(key), jedis.getShardInfo(SafeEncoder
+                    .encode(tagged)));
+        }
+    }
+
+    @Test
+    public void untaggedBinaryKeysAreHashedAsTheyAre() {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        shards.add(new JedisShardInfo(redis1.host, redis1.port));
+        shards.add(new JedisShardInfo(redis2.host, redis2.port));
+        ShardedJedis tagged = new ShardedJedis(shards, Pattern
+                .compile("<(.+?)>"));
+        ShardedJedis plain = new ShardedJedis(shards);
+
+        // 0xff never appears in UTF-8, so decoding these keys is lossy
+        for (int i = 0; i < 100; i++) {
+            byte[] key = { (byte) 0xff, (byte) i, 'k' };
+            assertSame(plain.getShardInfo(key), tagged.getShardInfo(key));
+        }
+    }
+
+    @Test
+    public void jumpHashOnlyMovesKeysToAppendedShards() {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        shards.add(new JedisShardInfo(redis1.host, redis1.port));
+        shards.add(new JedisShardInfo(redis2.host, redis2.port));
+        ShardedJedis before = new ShardedJedis(shards, Hashing.MURMUR_HASH,
+                null, ShardingStrategy.JUMP);
+        shards.add(new JedisShardInfo("localhost", 6381));
+        ShardedJedis after = new ShardedJedis(shards, Hashing.MURMUR_HASH,
+                null, ShardingStrategy.JUMP);
+
+        int moved = 0;
+        for (int i = 0; i < 3000; i++) {
+            JedisShardInfo shard = after.getShardInfo("key" + i);
+            if (shard != before.getShardInfo("key" + i)) {
+                assertSame(shards.get(2), shard);
+                moved++;
+            }
+        }
+        // a third of the keys, give or take
+        assertTrue(moved > 800 && moved < 1200);
+    }
+
+    @Test
+    public void rendezvousOnlyMovesKeysOfRemovedShards() {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        shards.add(new JedisShardInfo(redis1.host, redis1.port, "first"));
+        shards.add(new JedisShardInfo("localhost", 6381, "removed"));
+        shards.add(new JedisShardInfo(redis2.host, redis2.port, "last"));
+        assertOnlyKeysOfRemovedShardMove(shards);
+
+        // unnamed shards are known by host and port, not by position
+        shards = new ArrayList<JedisShardInfo>();
+        shards.add(new JedisShardInfo(redis1.host, redis1.port));
+        shards.add(new JedisShardInfo("localhost", 6381));
+        shards.add(new JedisShardInfo(redis2.host, redis2.port));
+        assertOnlyKeysOfRemovedShardMove(shards);
+    }
+
+    private void assertOnlyKeysOfRemovedShardMove(List<JedisShardInfo> shards) {
+        ShardedJedis before = new ShardedJedis(shards, Hashing.MURMUR_HASH,
+                null, ShardingStrategy.RENDEZVOUS);
+        List<JedisShardInfo> remaining = new ArrayList<JedisShardInfo>(shards);
+        remaining.remove(1);
+        ShardedJedis after = new ShardedJedis(remaining, Hashing.MURMUR_HASH,
+                null, ShardingStrategy.RENDEZVOUS);
+
+        int removed = 0;
+        for (int i = 0; i < 3000; i++) {
+            JedisShardInfo shard = before.getShardInfo("key" + i);
+            if (shard == shards.get(1)) {
+                removed++;
+            } else {
+                assertSame(shard, after.getShardInfo("key" + i));
+            }
+        }
+        assertTrue(removed > 800 && removed < 1200);
+    }
+
     @Test
     public void shardedPipeline() {
         List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
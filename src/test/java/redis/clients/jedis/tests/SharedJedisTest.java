@@ -0,0 +1,78 @@
+package redis.clients.jedis.tests;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.BuilderFactory;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.SharedJedis;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+
+public class SharedJedisTest extends JedisTestBase {
+    private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+
+    private SharedJedis jedis;
+
+    @Before
+    public void setUp() {
+        JedisShardInfo shardInfo = new JedisShardInfo(hnp.host, hnp.port);
+        shardInfo.setPassword("foobared");
+        jedis = new SharedJedis(shardInfo);
+        jedis.execute(BuilderFactory.STRING, Protocol.Command.FLUSHALL,
+                new byte[0][]);
+    }
+
+    @After
+    public void tearDown() {
+        jedis.disconnect();
+    }
+
+    @Test
+    public void concurrentCallers() throws InterruptedException {
+        Thread[] threads = new Thread[20];
+        final String[] failures = new String[threads.length];
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t;
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int n = 0; n < 500; n++) {
+                        jedis.incr("counter");
+                        String key = "key" + id + ":" + n;
+                        jedis.set(key, key);
+                        if (!key.equals(jedis.get(key))) {
+                            failures[id] = key;
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (String failure : failures) {
+            assertNull(failure);
+        }
+        assertEquals("10000", jedis.get("counter"));
+    }
+
+    @Test
+    public void errorReplyOnlyFailsItsCaller() {
+        jedis.set("foo", "bar");
+        try {
+            jedis.incr("foo");
+            fail("INCR of a string should have failed");
+        } catch (JedisDataException e) {
+        }
+        assertEquals("bar", jedis.get("foo"));
+    }
+
+    @Test(expected = JedisDataException.class)
+    public void failWhenSendingNullValues() {
+        jedis.set("foo", null);
+    }
+}
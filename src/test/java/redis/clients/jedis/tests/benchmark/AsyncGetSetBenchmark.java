@@ -0,0 +1,56 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.util.Calendar;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import redis.clients.jedis.netty.AsyncJedis;
+import redis.clients.jedis.netty.ReplyFuture;
+import redis.clients.jedis.tests.HostAndPortUtil;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+
+/**
+ * Many threads doing synchronous-looking SET/GET round trips over a single
+ * shared AsyncJedis connection.
+ */
+public class AsyncGetSetBenchmark {
+    private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+    private static final int TOTAL_OPERATIONS = 200000;
+    private static final int THREADS = 50;
+
+    public static void main(String[] args) throws Exception {
+        final AsyncJedis jedis = AsyncJedis.getInstance(hnp.host, hnp.port,
+                "foobared", 2000);
+        final AtomicInteger ind = new AtomicInteger();
+
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            threads[t] = new Thread() {
+                public void run() {
+                    try {
+                        for (int i = 0; (i = ind.getAndIncrement()) < TOTAL_OPERATIONS;) {
+                            final String key = "foo" + i;
+                            jedis.set(key, key);
+                            ReplyFuture<String> value = jedis.get(key);
+                            value.get();
+                        }
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            };
+        }
+
+        long begin = Calendar.getInstance().getTimeInMillis();
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        long elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+
+        jedis.close();
+
+        System.out.println(((1000L * 2 * TOTAL_OPERATIONS) / elapsed) + " ops");
+    }
+}
@@ -0,0 +1,68 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.io.IOException;
+import java.net.UnknownHostException;
+import java.util.Calendar;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.tests.HostAndPortUtil;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+
+/**
+ * Compares the default fixed 8k buffers against adaptive ones, both with a
+ * pipeline of small values and with large values.
+ */
+public class BufferSizeBenchmark {
+    private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+    private static final int TOTAL_OPERATIONS = 200000;
+    private static final int LARGE_OPERATIONS = 500;
+    private static final int LARGE_VALUE_SIZE = 1024 * 1024;
+
+    public static void main(String[] args) throws UnknownHostException,
+            IOException {
+        JedisShardInfo fixed = new JedisShardInfo(hnp.host, hnp.port);
+        fixed.setPassword("foobared");
+
+        JedisShardInfo adaptive = new JedisShardInfo(hnp.host, hnp.port);
+        adaptive.setPassword("foobared");
+        adaptive.setMaxBufferSize(2 * LARGE_VALUE_SIZE);
+        adaptive.setSendBufferSize(256 * 1024);
+        adaptive.setReceiveBufferSize(256 * 1024);
+
+        run("fixed", fixed);
+        run("adaptive", adaptive);
+    }
+
+    private static void run(String name, JedisShardInfo shardInfo) {
+        Jedis jedis = new Jedis(shardInfo);
+        jedis.connect();
+        jedis.flushAll();
+
+        long begin = Calendar.getInstance().getTimeInMillis();
+        Pipeline p = jedis.pipelined();
+        for (int n = 0; n < TOTAL_OPERATIONS; n++) {
+            String key = "foo" + n;
+            p.set(key, "bar" + n);
+            p.get(key);
+        }
+        p.sync();
+        long elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+        System.out.println(name + " pipelined: "
+                + ((1000L * 2 * TOTAL_OPERATIONS) / elapsed) + " ops");
+
+        byte[] key = "large".getBytes();
+        byte[] value = new byte[LARGE_VALUE_SIZE];
+        begin = Calendar.getInstance().getTimeInMillis();
+        for (int n = 0; n < LARGE_OPERATIONS; n++) {
+            jedis.set(key, value);
+            jedis.get(key);
+        }
+        elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+        System.out.println(name + " 1MB values: "
+                + ((1000L * 2 * LARGE_OPERATIONS) / elapsed) + " ops");
+
+        jedis.disconnect();
+    }
+}
@@ -0,0 +1,84 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Calendar;
+
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.util.RedisOutputStream;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * Measures how fast GET, SET and MGET commands are encoded, comparing the
+ * digit by digit framing Protocol used to do with the cached headers.
+ */
+public class CommandEncodeBenchmark {
+    private static final int TOTAL_OPERATIONS = 10000000;
+
+    private static final byte[] KEY = SafeEncoder.encode("foo:1234");
+    private static final byte[] VALUE = SafeEncoder.encode("bar:1234");
+    private static final byte[][] KEYS = new byte[10][];
+
+    static {
+        for (int i = 0; i < KEYS.length; i++) {
+            KEYS[i] = SafeEncoder.encode("foo:" + i);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        RedisOutputStream os = new RedisOutputStream(new OutputStream() {
+            public void write(int b) {
+            }
+
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+
+        // warm up both paths
+        for (int n = 0; n < TOTAL_OPERATIONS / 10; n++) {
+            encodeByDigits(os, Command.MGET, KEYS);
+            Protocol.sendCommand(os, Command.MGET, KEYS);
+        }
+
+        run("GET", os, Command.GET, KEY);
+        run("SET", os, Command.SET, KEY, VALUE);
+        run("MGET", os, Command.MGET, KEYS);
+    }
+
+    private static void run(String name, RedisOutputStream os,
+            Command command, byte[]... args) throws IOException {
+        long begin = Calendar.getInstance().getTimeInMillis();
+        for (int n = 0; n < TOTAL_OPERATIONS; n++) {
+            encodeByDigits(os, command, args);
+        }
+        long elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+        System.out.println(name + " by digits: "
+                + ((1000L * TOTAL_OPERATIONS) / elapsed) + " ops");
+
+        begin = Calendar.getInstance().getTimeInMillis();
+        for (int n = 0; n < TOTAL_OPERATIONS; n++) {
+            Protocol.sendCommand(os, command, args);
+        }
+        elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+        System.out.println(name + " with cached headers: "
+                + ((1000L * TOTAL_OPERATIONS) / elapsed) + " ops");
+    }
+
+    private static void encodeByDigits(RedisOutputStream os,
+            Command command, byte[]... args) throws IOException {
+        os.write(Protocol.ASTERISK_BYTE);
+        os.writeIntCrLf(args.length + 1);
+        os.write(Protocol.DOLLAR_BYTE);
+        os.writeIntCrLf(command.raw.length);
+        os.write(command.raw);
+        os.writeCrLf();
+
+        for (final byte[] arg : args) {
+            os.write(Protocol.DOLLAR_BYTE);
+            os.writeIntCrLf(arg.length);
+            os.write(arg);
+            os.writeCrLf();
+        }
+    }
+}
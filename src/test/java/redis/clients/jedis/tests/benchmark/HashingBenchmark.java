@@ -12,14 +12,22 @@ import redis.clients.jedis.JedisShardInfo;
 import redis.clients.jedis.ShardedJedis;
 import redis.clients.jedis.tests.HostAndPortUtil;
 import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+import redis.clients.util.Hashing;
+import redis.clients.util.SafeEncoder;
 
 public class HashingBenchmark {
     private static HostAndPort hnp1 = HostAndPortUtil.getRedisServers().get(0);
     private static HostAndPort hnp2 = HostAndPortUtil.getRedisServers().get(1);
     private static final int TOTAL_OPERATIONS = 100000;
+    private static final int HASHES = 20000000;
+    private static final int KEYS = 1024;
+    private static final String LONG_SUFFIX = ":0123456789abcdef0123456789abcdef"
+            + "0123456789abcdef0123456789abcdef0123456789abcdef";
 
     public static void main(String[] args) throws UnknownHostException,
             IOException {
+        hashes();
+
         List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
         JedisShardInfo shard = new JedisShardInfo(hnp1.host, hnp1.port);
         shard.setPassword("foobared");
@@ -47,4 +55,61 @@ public class HashingBenchmark {
 
         System.out.println(((1000 * 2 * TOTAL_OPERATIONS) / elapsed) + " ops");
     }
-}
\ No newline at end of file
+
+    /**
+     * Compares the Hashing implementations on String keys, and on their
+     * encoded bytes, short and then long.
+     */
+    private static void hashes() {
+        String[] names = { "MD5", "Murmur", "Murmur3", "xxHash64" };
+        Hashing[] algos = { Hashing.MD5, Hashing.MURMUR_HASH,
+                Hashing.MURMUR3_HASH, Hashing.XXHASH_64 };
+        for (String suffix : new String[] { "", LONG_SUFFIX }) {
+            String[] keys = new String[KEYS];
+            byte[][] binaryKeys = new byte[KEYS][];
+            for (int n = 0; n < KEYS; n++) {
+                keys[n] = "user:" + n + ":session:" + (n * 7919) + suffix;
+                binaryKeys[n] = SafeEncoder.encode(keys[n]);
+            }
+            System.out.println(binaryKeys[0].length + " byte keys");
+            hashes(names, algos, keys, binaryKeys);
+        }
+    }
+
+    private static void hashes(String[] names, Hashing[] algos,
+            String[] keys, byte[][] binaryKeys) {
+        for (int a = 0; a < algos.length; a++) {
+            // warm up
+            hashStrings(algos[a], keys);
+            hashBytes(algos[a], binaryKeys);
+
+            long begin = Calendar.getInstance().getTimeInMillis();
+            hashStrings(algos[a], keys);
+            long elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+            System.out.println(((1000L * HASHES) / elapsed) + " " + names[a]
+                    + " String ops");
+
+            begin = Calendar.getInstance().getTimeInMillis();
+            hashBytes(algos[a], binaryKeys);
+            elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+            System.out.println(((1000L * HASHES) / elapsed) + " " + names[a]
+                    + " byte[] ops");
+        }
+    }
+
+    private static long hashStrings(Hashing algo, String[] keys) {
+        long sum = 0;
+        for (int n = 0; n < HASHES; n++) {
+            sum += algo.hash(keys[n & (KEYS - 1)]);
+        }
+        return sum;
+    }
+
+    private static long hashBytes(Hashing algo, byte[][] keys) {
+        long sum = 0;
+        for (int n = 0; n < HASHES; n++) {
+            sum += algo.hash(keys[n & (KEYS - 1)]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,71 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.pool.BasePoolableObjectFactory;
+import org.apache.commons.pool.ObjectPool;
+import org.apache.commons.pool.impl.GenericObjectPool;
+import org.apache.commons.pool.impl.GenericObjectPool.Config;
+
+import redis.clients.util.LockFreeObjectPool;
+
+/**
+ * Borrows and returns from many threads with no work in between, so that all
+ * that is measured is the pool itself. Needs no server.
+ */
+public class PoolContentionBenchmark {
+    private static final int TOTAL_OPERATIONS = 10000000;
+    private static final int THREADS = 64;
+
+    public static void main(String[] args) throws Exception {
+        Config config = new Config();
+        config.maxActive = THREADS;
+        config.maxIdle = THREADS;
+
+        // warm up
+        run(new GenericObjectPool(new DummyFactory(), config));
+        run(new LockFreeObjectPool(new DummyFactory(), config));
+
+        System.out.println("GenericObjectPool: "
+                + run(new GenericObjectPool(new DummyFactory(), config))
+                + " ops");
+        System.out.println("LockFreeObjectPool: "
+                + run(new LockFreeObjectPool(new DummyFactory(), config))
+                + " ops");
+    }
+
+    private static long run(final ObjectPool pool) throws Exception {
+        List<Thread> tds = new ArrayList<Thread>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread t = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        for (int n = 0; n < TOTAL_OPERATIONS / THREADS; n++) {
+                            pool.returnObject(pool.borrowObject());
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            });
+            tds.add(t);
+        }
+
+        long t = System.currentTimeMillis();
+        for (Thread td : tds)
+            td.start();
+        for (Thread td : tds)
+            td.join();
+        long elapsed = System.currentTimeMillis() - t;
+
+        pool.close();
+        return (1000L * TOTAL_OPERATIONS) / elapsed;
+    }
+
+    private static class DummyFactory extends BasePoolableObjectFactory {
+        public Object makeObject() {
+            return new Object();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Calendar;
+
+import redis.clients.jedis.Protocol;
+import redis.clients.util.RedisInputStream;
+
+/**
+ * Compares the reply parser against the former readLine() based way of
+ * reading integer and length lines. Besides throughput it prints how many
+ * bytes were allocated per reply, when the JVM is able to tell.
+ */
+public class ProtocolBenchmark {
+    private static final int TOTAL_OPERATIONS = 10000000;
+    private static final int REPLIES_PER_ROUND = 1000;
+
+    public static void main(String[] args) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int n = 0; n < REPLIES_PER_ROUND / 2; n++) {
+            sb.append(":").append(100000 + n).append("\r\n");
+            sb.append("$3\r\nbar\r\n");
+        }
+        final byte[] replies = sb.toString().getBytes(Protocol.CHARSET);
+
+        // warm up both paths
+        readLines(replies, TOTAL_OPERATIONS / 10);
+        readPrimitives(replies, TOTAL_OPERATIONS / 10);
+
+        long allocated = allocatedBytes();
+        long begin = Calendar.getInstance().getTimeInMillis();
+        readLines(replies, TOTAL_OPERATIONS);
+        long elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+        allocated = allocatedBytes() - allocated;
+        print("readLine()", elapsed, allocated);
+
+        allocated = allocatedBytes();
+        begin = Calendar.getInstance().getTimeInMillis();
+        readPrimitives(replies, TOTAL_OPERATIONS);
+        elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+        allocated = allocatedBytes() - allocated;
+        print("Protocol.read()", elapsed, allocated);
+    }
+
+    private static long readLines(byte[] replies, int total)
+            throws IOException {
+        long sum = 0;
+        ByteArrayInputStream bis = new ByteArrayInputStream(replies);
+        RedisInputStream is = new RedisInputStream(bis);
+        for (int n = 0; n < total; n += REPLIES_PER_ROUND) {
+            bis.reset();
+            for (int i = 0; i < REPLIES_PER_ROUND / 2; i++) {
+                is.readByte();
+                sum += Long.valueOf(is.readLine());
+                is.readByte();
+                byte[] value = new byte[Integer.parseInt(is.readLine())];
+                is.read(value, 0, value.length);
+                is.readByte();
+                is.readByte();
+                sum += value.length;
+            }
+        }
+        return sum;
+    }
+
+    private static long readPrimitives(byte[] replies, int total) {
+        long sum = 0;
+        ByteArrayInputStream bis = new ByteArrayInputStream(replies);
+        RedisInputStream is = new RedisInputStream(bis);
+        for (int n = 0; n < total; n += REPLIES_PER_ROUND) {
+            bis.reset();
+            for (int i = 0; i < REPLIES_PER_ROUND / 2; i++) {
+                sum += (Long) Protocol.read(is);
+                sum += ((byte[]) Protocol.read(is)).length;
+            }
+        }
+        return sum;
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static void print(String name, long elapsed, long allocated) {
+        System.out.println(name + ": " + ((1000L * TOTAL_OPERATIONS) / elapsed)
+                + " ops, "
+                + (allocated < 0 ? "n/a" : (allocated / TOTAL_OPERATIONS))
+                + " bytes allocated per reply");
+    }
+}
@@ -2,12 +2,22 @@ package redis.clients.jedis.tests.benchmark;
 
 import java.io.IOException;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
 
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.ShardedJedis;
 import redis.clients.util.Hashing;
+import redis.clients.util.SafeEncoder;
 
 public class ShardedBenchmark {
     private static final int TOTAL_OPERATIONS = 10000000;
+    private static final int SHARDS = 8;
+    private static final int KEYS = 1024;
 
     public static void main(String[] args) throws UnknownHostException,
             IOException {
@@ -35,5 +45,119 @@ public class ShardedBenchmark {
         System.out.println(((1000 * TOTAL_OPERATIONS) / elapsed)
                 + " Murmur ops");
 
+        lookups();
+        taggedLookups();
     }
-}
\ No newline at end of file
+
+    /**
+     * Compares shard lookups on the array ring of Sharded with the TreeMap
+     * tailMap() lookups it replaced, on a ring built the same way.
+     */
+    private static void lookups() {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        TreeMap<Long, JedisShardInfo> nodes = new TreeMap<Long, JedisShardInfo>();
+        for (int i = 0; i < SHARDS; i++) {
+            JedisShardInfo shard = new JedisShardInfo("localhost", 6379 + i);
+            shards.add(shard);
+            for (int n = 0; n < 160 * shard.getWeight(); n++) {
+                nodes.put(Hashing.MURMUR_HASH.hash("SHARD-" + i + "-NODE-"
+                        + n), shard);
+            }
+        }
+        ShardedJedis sharded = new ShardedJedis(shards);
+        byte[][] keys = new byte[KEYS][];
+        for (int n = 0; n < KEYS; n++) {
+            keys[n] = SafeEncoder.encode("foo" + n);
+        }
+
+        // warm up both
+        treeMapLookups(nodes, keys);
+        ringLookups(sharded, keys);
+
+        long begin = Calendar.getInstance().getTimeInMillis();
+        treeMapLookups(nodes, keys);
+        long elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+        System.out.println(((1000L * TOTAL_OPERATIONS) / elapsed)
+                + " TreeMap lookups");
+
+        begin = Calendar.getInstance().getTimeInMillis();
+        ringLookups(sharded, keys);
+        elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+        System.out.println(((1000L * TOTAL_OPERATIONS) / elapsed)
+                + " ring lookups");
+    }
+
+    /**
+     * Compares lookups of tagged String keys, matching the default tag
+     * pattern and encoding the tag the way Sharded used to, with the scan of
+     * the encoded key it does now.
+     */
+    private static void taggedLookups() {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        for (int i = 0; i < SHARDS; i++) {
+            shards.add(new JedisShardInfo("localhost", 6379 + i));
+        }
+        ShardedJedis sharded = new ShardedJedis(shards,
+                ShardedJedis.DEFAULT_KEY_TAG_PATTERN);
+        String[] keys = new String[KEYS];
+        for (int n = 0; n < KEYS; n++) {
+            keys[n] = "user:{" + n + "}:profile";
+        }
+
+        // warm up both
+        regexTagHashes(keys);
+        scannedTagLookups(sharded, keys);
+
+        long begin = Calendar.getInstance().getTimeInMillis();
+        regexTagHashes(keys);
+        long elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+        System.out.println(((1000L * TOTAL_OPERATIONS) / elapsed)
+                + " regex tag hashes");
+
+        begin = Calendar.getInstance().getTimeInMillis();
+        scannedTagLookups(sharded, keys);
+        elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+        System.out.println(((1000L * TOTAL_OPERATIONS) / elapsed)
+                + " scanned tag lookups");
+    }
+
+    private static long regexTagHashes(String[] keys) {
+        long found = 0;
+        for (int n = 0; n < TOTAL_OPERATIONS; n++) {
+            String key = keys[n & (KEYS - 1)];
+            Matcher m = ShardedJedis.DEFAULT_KEY_TAG_PATTERN.matcher(key);
+            found += Hashing.MURMUR_HASH.hash(SafeEncoder.encode(m.find() ? m
+                    .group(1) : key));
+        }
+        return found;
+    }
+
+    private static int scannedTagLookups(ShardedJedis sharded, String[] keys) {
+        int found = 0;
+        for (int n = 0; n < TOTAL_OPERATIONS; n++) {
+            found += sharded.getShardInfo(keys[n & (KEYS - 1)]).getPort();
+        }
+        return found;
+    }
+
+    private static int treeMapLookups(TreeMap<Long, JedisShardInfo> nodes,
+            byte[][] keys) {
+        int found = 0;
+        for (int n = 0; n < TOTAL_OPERATIONS; n++) {
+            SortedMap<Long, JedisShardInfo> tail = nodes
+                    .tailMap(Hashing.MURMUR_HASH.hash(keys[n & (KEYS - 1)]));
+            JedisShardInfo shard = tail.isEmpty() ? nodes.get(nodes
+                    .firstKey()) : tail.get(tail.firstKey());
+            found += shard.getPort();
+        }
+        return found;
+    }
+
+    private static int ringLookups(ShardedJedis sharded, byte[][] keys) {
+        int found = 0;
+        for (int n = 0; n < TOTAL_OPERATIONS; n++) {
+            found += sharded.getShardInfo(keys[n & (KEYS - 1)]).getPort();
+        }
+        return found;
+    }
+}
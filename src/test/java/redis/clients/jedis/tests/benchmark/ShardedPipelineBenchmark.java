@@ -0,0 +1,93 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.ShardedJedis;
+import redis.clients.jedis.ShardedJedisPipeline;
+import redis.clients.jedis.tests.HostAndPortUtil;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+
+/**
+ * Measures the latency of syncing a pipeline spread over all the test
+ * shards: one shard after the other, the way ShardedJedisPipeline used to,
+ * then flushing every shard before reading, then reading the shards
+ * concurrently.
+ */
+public class ShardedPipelineBenchmark {
+    private static final int ROUNDS = 2000;
+    private static final int COMMANDS_PER_ROUND = 200;
+
+    public static void main(String[] args) throws Exception {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        for (HostAndPort hnp : HostAndPortUtil.getRedisServers()) {
+            JedisShardInfo shard = new JedisShardInfo(hnp.host, hnp.port);
+            shard.setPassword("foobared");
+            shards.add(shard);
+        }
+        ShardedJedis jedis = new ShardedJedis(shards);
+        for (int n = 0; n < COMMANDS_PER_ROUND; n++) {
+            jedis.set("foo" + n, "bar" + n);
+        }
+
+        // warm up
+        sequential(jedis);
+        flushFirst(jedis, null);
+
+        long elapsed = sequential(jedis);
+        print("one shard after the other", elapsed);
+
+        elapsed = flushFirst(jedis, null);
+        print("all shards flushed first", elapsed);
+
+        ExecutorService executor = Executors.newFixedThreadPool(shards
+                .size());
+        elapsed = flushFirst(jedis, executor);
+        print("shards read concurrently", elapsed);
+        executor.shutdown();
+
+        jedis.disconnect();
+    }
+
+    private static long sequential(ShardedJedis jedis) {
+        List<Pipeline> pipelines = new ArrayList<Pipeline>();
+        List<Jedis> shards = new ArrayList<Jedis>(jedis.getAllShards());
+        for (Jedis shard : shards) {
+            pipelines.add(shard.pipelined());
+        }
+        long begin = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            for (int n = 0; n < COMMANDS_PER_ROUND; n++) {
+                String key = "foo" + n;
+                pipelines.get(shards.indexOf(jedis.getShard(key))).get(key);
+            }
+            for (Pipeline p : pipelines) {
+                p.sync();
+            }
+        }
+        return System.nanoTime() - begin;
+    }
+
+    private static long flushFirst(ShardedJedis jedis, ExecutorService executor) {
+        long begin = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            ShardedJedisPipeline p = jedis.pipelined();
+            p.setExecutor(executor);
+            for (int n = 0; n < COMMANDS_PER_ROUND; n++) {
+                p.get("foo" + n);
+            }
+            p.sync();
+        }
+        return System.nanoTime() - begin;
+    }
+
+    private static void print(String name, long elapsedNanos) {
+        System.out.println(name + ": " + (elapsedNanos / ROUNDS / 1000)
+                + " us per sync of " + COMMANDS_PER_ROUND + " commands");
+    }
+}
@@ -0,0 +1,113 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.ShardedJedis;
+import redis.clients.util.Hashing;
+import redis.clients.util.SafeEncoder;
+import redis.clients.util.ShardingStrategy;
+
+/**
+ * Compares the sharding strategies: lookup rate, how evenly keys spread over
+ * the shards, and how many keys move when a shard is added at the end of the
+ * list, or the first shard is removed. No server is needed.
+ */
+public class ShardingBenchmark {
+    private static final int TOTAL_OPERATIONS = 10000000;
+    private static final int SHARDS = 8;
+    private static final int KEYS = 1000000;
+
+    public static void main(String[] args) {
+        String[] names = { "ring", "jump", "rendezvous" };
+        ShardingStrategy[] strategies = { ShardingStrategy.RING,
+                ShardingStrategy.JUMP, ShardingStrategy.RENDEZVOUS };
+
+        byte[][] keys = new byte[KEYS][];
+        for (int n = 0; n < KEYS; n++) {
+            keys[n] = SafeEncoder.encode("foo" + n);
+        }
+
+        for (int s = 0; s < strategies.length; s++) {
+            ShardedJedis sharded = sharded(shards(0, SHARDS), strategies[s]);
+            System.out.println(names[s] + ": "
+                    + sharded.getAllShardInfo().size() + " nodes");
+
+            lookups(sharded, keys);
+            long begin = Calendar.getInstance().getTimeInMillis();
+            lookups(sharded, keys);
+            long elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+            System.out.println("  " + ((1000L * TOTAL_OPERATIONS) / elapsed)
+                    + " lookups/s");
+
+            distribution(sharded, keys);
+
+            System.out.println("  "
+                    + moved(sharded, sharded(shards(0, SHARDS + 1),
+                            strategies[s]), keys)
+                    + "% of the keys moved when adding a shard, "
+                    + (100.0 / (SHARDS + 1)) + "% at best");
+            System.out.println("  "
+                    + moved(sharded, sharded(shards(1, SHARDS), strategies[s]),
+                            keys) + "% of the keys moved when removing the "
+                    + "first shard, " + (100.0 / SHARDS) + "% at best");
+        }
+    }
+
+    /**
+     * @return named shards, so that they keep their identity when the first
+     *         one is removed
+     */
+    private static List<JedisShardInfo> shards(int from, int to) {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        for (int i = from; i < to; i++) {
+            shards.add(new JedisShardInfo("localhost", 6379 + i, "shard" + i));
+        }
+        return shards;
+    }
+
+    private static ShardedJedis sharded(List<JedisShardInfo> shards,
+            ShardingStrategy strategy) {
+        return new ShardedJedis(shards, Hashing.MURMUR_HASH, null, strategy);
+    }
+
+    private static int lookups(ShardedJedis sharded, byte[][] keys) {
+        int found = 0;
+        for (int n = 0; n < TOTAL_OPERATIONS; n++) {
+            found += sharded.getShardInfo(keys[n % KEYS]).getPort();
+        }
+        return found;
+    }
+
+    private static void distribution(ShardedJedis sharded, byte[][] keys) {
+        int[] counts = new int[SHARDS];
+        for (byte[] key : keys) {
+            counts[sharded.getShardInfo(key).getPort() - 6379]++;
+        }
+        double mean = (double) KEYS / SHARDS;
+        double min = Double.MAX_VALUE, max = 0, squares = 0;
+        for (int count : counts) {
+            min = Math.min(min, count);
+            max = Math.max(max, count);
+            squares += (count - mean) * (count - mean);
+        }
+        System.out.println(String.format(
+                "  shard load from %.3f to %.3f of the mean, deviation %.2f%%",
+                min / mean, max / mean, 100 * Math.sqrt(squares / SHARDS)
+                        / mean));
+    }
+
+    private static double moved(ShardedJedis before, ShardedJedis after,
+            byte[][] keys) {
+        int moved = 0;
+        for (byte[] key : keys) {
+            if (before.getShardInfo(key).getPort() != after.getShardInfo(key)
+                    .getPort()) {
+                moved++;
+            }
+        }
+        return 100.0 * moved / keys.length;
+    }
+}
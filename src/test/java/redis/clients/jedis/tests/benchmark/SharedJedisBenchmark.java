@@ -0,0 +1,53 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.SharedJedis;
+import redis.clients.jedis.tests.HostAndPortUtil;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+
+/**
+ * The PoolBenchmark workload, with all threads sharing one SharedJedis
+ * instead of borrowing connections from a pool.
+ */
+public class SharedJedisBenchmark {
+    private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+    private static final int TOTAL_OPERATIONS = 100000;
+
+    public static void main(String[] args) throws Exception {
+        JedisShardInfo shardInfo = new JedisShardInfo(hnp.host, hnp.port);
+        shardInfo.setPassword("foobared");
+        final SharedJedis jedis = new SharedJedis(shardInfo);
+        List<Thread> tds = new ArrayList<Thread>();
+
+        long t = System.currentTimeMillis();
+        final AtomicInteger ind = new AtomicInteger();
+        for (int i = 0; i < 50; i++) {
+            Thread hj = new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; (i = ind.getAndIncrement()) < TOTAL_OPERATIONS;) {
+                        try {
+                            final String key = "foo" + i;
+                            jedis.set(key, key);
+                            jedis.get(key);
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+            });
+            tds.add(hj);
+            hj.start();
+        }
+
+        for (Thread hj : tds)
+            hj.join();
+        long elapsed = System.currentTimeMillis() - t;
+
+        jedis.disconnect();
+        System.out.println(((1000 * 2 * TOTAL_OPERATIONS) / elapsed) + " ops");
+    }
+}
@@ -6,6 +6,8 @@ import java.util.Set;
 
 import org.junit.Test;
 
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.util.SafeEncoder;
 
@@ -146,6 +148,38 @@ public class AllKindOfValuesCommandsTest extends JedisCommandTestBase {
         assertEquals(0, bkeys.size());
     }
 
+    @Test
+    public void scan() {
+        for (int i = 0; i < 25; i++) {
+            jedis.set("foo" + i, "bar");
+            jedis.set("bar" + i, "foo");
+        }
+
+        Set<String> keys = new HashSet<String>();
+        ScanParams params = new ScanParams().match("foo*").count(10);
+        String cursor = ScanParams.SCAN_POINTER_START;
+        ScanResult<String> page;
+        do {
+            page = jedis.scan(cursor, params);
+            keys.addAll(page.getResult());
+            cursor = page.getCursor();
+        } while (!page.isCompleteIteration());
+        assertEquals(25, keys.size());
+        assertTrue(keys.contains("foo0"));
+        assertFalse(keys.contains("bar0"));
+
+        // Binary
+        int count = 0;
+        byte[] bcursor = SafeEncoder.encode(ScanParams.SCAN_POINTER_START);
+        ScanResult<byte[]> bpage;
+        do {
+            bpage = jedis.scan(bcursor);
+            count += bpage.getResult().size();
+            bcursor = bpage.getCursorAsBytes();
+        } while (!bpage.isCompleteIteration());
+        assertEquals(50, count);
+    }
+
     @Test
     public void randomKey() {
         assertEquals(null, jedis.randomKey());
@@ -1,5 +1,7 @@
 package redis.clients.jedis.tests.commands;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -37,6 +39,34 @@ public class BinaryValuesCommandsTest extends JedisCommandTestBase {
         assertNull(jedis.get(bbar));
     }
 
+    @Test
+    public void setAndGetToStream() {
+        jedis.set(bfoo, binaryValue);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(binaryValue.length, jedis.get(bfoo, out));
+        assertTrue(Arrays.equals(binaryValue, out.toByteArray()));
+
+        out.reset();
+        assertEquals(-1, jedis.get(bbar, out));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    public void setAndGetWithByteBuffer() {
+        ByteBuffer value = ByteBuffer.allocateDirect(binaryValue.length);
+        value.put(binaryValue).flip();
+        String status = jedis.set(bfoo, value);
+        assertTrue(Keyword.OK.name().equalsIgnoreCase(status));
+
+        ByteBuffer dst = ByteBuffer.allocateDirect(binaryValue.length);
+        assertEquals(binaryValue.length, jedis.get(bfoo, dst));
+        dst.flip();
+        assertEquals(value, dst);
+
+        assertEquals(-1, jedis.get(bbar, dst));
+    }
+
     @Test
     public void getSet() {
         byte[] value = jedis.getSet(bfoo, binaryValue);
@@ -10,6 +10,8 @@ import java.util.Set;
 
 import org.junit.Test;
 
+import redis.clients.jedis.HashReplyVisitor;
+
 public class HashesCommandsTest extends JedisCommandTestBase {
     final byte[] bfoo = { 0x01, 0x02, 0x03, 0x04 };
     final byte[] bbar = { 0x05, 0x06, 0x07, 0x08 };
@@ -286,4 +288,22 @@ public class HashesCommandsTest extends JedisCommandTestBase {
         assertArrayEquals(bcar, bhash.get(bbar));
         assertArrayEquals(bbar, bhash.get(bcar));
     }
+
+    @Test
+    public void hgetAllWithVisitor() {
+        Map<String, String> h = new HashMap<String, String>();
+        h.put("bar", "car");
+        h.put("car", "bar");
+        jedis.hmset("foo", h);
+
+        final Map<String, String> hash = new HashMap<String, String>();
+        int count = jedis.hgetAll("foo", new HashReplyVisitor<String>() {
+            public void visit(String field, String value) {
+                hash.put(field, value);
+            }
+        });
+
+        assertEquals(2, count);
+        assertEquals(h, hash);
+    }
 }
@@ -8,6 +8,7 @@ import org.junit.Test;
 
 import redis.clients.jedis.Client;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.ReplyVisitor;
 import redis.clients.jedis.exceptions.JedisDataException;
 
 public class ListCommandsTest extends JedisCommandTestBase {
@@ -154,6 +155,25 @@ public class ListCommandsTest extends JedisCommandTestBase {
 
     }
 
+    @Test
+    public void lrangeWithVisitor() {
+        jedis.rpush("foo", "a", "b", "c");
+
+        final List<String> visited = new ArrayList<String>();
+        int count = jedis.lrange("foo", 0, -1, new ReplyVisitor<String>() {
+            public void visit(String element) {
+                visited.add(element);
+            }
+        });
+
+        List<String> expected = new ArrayList<String>();
+        expected.add("a");
+        expected.add("b");
+        expected.add("c");
+        assertEquals(3, count);
+        assertEquals(expected, visited);
+    }
+
     @Test
     public void ltrim() {
         jedis.lpush("foo", "1");
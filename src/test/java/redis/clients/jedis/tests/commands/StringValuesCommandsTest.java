@@ -109,6 +109,22 @@ public class StringValuesCommandsTest extends JedisCommandTestBase {
         assertEquals(2, value);
     }
 
+    @Test
+    public void incrAsLong() {
+        assertEquals(1, jedis.incrAsLong("foo"));
+        assertEquals(3, jedis.incrByAsLong("foo", 2));
+        assertEquals(2, jedis.decrAsLong("foo"));
+        assertEquals(0, jedis.decrByAsLong("foo", 2));
+        assertTrue(jedis.existsAsBoolean("foo"));
+        assertFalse(jedis.existsAsBoolean("bar"));
+    }
+
+    @Test(expected = JedisDataException.class)
+    public void incrAsLongWrongValue() {
+        jedis.set("foo", "bar");
+        jedis.incrAsLong("foo");
+    }
+
     @Test(expected = JedisDataException.class)
     public void incrByWrongValue() {
         jedis.set("foo", "bar");